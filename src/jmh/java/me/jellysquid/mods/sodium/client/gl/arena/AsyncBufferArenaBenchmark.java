@@ -0,0 +1,119 @@
+package me.jellysquid.mods.sodium.client.gl.arena;
+
+import me.jellysquid.mods.sodium.client.gl.arena.staging.FallbackStagingBuffer;
+import me.jellysquid.mods.sodium.client.gl.device.CommandList;
+import me.jellysquid.mods.sodium.client.gl.device.RecordingRenderDevice;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of finding a free segment for an allocation in a fragmented arena, comparing the index of free
+ * segments used by the arena against a scan of the whole segment list, which is how free segments were found before.
+ *
+ * The arena is filled with segments of random sizes, and every other segment is then freed, leaving as many free
+ * segments as used ones. The indexed benchmark performs a full allocation and free, while the scan only searches for
+ * the segment which would be allocated.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AsyncBufferArenaBenchmark {
+    private static final int STRIDE = 16;
+
+    @Param({ "256", "4096", "32768" })
+    public int segmentCount;
+
+    private RecordingRenderDevice device;
+    private CommandList commandList;
+
+    private AsyncBufferArena arena;
+    private GlBufferSegment head;
+
+    private int[] sizes;
+    private int nextSize;
+
+    @Setup
+    public void setup() {
+        this.device = new RecordingRenderDevice();
+        this.device.makeActive();
+
+        this.commandList = this.device.createCommandList();
+
+        Random random = new Random(0);
+
+        int[] lengths = new int[this.segmentCount];
+        int capacity = 0;
+
+        for (int i = 0; i < lengths.length; i++) {
+            lengths[i] = (1 + random.nextInt(64)) * STRIDE;
+            capacity += lengths[i];
+        }
+
+        this.arena = new AsyncBufferArena(this.commandList, capacity, new FallbackStagingBuffer(this.commandList));
+
+        List<GlBufferSegment> segments = new ArrayList<>();
+
+        for (int length : lengths) {
+            segments.add(this.arena.alloc(length));
+        }
+
+        // Segments are taken from the end of the free space, so the last one fills the start of the arena
+        this.head = segments.get(segments.size() - 1);
+
+        for (int i = 0; i < segments.size() - 1; i += 2) {
+            this.arena.free(segments.get(i));
+        }
+
+        this.sizes = new int[1024];
+
+        for (int i = 0; i < this.sizes.length; i++) {
+            this.sizes[i] = (1 + random.nextInt(64)) * STRIDE;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.arena.delete(this.commandList);
+        this.device.makeInactive();
+    }
+
+    private int nextSize() {
+        return this.sizes[this.nextSize++ & (this.sizes.length - 1)];
+    }
+
+    @Benchmark
+    public GlBufferSegment indexed() {
+        GlBufferSegment segment = this.arena.alloc(this.nextSize());
+
+        if (segment != null) {
+            this.arena.free(segment);
+        }
+
+        return segment;
+    }
+
+    @Benchmark
+    public GlBufferSegment scan() {
+        int size = this.nextSize();
+
+        GlBufferSegment best = null;
+        GlBufferSegment entry = this.head;
+
+        while (entry != null) {
+            if (entry.isFree() && entry.getLength() >= size && (best == null || entry.getLength() < best.getLength())) {
+                best = entry;
+            }
+
+            entry = entry.getNext();
+        }
+
+        return best;
+    }
+}
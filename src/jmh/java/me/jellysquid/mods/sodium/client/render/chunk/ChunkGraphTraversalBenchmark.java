@@ -0,0 +1,69 @@
+package me.jellysquid.mods.sodium.client.render.chunk;
+
+import me.jellysquid.mods.sodium.client.render.chunk.graph.ChunkGraphFixture;
+import me.jellysquid.mods.sodium.client.render.chunk.graph.ChunkGraphTraversal;
+import me.jellysquid.mods.sodium.client.util.BootstrapUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of searching the visibility graph for the sections in view, comparing a serial search against one
+ * which splits the culling and frustum tests of large distance shells across the common fork-join pool.
+ *
+ * The search is the {@link ChunkGraphTraversal} used by {@link RenderSectionManager} each frame, and runs over the
+ * synthetic graph of {@link ChunkGraphFixture}, in which the whole frustum is visited. Neither the render lists nor
+ * the rebuild queues are filled, as their cost doesn't change between the two searches.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkGraphTraversalBenchmark {
+    @Param({ "12", "24", "32" })
+    public int renderDistance;
+
+    private ChunkGraphFixture fixture;
+    private ChunkGraphTraversal traversal;
+
+    private int stamp;
+
+    @Setup
+    public void setup() {
+        BootstrapUtil.bootstrap();
+
+        this.fixture = new ChunkGraphFixture(this.renderDistance);
+        this.traversal = new ChunkGraphTraversal(this.renderDistance, new ChunkGraphTraversal.Visitor() {
+            @Override
+            public void onSectionVisible(RenderSection section) {
+
+            }
+
+            @Override
+            public void onSectionIterated(RenderSection section) {
+
+            }
+        });
+    }
+
+    @Benchmark
+    public int serial() {
+        return this.search(false);
+    }
+
+    @Benchmark
+    public int parallel() {
+        return this.search(true);
+    }
+
+    private int search(boolean parallel) {
+        this.traversal.begin(this.fixture.getFrustum(), ++this.stamp, true, 0, 0);
+        this.traversal.addRoot(this.fixture.getRoot());
+        this.traversal.iterate(parallel);
+
+        return this.traversal.getQueue()
+                .size();
+    }
+}
@@ -0,0 +1,150 @@
+package me.jellysquid.mods.sodium.client.render.chunk.compile;
+
+import me.jellysquid.mods.sodium.client.render.chunk.passes.BlockRenderPassManager;
+import me.jellysquid.mods.sodium.client.render.pipeline.ModelFixtures;
+import me.jellysquid.mods.sodium.client.util.BootstrapUtil;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockRenderType;
+import net.minecraft.block.BlockState;
+import net.minecraft.client.render.RenderLayers;
+import net.minecraft.client.render.model.BakedModel;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.EmptyBlockView;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-block cost of looking up the properties which the rebuild task needs for each block of a section,
+ * comparing the {@link BlockRenderTable} against querying each property from the block state, which is how the
+ * rebuild task found them before.
+ *
+ * Each operation classifies every block of one section from the terrain fixtures, and only the look-ups are measured,
+ * not the rendering of the blocks. Models are taken from an identity map of every block state, in the same way as
+ * {@link net.minecraft.client.render.block.BlockModels}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockRenderTableBenchmark {
+    @Param({ "STONE", "WATER", "FOLIAGE", "MIXED_SLABS" })
+    public String fixture;
+
+    private BlockRenderPassManager renderPassManager;
+    private Map<BlockState, BakedModel> models;
+    private BlockRenderTable table;
+
+    private BlockState[] states;
+
+    private final BlockPos.Mutable pos = new BlockPos.Mutable();
+
+    @Setup
+    public void setup() {
+        BootstrapUtil.bootstrap();
+
+        ModelFixtures fixtures = new ModelFixtures();
+
+        this.models = new IdentityHashMap<>();
+
+        for (BlockState state : Block.STATE_IDS) {
+            this.models.put(state, fixtures.getModel(state));
+        }
+
+        this.renderPassManager = BlockRenderPassManager.createDefaultMappings();
+        this.table = BlockRenderTable.create(this.renderPassManager, this.models::get);
+
+        SectionFixture fixture = SectionFixture.valueOf(this.fixture);
+
+        this.states = new BlockState[16 * 16 * 16];
+
+        for (int i = 0; i < this.states.length; i++) {
+            this.states[i] = fixture.getBlockState(i & 15, i >> 8, (i >> 4) & 15);
+        }
+    }
+
+    @Benchmark
+    public int table() {
+        BlockRenderTable table = this.table;
+        BlockPos.Mutable pos = this.pos;
+
+        int result = 0;
+
+        for (int i = 0; i < this.states.length; i++) {
+            BlockState state = this.states[i];
+
+            int stateId = table.getStateId(state);
+            int flags = table.getFlags(stateId);
+
+            if ((flags & BlockRenderTable.FLAG_AIR) != 0) {
+                continue;
+            }
+
+            int blockPass = table.getBlockPass(stateId);
+
+            if (blockPass >= 0) {
+                result += blockPass + System.identityHashCode(table.getModel(stateId));
+            }
+
+            result += table.getFluidPass(stateId);
+
+            if ((flags & BlockRenderTable.FLAG_HAS_BLOCK_ENTITY) != 0) {
+                result++;
+            }
+
+            pos.set(i & 15, i >> 8, (i >> 4) & 15);
+
+            if (table.isOpaqueFullCube(stateId, state, EmptyBlockView.INSTANCE, pos)) {
+                result++;
+            }
+        }
+
+        return result;
+    }
+
+    @Benchmark
+    public int direct() {
+        BlockPos.Mutable pos = this.pos;
+
+        int result = 0;
+
+        for (int i = 0; i < this.states.length; i++) {
+            BlockState state = this.states[i];
+
+            if (state.isAir()) {
+                continue;
+            }
+
+            if (state.getRenderType() == BlockRenderType.MODEL) {
+                int blockPass = this.renderPassManager.getRenderPassId(RenderLayers.getBlockLayer(state));
+
+                result += blockPass + System.identityHashCode(this.models.get(state));
+            }
+
+            FluidState fluidState = state.getFluidState();
+
+            if (!fluidState.isEmpty()) {
+                result += this.renderPassManager.getRenderPassId(RenderLayers.getFluidLayer(fluidState));
+            } else {
+                result--;
+            }
+
+            if (state.hasBlockEntity()) {
+                result++;
+            }
+
+            pos.set(i & 15, i >> 8, (i >> 4) & 15);
+
+            if (state.isOpaqueFullCube(EmptyBlockView.INSTANCE, pos)) {
+                result++;
+            }
+        }
+
+        return result;
+    }
+}
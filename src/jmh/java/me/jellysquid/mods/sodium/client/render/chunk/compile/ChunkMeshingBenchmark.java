@@ -0,0 +1,107 @@
+package me.jellysquid.mods.sodium.client.render.chunk.compile;
+
+import me.jellysquid.mods.sodium.client.gl.compile.ChunkBuildContext;
+import me.jellysquid.mods.sodium.client.gl.util.ElementRange;
+import me.jellysquid.mods.sodium.client.model.quad.blender.LinearColorBlender;
+import me.jellysquid.mods.sodium.client.render.chunk.RenderSection;
+import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkMeshData;
+import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkRenderData;
+import me.jellysquid.mods.sodium.client.render.chunk.format.ChunkModelVertexFormats;
+import me.jellysquid.mods.sodium.client.render.chunk.passes.BlockRenderPassManager;
+import me.jellysquid.mods.sodium.client.render.chunk.region.RenderRegion;
+import me.jellysquid.mods.sodium.client.render.chunk.tasks.ChunkRenderRebuildTask;
+import me.jellysquid.mods.sodium.client.render.pipeline.ModelFixtures;
+import me.jellysquid.mods.sodium.client.render.pipeline.context.ChunkRenderCacheLocal;
+import me.jellysquid.mods.sodium.client.util.BootstrapUtil;
+import me.jellysquid.mods.sodium.client.util.task.CancellationSource;
+import me.jellysquid.mods.sodium.client.world.WorldSliceFixture;
+import net.minecraft.util.math.ChunkSectionPos;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how quickly the meshes of a single chunk section are built from each of the synthetic terrain fixtures,
+ * using the same rebuild task as the chunk builder's worker threads.
+ *
+ * Each operation builds one section, so the throughput is given in sections per second. The bytes allocated for each
+ * section are reported by the GC profiler as {@code gc.alloc.rate.norm}.
+ *
+ * The number of vertices written into the meshes and the number saved by greedy meshing are reported as the secondary
+ * results {@code emittedVertices} and {@code savedVertices}. Like the primary result, they are given per second, so
+ * dividing either by the throughput gives the count for a single section.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkMeshingBenchmark {
+    private static final CancellationSource NEVER_CANCELLED = () -> false;
+
+    @Param({ "STONE", "WATER", "FOLIAGE", "MIXED_SLABS" })
+    public String fixture;
+
+    @Param({ "false", "true" })
+    public boolean useGreedyMeshing;
+
+    private ChunkBuildContext context;
+    private ChunkRenderRebuildTask task;
+
+    @Setup
+    public void setup() {
+        BootstrapUtil.bootstrap();
+
+        ModelFixtures models = new ModelFixtures();
+        BlockRenderPassManager renderPassManager = BlockRenderPassManager.createDefaultMappings();
+
+        ChunkRenderCacheLocal cache = new ChunkRenderCacheLocal(new WorldSliceFixture(), models.getBlockColors(),
+                new LinearColorBlender(), models.getWaterOverlaySprite(), true);
+
+        this.context = new ChunkBuildContext(new ChunkBuildBuffers(ChunkModelVertexFormats.DEFAULT, renderPassManager, this.useGreedyMeshing),
+                cache, BlockRenderTable.create(renderPassManager, models::getModel));
+
+        ChunkSectionPos origin = ChunkSectionPos.from(0, 4, 0);
+
+        RenderSection render = new RenderSection(null, origin.getX(), origin.getY(), origin.getZ(),
+                RenderRegion.createRegionForChunk(null, origin.getX(), origin.getY(), origin.getZ()));
+
+        this.task = new ChunkRenderRebuildTask(render, SectionFixture.valueOf(this.fixture).createRenderContext(origin), 0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.context.release();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class VertexCounters {
+        public long emittedVertices;
+        public long savedVertices;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            this.emittedVertices = 0;
+            this.savedVertices = 0;
+        }
+    }
+
+    @Benchmark
+    public ChunkRenderData buildSection(VertexCounters counters) {
+        ChunkBuildResult result = this.task.performBuild(this.context, NEVER_CANCELLED);
+
+        for (ChunkMeshData mesh : result.meshes.values()) {
+            for (ElementRange range : mesh.getParts().values()) {
+                counters.emittedVertices += range.vertexCount();
+            }
+        }
+
+        counters.savedVertices += this.context.buffers.getSavedVertexCount();
+
+        result.delete();
+
+        return result.data;
+    }
+}
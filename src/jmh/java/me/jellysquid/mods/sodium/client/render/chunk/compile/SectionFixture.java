@@ -0,0 +1,174 @@
+package me.jellysquid.mods.sodium.client.render.chunk.compile;
+
+import me.jellysquid.mods.sodium.client.world.WorldSlice;
+import me.jellysquid.mods.sodium.client.world.cloned.ChunkRenderContext;
+import me.jellysquid.mods.sodium.client.world.cloned.ClonedChunkSection;
+import me.jellysquid.mods.sodium.client.world.cloned.ClonedChunkSectionFixture;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.SlabBlock;
+import net.minecraft.block.enums.SlabType;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.registry.BuiltinRegistries;
+import net.minecraft.world.biome.Biome;
+import net.minecraft.world.biome.BiomeKeys;
+
+/**
+ * The synthetic terrain used by the chunk meshing benchmarks. Each fixture describes the blocks of the section being
+ * built and of its neighbors, with coordinates relative to the origin of the section. The blocks are chosen with a
+ * fixed hash of their position, so that every run builds exactly the same geometry.
+ */
+public enum SectionFixture {
+    /**
+     * Underground terrain, where most blocks are buried and only the faces around caves and ores need to be rendered.
+     */
+    STONE {
+        @Override
+        public BlockState getBlockState(int x, int y, int z) {
+            int hash = hash(x, y, z) & 127;
+
+            if (hash < 6) {
+                return Blocks.CAVE_AIR.getDefaultState();
+            } else if (hash < 8) {
+                return Blocks.COAL_ORE.getDefaultState();
+            } else if (hash < 9) {
+                return Blocks.IRON_ORE.getDefaultState();
+            }
+
+            return Blocks.STONE.getDefaultState();
+        }
+    },
+
+    /**
+     * The surface of an ocean, which is mostly water over a sand floor.
+     */
+    WATER {
+        @Override
+        public BlockState getBlockState(int x, int y, int z) {
+            if (y < 2) {
+                return Blocks.SAND.getDefaultState();
+            } else if (y < 13) {
+                return Blocks.WATER.getDefaultState();
+            }
+
+            return Blocks.AIR.getDefaultState();
+        }
+    },
+
+    /**
+     * A forest floor covered in grass and ferns beneath the trunks and canopy of trees, which is mostly made up of
+     * tinted and non-opaque blocks.
+     */
+    FOLIAGE {
+        @Override
+        public BlockState getBlockState(int x, int y, int z) {
+            if (y < 3) {
+                return Blocks.DIRT.getDefaultState();
+            } else if (y == 3) {
+                return Blocks.GRASS_BLOCK.getDefaultState();
+            }
+
+            boolean trunk = Math.floorMod(x, 5) == 2 && Math.floorMod(z, 5) == 2;
+
+            if (trunk && y < 12) {
+                return Blocks.OAK_LOG.getDefaultState();
+            }
+
+            int hash = hash(x, y, z) & 15;
+
+            if (y == 4) {
+                if (hash < 6) {
+                    return Blocks.GRASS.getDefaultState();
+                } else if (hash < 8) {
+                    return Blocks.FERN.getDefaultState();
+                }
+            } else if (y >= 8 && y < 14 && hash < 12) {
+                return Blocks.OAK_LEAVES.getDefaultState();
+            }
+
+            return Blocks.AIR.getDefaultState();
+        }
+    },
+
+    /**
+     * The worst case for face culling, where every block is a slab. None of the faces between neighboring slabs can be
+     * culled without comparing their shapes.
+     */
+    MIXED_SLABS {
+        @Override
+        public BlockState getBlockState(int x, int y, int z) {
+            int hash = hash(x, y, z);
+
+            Block block = switch (Math.floorMod(hash, 3)) {
+                case 0 -> Blocks.STONE_SLAB;
+                case 1 -> Blocks.OAK_SLAB;
+                default -> Blocks.SMOOTH_STONE_SLAB;
+            };
+
+            SlabType type = switch ((hash >>> 8) & 7) {
+                case 0, 1, 2 -> SlabType.BOTTOM;
+                case 3, 4, 5 -> SlabType.TOP;
+                default -> SlabType.DOUBLE;
+            };
+
+            return block.getDefaultState().with(SlabBlock.TYPE, type);
+        }
+    };
+
+    /**
+     * @return The block at the given position, relative to the origin of the section being built
+     */
+    public abstract BlockState getBlockState(int x, int y, int z);
+
+    /**
+     * Creates the context for building the section at the given position, which contains the section itself and the
+     * sections around it.
+     */
+    public ChunkRenderContext createRenderContext(ChunkSectionPos origin) {
+        Biome biome = BuiltinRegistries.BIOME.get(BiomeKeys.PLAINS);
+
+        // The slice only reads the sections directly next to the origin
+        ClonedChunkSection[] sections = new ClonedChunkSection[WorldSlice.getLocalSectionIndex(2, 2, 2) + 1];
+
+        for (int x = -1; x <= 1; x++) {
+            for (int y = -1; y <= 1; y++) {
+                for (int z = -1; z <= 1; z++) {
+                    ChunkSectionPos pos = ChunkSectionPos.from(origin.getX() + x, origin.getY() + y, origin.getZ() + z);
+
+                    sections[WorldSlice.getLocalSectionIndex(x + 1, y + 1, z + 1)] =
+                            new ClonedChunkSectionFixture(pos, this.createBlockStates(x, y, z), biome);
+                }
+            }
+        }
+
+        BlockBox volume = new BlockBox(origin.getMinX() - 2, origin.getMinY() - 2, origin.getMinZ() - 2,
+                origin.getMaxX() + 2, origin.getMaxY() + 2, origin.getMaxZ() + 2);
+
+        return new ChunkRenderContext(origin, sections, volume);
+    }
+
+    private BlockState[] createBlockStates(int sectionX, int sectionY, int sectionZ) {
+        BlockState[] states = new BlockState[16 * 16 * 16];
+
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    states[WorldSlice.getLocalBlockIndex(x, y, z)] =
+                            this.getBlockState((sectionX << 4) + x, (sectionY << 4) + y, (sectionZ << 4) + z);
+                }
+            }
+        }
+
+        return states;
+    }
+
+    private static int hash(int x, int y, int z) {
+        int hash = x * 73856093 ^ y * 19349663 ^ z * 83492791;
+        hash ^= hash >>> 13;
+        hash *= 0x5bd1e995;
+
+        return hash ^ (hash >>> 15);
+    }
+}
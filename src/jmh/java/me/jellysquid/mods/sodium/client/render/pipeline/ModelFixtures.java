@@ -0,0 +1,304 @@
+package me.jellysquid.mods.sodium.client.render.pipeline;
+
+import me.jellysquid.mods.sodium.client.model.quad.ModelQuadView;
+import me.jellysquid.mods.sodium.client.model.quad.blender.ColorSampler;
+import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadFlags;
+import me.jellysquid.mods.sodium.client.util.ModelQuadUtil;
+import me.jellysquid.mods.sodium.client.util.Norm3b;
+import me.jellysquid.mods.sodium.client.world.biome.BlockColorsExtended;
+import me.jellysquid.mods.sodium.common.util.DirectionUtil;
+import net.fabricmc.fabric.api.client.render.fluid.v1.FluidRenderHandler;
+import net.fabricmc.fabric.api.client.render.fluid.v1.FluidRenderHandlerRegistry;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.LeavesBlock;
+import net.minecraft.block.PlantBlock;
+import net.minecraft.block.SlabBlock;
+import net.minecraft.client.color.world.BiomeColors;
+import net.minecraft.client.render.model.BakedModel;
+import net.minecraft.client.render.model.BakedQuad;
+import net.minecraft.client.render.model.BasicBakedModel;
+import net.minecraft.client.render.model.json.ModelOverrideList;
+import net.minecraft.client.render.model.json.ModelTransformation;
+import net.minecraft.client.resource.metadata.AnimationResourceMetadata;
+import net.minecraft.client.texture.NativeImage;
+import net.minecraft.client.texture.Sprite;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.fluid.Fluids;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.world.BlockRenderView;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Simple stand-ins for the models, colors, and fluid sprites which are normally loaded from the resource packs, so that
+ * chunk meshes can be built without a client. Every block is rendered with the same textures, but the geometry of the
+ * models (full cubes, slabs, and crossed planes) matches the vanilla models which they replace.
+ */
+public class ModelFixtures {
+    private static final int WATER_COLOR = 0x3F76E4;
+
+    private static final ColorSampler<BlockState> NO_COLOR = (state, world, pos, tintIndex) -> -1;
+    private static final ColorSampler<BlockState> GRASS_COLOR = (state, world, pos, tintIndex) ->
+            world != null && pos != null ? BiomeColors.getGrassColor(world, pos) : -1;
+    private static final ColorSampler<BlockState> FOLIAGE_COLOR = (state, world, pos, tintIndex) ->
+            world != null && pos != null ? BiomeColors.getFoliageColor(world, pos) : -1;
+
+    private final Sprite blockSprite;
+    private final Sprite[] waterSprites;
+    private final Sprite waterOverlaySprite;
+
+    private final BakedModel cube, tintedCube;
+    private final BakedModel bottomSlab, topSlab;
+    private final BakedModel cross, tintedCross;
+
+    public ModelFixtures() {
+        this.blockSprite = createSprite("block", 0);
+        this.waterSprites = new Sprite[] { createSprite("water_still", 1), createSprite("water_flow", 2) };
+        this.waterOverlaySprite = createSprite("water_overlay", 3);
+
+        this.cube = this.createBox(0.0f, 1.0f, -1);
+        this.tintedCube = this.createBox(0.0f, 1.0f, 0);
+        this.bottomSlab = this.createBox(0.0f, 0.5f, -1);
+        this.topSlab = this.createBox(0.5f, 1.0f, -1);
+        this.cross = this.createCross(-1);
+        this.tintedCross = this.createCross(0);
+
+        // Replaces the handler installed by Fabric API, whose sprites are only set when the resource packs are loaded
+        FluidRenderHandlerRegistry.INSTANCE.register(Fluids.WATER, Fluids.FLOWING_WATER, new FluidRenderHandler() {
+            @Override
+            public Sprite[] getFluidSprites(BlockRenderView view, BlockPos pos, FluidState state) {
+                return ModelFixtures.this.waterSprites;
+            }
+
+            @Override
+            public int getFluidColor(BlockRenderView view, BlockPos pos, FluidState state) {
+                return WATER_COLOR;
+            }
+        });
+    }
+
+    public BakedModel getModel(BlockState state) {
+        Block block = state.getBlock();
+
+        if (block instanceof SlabBlock) {
+            return switch (state.get(SlabBlock.TYPE)) {
+                case BOTTOM -> this.bottomSlab;
+                case TOP -> this.topSlab;
+                case DOUBLE -> this.cube;
+            };
+        }
+
+        if (block instanceof PlantBlock) {
+            return isTinted(block) ? this.tintedCross : this.cross;
+        }
+
+        return isTinted(block) ? this.tintedCube : this.cube;
+    }
+
+    public BlockColorsExtended getBlockColors() {
+        return state -> {
+            Block block = state.getBlock();
+
+            if (block instanceof LeavesBlock) {
+                return FOLIAGE_COLOR;
+            } else if (isTinted(block)) {
+                return GRASS_COLOR;
+            }
+
+            return NO_COLOR;
+        };
+    }
+
+    public Sprite getWaterOverlaySprite() {
+        return this.waterOverlaySprite;
+    }
+
+    private static boolean isTinted(Block block) {
+        return block == Blocks.GRASS_BLOCK || block == Blocks.GRASS || block == Blocks.FERN || block instanceof LeavesBlock;
+    }
+
+    private BakedModel createBox(float minY, float maxY, int colorIndex) {
+        List<BakedQuad> unculled = new ArrayList<>();
+        Map<Direction, List<BakedQuad>> culled = new EnumMap<>(Direction.class);
+
+        for (Direction dir : DirectionUtil.ALL_DIRECTIONS) {
+            culled.put(dir, new ArrayList<>());
+        }
+
+        for (Direction dir : DirectionUtil.ALL_DIRECTIONS) {
+            BakedQuad quad = this.createBoxFace(dir, minY, maxY, colorIndex);
+
+            // Faces which are inside the block, such as the top of a bottom slab, are never culled
+            boolean inside = (dir == Direction.UP && maxY < 1.0f) || (dir == Direction.DOWN && minY > 0.0f);
+
+            if (inside) {
+                unculled.add(quad);
+            } else {
+                culled.get(dir).add(quad);
+            }
+        }
+
+        return createModel(unculled, culled, true);
+    }
+
+    private BakedQuad createBoxFace(Direction dir, float minY, float maxY, int colorIndex) {
+        // The corners of each face in the same order as vanilla's cube faces
+        float[][] corners = switch (dir) {
+            case DOWN -> new float[][] { { 0, minY, 1 }, { 0, minY, 0 }, { 1, minY, 0 }, { 1, minY, 1 } };
+            case UP -> new float[][] { { 0, maxY, 0 }, { 0, maxY, 1 }, { 1, maxY, 1 }, { 1, maxY, 0 } };
+            case NORTH -> new float[][] { { 1, maxY, 0 }, { 1, minY, 0 }, { 0, minY, 0 }, { 0, maxY, 0 } };
+            case SOUTH -> new float[][] { { 0, maxY, 1 }, { 0, minY, 1 }, { 1, minY, 1 }, { 1, maxY, 1 } };
+            case WEST -> new float[][] { { 0, maxY, 0 }, { 0, minY, 0 }, { 0, minY, 1 }, { 0, maxY, 1 } };
+            case EAST -> new float[][] { { 1, maxY, 1 }, { 1, minY, 1 }, { 1, minY, 0 }, { 1, maxY, 0 } };
+        };
+
+        int[] data = new int[4 * ModelQuadUtil.VERTEX_SIZE];
+
+        for (int i = 0; i < 4; i++) {
+            float x = corners[i][0];
+            float y = corners[i][1];
+            float z = corners[i][2];
+
+            // The default texture mapping of a cube face, which is projected from the position of each vertex
+            float u = switch (dir) {
+                case UP, DOWN, SOUTH -> x;
+                case NORTH -> 1.0f - x;
+                case WEST -> z;
+                case EAST -> 1.0f - z;
+            };
+
+            float v = switch (dir) {
+                case UP -> z;
+                case DOWN -> 1.0f - z;
+                default -> 1.0f - y;
+            };
+
+            this.writeVertex(data, i, x, y, z, u, v, ModelQuadUtil.getFacingNormal(dir));
+        }
+
+        return new FixtureQuad(data, colorIndex, dir, this.blockSprite, true);
+    }
+
+    private BakedModel createCross(int colorIndex) {
+        List<BakedQuad> quads = new ArrayList<>();
+
+        // Two planes through the diagonals of the block, each of which is visible from both sides
+        quads.add(this.createPlane(0.0f, 0.0f, 1.0f, 1.0f, Direction.SOUTH, colorIndex));
+        quads.add(this.createPlane(1.0f, 1.0f, 0.0f, 0.0f, Direction.NORTH, colorIndex));
+        quads.add(this.createPlane(0.0f, 1.0f, 1.0f, 0.0f, Direction.EAST, colorIndex));
+        quads.add(this.createPlane(1.0f, 0.0f, 0.0f, 1.0f, Direction.WEST, colorIndex));
+
+        Map<Direction, List<BakedQuad>> culled = new EnumMap<>(Direction.class);
+
+        for (Direction dir : DirectionUtil.ALL_DIRECTIONS) {
+            culled.put(dir, List.of());
+        }
+
+        return createModel(quads, culled, false);
+    }
+
+    private BakedQuad createPlane(float x1, float z1, float x2, float z2, Direction face, int colorIndex) {
+        float dx = z2 - z1;
+        float dz = x1 - x2;
+        float len = (float) Math.sqrt(dx * dx + dz * dz);
+
+        int normal = Norm3b.pack(dx / len, 0.0f, dz / len);
+
+        int[] data = new int[4 * ModelQuadUtil.VERTEX_SIZE];
+
+        this.writeVertex(data, 0, x1, 1.0f, z1, 0.0f, 0.0f, normal);
+        this.writeVertex(data, 1, x1, 0.0f, z1, 0.0f, 1.0f, normal);
+        this.writeVertex(data, 2, x2, 0.0f, z2, 1.0f, 1.0f, normal);
+        this.writeVertex(data, 3, x2, 1.0f, z2, 1.0f, 0.0f, normal);
+
+        return new FixtureQuad(data, colorIndex, face, this.blockSprite, false);
+    }
+
+    private void writeVertex(int[] data, int idx, float x, float y, float z, float u, float v, int normal) {
+        int offset = ModelQuadUtil.vertexOffset(idx);
+
+        data[offset + ModelQuadUtil.POSITION_INDEX] = Float.floatToRawIntBits(x);
+        data[offset + ModelQuadUtil.POSITION_INDEX + 1] = Float.floatToRawIntBits(y);
+        data[offset + ModelQuadUtil.POSITION_INDEX + 2] = Float.floatToRawIntBits(z);
+        data[offset + ModelQuadUtil.COLOR_INDEX] = -1;
+        data[offset + ModelQuadUtil.TEXTURE_INDEX] = Float.floatToRawIntBits(this.blockSprite.getFrameU(u * 16.0f));
+        data[offset + ModelQuadUtil.TEXTURE_INDEX + 1] = Float.floatToRawIntBits(this.blockSprite.getFrameV(v * 16.0f));
+        data[offset + ModelQuadUtil.LIGHT_INDEX] = 0;
+        data[offset + ModelQuadUtil.NORMAL_INDEX] = normal;
+    }
+
+    private BakedModel createModel(List<BakedQuad> quads, Map<Direction, List<BakedQuad>> faceQuads, boolean isSideLit) {
+        return new BasicBakedModel(quads, faceQuads, true, isSideLit, false, this.blockSprite,
+                ModelTransformation.NONE, ModelOverrideList.EMPTY);
+    }
+
+    private static Sprite createSprite(String name, int tile) {
+        Sprite.Info info = new Sprite.Info(new Identifier("sodium", "fixture/" + name), 16, 16, AnimationResourceMetadata.EMPTY);
+
+        // Each sprite occupies its own tile in the first row of a 256x256 atlas, which is never uploaded
+        return new Sprite(null, info, 0, 256, 256, tile * 16, 0, new NativeImage(16, 16, false)) { };
+    }
+
+    // Mixins aren't applied outside of the game, so the quad view needs to be implemented here
+    private static class FixtureQuad extends BakedQuad implements ModelQuadView {
+        private final int flags;
+
+        public FixtureQuad(int[] vertexData, int colorIndex, Direction face, Sprite sprite, boolean shade) {
+            super(vertexData, colorIndex, face, sprite, shade);
+
+            this.flags = ModelQuadFlags.getQuadFlags(this);
+        }
+
+        @Override
+        public float getX(int idx) {
+            return Float.intBitsToFloat(this.vertexData[ModelQuadUtil.vertexOffset(idx) + ModelQuadUtil.POSITION_INDEX]);
+        }
+
+        @Override
+        public float getY(int idx) {
+            return Float.intBitsToFloat(this.vertexData[ModelQuadUtil.vertexOffset(idx) + ModelQuadUtil.POSITION_INDEX + 1]);
+        }
+
+        @Override
+        public float getZ(int idx) {
+            return Float.intBitsToFloat(this.vertexData[ModelQuadUtil.vertexOffset(idx) + ModelQuadUtil.POSITION_INDEX + 2]);
+        }
+
+        @Override
+        public int getColor(int idx) {
+            return this.vertexData[ModelQuadUtil.vertexOffset(idx) + ModelQuadUtil.COLOR_INDEX];
+        }
+
+        @Override
+        public float getTexU(int idx) {
+            return Float.intBitsToFloat(this.vertexData[ModelQuadUtil.vertexOffset(idx) + ModelQuadUtil.TEXTURE_INDEX]);
+        }
+
+        @Override
+        public float getTexV(int idx) {
+            return Float.intBitsToFloat(this.vertexData[ModelQuadUtil.vertexOffset(idx) + ModelQuadUtil.TEXTURE_INDEX + 1]);
+        }
+
+        @Override
+        public int getFlags() {
+            return this.flags;
+        }
+
+        @Override
+        public int getLight(int idx) {
+            return this.vertexData[ModelQuadUtil.vertexOffset(idx) + ModelQuadUtil.LIGHT_INDEX];
+        }
+
+        @Override
+        public int getNormal(int idx) {
+            return this.vertexData[ModelQuadUtil.vertexOffset(idx) + ModelQuadUtil.NORMAL_INDEX];
+        }
+    }
+}
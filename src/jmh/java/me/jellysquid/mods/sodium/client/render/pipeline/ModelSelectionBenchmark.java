@@ -0,0 +1,156 @@
+package me.jellysquid.mods.sodium.client.render.pipeline;
+
+import it.unimi.dsi.fastutil.objects.Reference2ReferenceOpenHashMap;
+import me.jellysquid.mods.sodium.client.model.MultipartModelCache;
+import me.jellysquid.mods.sodium.client.model.WeightedModelTable;
+import me.jellysquid.mods.sodium.client.util.BootstrapUtil;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.client.render.model.BakedModel;
+import net.minecraft.state.property.Property;
+import net.minecraft.util.collection.Weighted;
+import org.apache.commons.lang3.tuple.Pair;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Measures the cost of selecting the parts of multipart models and the variant of weighted models from several chunk
+ * builder threads at once, comparing the lock-free selection against the selection used before it.
+ *
+ * The lock-free selection runs through {@link MultipartModelCache} and {@link WeightedModelTable}, which the model
+ * mixins use, while the selection used before is copied from the vanilla models. Multipart models are built for
+ * redstone wire, which has the most states of any vanilla multipart block, with one part for each value of each
+ * property. The cache of selected parts is cleared before each iteration, so that it is also filled while other threads
+ * are reading it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class ModelSelectionBenchmark {
+    // The number of variants of the weighted model, which has no effect on the multipart benchmarks
+    @Param({ "4", "16" })
+    public int variantCount;
+
+    private BlockState[] states;
+    private List<Pair<Predicate<BlockState>, BakedModel>> components;
+
+    private Map<BlockState, List<BakedModel>> synchronizedCache;
+    private MultipartModelCache lockFreeCache;
+
+    private List<Weighted.Present<BakedModel>> variants;
+    private int totalWeight;
+
+    private WeightedModelTable table;
+
+    @State(Scope.Thread)
+    public static class Worker {
+        private final Random random = new Random(Thread.currentThread().getId());
+    }
+
+    @Setup
+    public void setup() {
+        BootstrapUtil.bootstrap();
+
+        ModelFixtures fixtures = new ModelFixtures();
+        Block block = Blocks.REDSTONE_WIRE;
+
+        this.states = block.getStateManager()
+                .getStates()
+                .toArray(new BlockState[0]);
+
+        this.components = new ArrayList<>();
+
+        for (Property<?> property : block.getStateManager().getProperties()) {
+            for (Object value : property.getValues()) {
+                this.components.add(Pair.of(state -> state.get(property) == value, fixtures.getModel(block.getDefaultState())));
+            }
+        }
+
+        this.variants = new ArrayList<>();
+
+        for (int i = 0; i < this.variantCount; i++) {
+            this.variants.add(Weighted.of(fixtures.getModel(Blocks.STONE.getDefaultState()), 1 + (i % 4)));
+        }
+
+        this.totalWeight = this.variants.stream()
+                .mapToInt(entry -> entry.getWeight().getValue())
+                .sum();
+
+        this.table = new WeightedModelTable(this.variants);
+    }
+
+    @Setup(Level.Iteration)
+    public void clearCaches() {
+        this.synchronizedCache = new Reference2ReferenceOpenHashMap<>();
+        this.lockFreeCache = new MultipartModelCache(this.components);
+    }
+
+    @Benchmark
+    public int multipartSynchronized(Worker worker) {
+        BlockState state = this.states[worker.random.nextInt(this.states.length)];
+
+        List<BakedModel> models;
+
+        synchronized (this.synchronizedCache) {
+            models = this.synchronizedCache.get(state);
+
+            if (models == null) {
+                models = new ArrayList<>(this.components.size());
+
+                for (Pair<Predicate<BlockState>, BakedModel> pair : this.components) {
+                    if ((pair.getLeft()).test(state)) {
+                        models.add(pair.getRight());
+                    }
+                }
+
+                this.synchronizedCache.put(state, models);
+            }
+        }
+
+        return models.size();
+    }
+
+    @Benchmark
+    public int multipartLockFree(Worker worker) {
+        BlockState state = this.states[worker.random.nextInt(this.states.length)];
+
+        return this.lockFreeCache.getModels(state).length;
+    }
+
+    @Benchmark
+    public BakedModel weightedScan(Worker worker) {
+        int index = Math.abs((int) worker.random.nextLong()) % this.totalWeight;
+
+        int i = 0;
+        int len = this.variants.size();
+
+        Weighted.Present<BakedModel> weighted;
+
+        do {
+            if (i >= len) {
+                return null;
+            }
+
+            weighted = this.variants.get(i++);
+            index -= weighted.getWeight().getValue();
+        } while (index >= 0);
+
+        return weighted.getData();
+    }
+
+    @Benchmark
+    public BakedModel weightedTable(Worker worker) {
+        return this.table.get(Math.abs((int) worker.random.nextLong()) % this.totalWeight);
+    }
+}
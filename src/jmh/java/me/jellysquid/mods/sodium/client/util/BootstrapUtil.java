@@ -0,0 +1,33 @@
+package me.jellysquid.mods.sodium.client.util;
+
+import me.jellysquid.mods.sodium.client.SodiumClientMod;
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.client.render.RenderLayers;
+import net.minecraft.tag.RequiredTagListRegistry;
+
+/**
+ * Prepares the game's registries for the benchmarks, which run without a client or a world.
+ */
+public class BootstrapUtil {
+    private static boolean initialized;
+
+    public static synchronized void bootstrap() {
+        if (initialized) {
+            return;
+        }
+
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+
+        // Tags are only bound once a world is joined, and would otherwise throw when a block or fluid is tested
+        RequiredTagListRegistry.clearAllTags();
+
+        // Match the default graphics settings, which render leaves with their cutout model
+        RenderLayers.setFancyGraphicsOrBetter(true);
+
+        SodiumClientMod.useDefaultOptions();
+
+        initialized = true;
+    }
+}
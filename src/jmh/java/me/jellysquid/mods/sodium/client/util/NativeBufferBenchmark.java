@@ -0,0 +1,112 @@
+package me.jellysquid.mods.sodium.client.util;
+
+import me.jellysquid.mods.sodium.client.SodiumClientMod;
+import org.lwjgl.system.MemoryUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of allocating and freeing native buffers from several threads at once, comparing the pooled
+ * {@link NativeBuffer} against calling the system allocator directly.
+ *
+ * Buffers follow the same path as chunk meshes: they are allocated by the worker threads, and handed to a single
+ * thread which frees them once they have been uploaded. A worker frees the buffer itself if the hand-off queue is full.
+ * Sizes are picked from a fixed sequence which spans the range of typical mesh sizes.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NativeBufferBenchmark {
+    private static final int[] SIZES = { 2 * 1024, 12 * 1024, 48 * 1024, 160 * 1024, 6 * 1024, 96 * 1024, 24 * 1024, 640 * 1024 };
+
+    private final ArrayBlockingQueue<NativeBuffer> pooledQueue = new ArrayBlockingQueue<>(1024);
+    private final ArrayBlockingQueue<Allocation> systemQueue = new ArrayBlockingQueue<>(1024);
+
+    @State(Scope.Thread)
+    public static class Worker {
+        private int next;
+
+        private int nextSize() {
+            return SIZES[this.next++ & (SIZES.length - 1)];
+        }
+
+        // Runs on the benchmark thread, in the same way as the chunk builder's workers release their caches on exit
+        @TearDown
+        public void releaseThreadCache() {
+            NativeBuffer.releaseThreadCache();
+        }
+    }
+
+    @Setup
+    public void setup() {
+        SodiumClientMod.useDefaultOptions();
+    }
+
+    @TearDown
+    public void tearDown() {
+        NativeBuffer buffer;
+
+        while ((buffer = this.pooledQueue.poll()) != null) {
+            buffer.free();
+        }
+
+        Allocation allocation;
+
+        while ((allocation = this.systemQueue.poll()) != null) {
+            MemoryUtil.nmemFree(allocation.address());
+        }
+    }
+
+    @Benchmark
+    @Group("pooled")
+    @GroupThreads(3)
+    public void pooledAllocate(Worker worker) {
+        NativeBuffer buffer = new NativeBuffer(worker.nextSize());
+
+        if (!this.pooledQueue.offer(buffer)) {
+            buffer.free();
+        }
+    }
+
+    @Benchmark
+    @Group("pooled")
+    @GroupThreads(1)
+    public void pooledFree() {
+        NativeBuffer buffer = this.pooledQueue.poll();
+
+        if (buffer != null) {
+            buffer.free();
+        }
+    }
+
+    @Benchmark
+    @Group("system")
+    @GroupThreads(3)
+    public void systemAllocate(Worker worker) {
+        Allocation allocation = new Allocation(MemoryUtil.nmemAlloc(worker.nextSize()));
+
+        if (!this.systemQueue.offer(allocation)) {
+            MemoryUtil.nmemFree(allocation.address());
+        }
+    }
+
+    @Benchmark
+    @Group("system")
+    @GroupThreads(1)
+    public void systemFree() {
+        Allocation allocation = this.systemQueue.poll();
+
+        if (allocation != null) {
+            MemoryUtil.nmemFree(allocation.address());
+        }
+    }
+
+    private record Allocation(long address) {
+
+    }
+}
@@ -0,0 +1,51 @@
+package me.jellysquid.mods.sodium.client.world;
+
+import net.minecraft.util.math.Direction;
+import net.minecraft.world.chunk.light.LightingProvider;
+
+/**
+ * A world slice which isn't backed by a client world. The properties which would otherwise be taken from the world
+ * match those of the overworld.
+ */
+public class WorldSliceFixture extends WorldSlice {
+    // The default biome blend radius (5x5)
+    private static final int BIOME_BLEND_RADIUS = 2;
+
+    public WorldSliceFixture() {
+        super(null, 0L);
+    }
+
+    @Override
+    public float getBrightness(Direction direction, boolean shaded) {
+        if (!shaded) {
+            return 1.0f;
+        }
+
+        return switch (direction) {
+            case DOWN -> 0.5f;
+            case UP -> 1.0f;
+            case NORTH, SOUTH -> 0.8f;
+            case WEST, EAST -> 0.6f;
+        };
+    }
+
+    @Override
+    public LightingProvider getLightingProvider() {
+        throw new UnsupportedOperationException("Light levels are provided by the cloned sections");
+    }
+
+    @Override
+    public int getHeight() {
+        return 384;
+    }
+
+    @Override
+    public int getBottomY() {
+        return -64;
+    }
+
+    @Override
+    protected int getBiomeBlendRadius() {
+        return BIOME_BLEND_RADIUS;
+    }
+}
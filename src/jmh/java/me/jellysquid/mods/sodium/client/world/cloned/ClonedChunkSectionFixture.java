@@ -0,0 +1,108 @@
+package me.jellysquid.mods.sodium.client.world.cloned;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import me.jellysquid.mods.sodium.client.world.WorldSlice;
+import me.jellysquid.mods.sodium.client.world.cloned.palette.ClonedPalette;
+import me.jellysquid.mods.sodium.client.world.cloned.palette.ClonedPalleteArray;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.util.collection.PackedIntegerArray;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.LightType;
+import net.minecraft.world.biome.Biome;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A cloned chunk section which is filled with the given block states, rather than being copied from a world. Every
+ * block is lit by the sky, and the section contains a single biome.
+ */
+public class ClonedChunkSectionFixture extends ClonedChunkSection {
+    private final ChunkSectionPos pos;
+    private final Biome biome;
+
+    private final PackedIntegerArray blockData;
+    private final ClonedPalette<BlockState> blockPalette;
+
+    /**
+     * @param states The block state of each block in the section, indexed by {@link WorldSlice#getLocalBlockIndex}
+     */
+    public ClonedChunkSectionFixture(ChunkSectionPos pos, BlockState[] states, Biome biome) {
+        super(null);
+
+        this.pos = pos;
+        this.biome = biome;
+
+        Reference2IntOpenHashMap<BlockState> ids = new Reference2IntOpenHashMap<>();
+        ids.defaultReturnValue(-1);
+
+        List<BlockState> palette = new ArrayList<>();
+
+        for (BlockState state : states) {
+            if (ids.getInt(state) < 0) {
+                ids.put(state, palette.size());
+                palette.add(state);
+            }
+        }
+
+        int bits = Math.max(4, 32 - Integer.numberOfLeadingZeros(palette.size() - 1));
+
+        this.blockData = new BlockData(bits, states.length);
+
+        for (int i = 0; i < states.length; i++) {
+            this.blockData.set(i, ids.getInt(states[i]));
+        }
+
+        this.blockPalette = new ClonedPalleteArray<>(palette.toArray(new BlockState[0]));
+    }
+
+    @Override
+    public int getLightLevel(LightType type, int x, int y, int z) {
+        return type == LightType.SKY ? 15 : 0;
+    }
+
+    @Override
+    public Biome getBiome(int x, int y, int z) {
+        return this.biome;
+    }
+
+    @Override
+    public BlockEntity getBlockEntity(int x, int y, int z) {
+        return null;
+    }
+
+    @Override
+    public Object getBlockEntityRenderAttachment(int x, int y, int z) {
+        return null;
+    }
+
+    @Override
+    public PackedIntegerArray getBlockData() {
+        return this.blockData;
+    }
+
+    @Override
+    public ClonedPalette<BlockState> getBlockPalette() {
+        return this.blockPalette;
+    }
+
+    @Override
+    public ChunkSectionPos getPosition() {
+        return this.pos;
+    }
+
+    // Mixins aren't applied outside of the game, so the fast copy path needs to be implemented here
+    private static class BlockData extends PackedIntegerArray implements PackedIntegerArrayExtended {
+        public BlockData(int elementBits, int size) {
+            super(elementBits, size);
+        }
+
+        @Override
+        public <T> void copyUsingPalette(T[] out, ClonedPalette<T> palette) {
+            for (int i = 0; i < out.length; i++) {
+                out[i] = palette.get(this.get(i));
+            }
+        }
+    }
+}
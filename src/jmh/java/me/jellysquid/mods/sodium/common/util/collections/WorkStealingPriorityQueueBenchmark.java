@@ -0,0 +1,86 @@
+package me.jellysquid.mods.sodium.common.util.collections;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.Comparator;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how quickly tasks are handed out when several workers submit and take tasks at the same time, comparing the
+ * work-stealing queue used by the chunk builder against the single shared priority queue which it replaced.
+ *
+ * Each operation adds one task and then takes the next task for the calling worker.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class WorkStealingPriorityQueueBenchmark {
+    private static final int WORKER_COUNT = 4;
+
+    // The number of tasks which are already waiting in the queue, such as after the camera has moved
+    private static final int BACKLOG_SIZE = 1024;
+
+    private static final Comparator<Task> TASK_URGENCY = Comparator.comparingInt(Task::urgency);
+    private static final Comparator<Task> TASK_ORDER = TASK_URGENCY.thenComparingDouble(Task::priority);
+
+    private WorkStealingPriorityQueue<Task> workStealingQueue;
+    private PriorityBlockingQueue<Task> sharedQueue;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        this.workStealingQueue = new WorkStealingPriorityQueue<>(WORKER_COUNT, TASK_ORDER, TASK_URGENCY);
+        this.sharedQueue = new PriorityBlockingQueue<>(BACKLOG_SIZE, TASK_ORDER);
+
+        for (int i = 0; i < BACKLOG_SIZE; i++) {
+            Task task = Task.create(i);
+
+            this.workStealingQueue.add(i % WORKER_COUNT, task);
+            this.sharedQueue.add(task);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Worker {
+        private int lane;
+        private int next;
+
+        @Setup
+        public void setup(ThreadParams params) {
+            this.lane = params.getThreadIndex() % WORKER_COUNT;
+            this.next = params.getThreadIndex() * 7919;
+        }
+
+        private Task nextTask() {
+            return Task.create(this.next++);
+        }
+    }
+
+    @Benchmark
+    public Task workStealing(Worker worker) {
+        this.workStealingQueue.add(worker.lane, worker.nextTask());
+
+        return this.workStealingQueue.poll(worker.lane);
+    }
+
+    @Benchmark
+    public Task shared(Worker worker) {
+        this.sharedQueue.add(worker.nextTask());
+
+        return this.sharedQueue.poll();
+    }
+
+    private record Task(int urgency, double priority) {
+        // Roughly one in eight tasks is an important update, and the rest are ordered by a pseudo-random distance
+        private static Task create(int seed) {
+            int hash = seed * 0x9E3779B9;
+
+            return new Task((hash >>> 29) == 0 ? 0 : 1, (hash >>> 8) & 0xFFFF);
+        }
+    }
+}
@@ -37,6 +37,17 @@ public class SodiumClientMod implements ClientModInitializer {
         return CONFIG;
     }
 
+    /**
+     * Uses the default options without loading the config file, for code which runs outside of the game and has no
+     * config directory, such as the benchmarks. The options can't be saved afterwards.
+     */
+    public static void useDefaultOptions() {
+        var config = new SodiumGameOptions();
+        config.setReadOnly();
+
+        CONFIG = config;
+    }
+
     public static Logger logger() {
         if (LOGGER == null) {
             throw new IllegalStateException("Logger not yet available");
@@ -5,39 +5,107 @@ import me.jellysquid.mods.sodium.client.gl.buffer.GlBuffer;
 import me.jellysquid.mods.sodium.client.gl.buffer.GlBufferUsage;
 import me.jellysquid.mods.sodium.client.gl.buffer.GlMutableBuffer;
 import me.jellysquid.mods.sodium.client.gl.device.CommandList;
+import me.jellysquid.mods.sodium.client.util.NativeBuffer;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 // TODO: handle alignment
 // TODO: handle element vs pointers
 public class AsyncBufferArena implements GlBufferArena {
-    static final boolean CHECK_ASSERTIONS = false;
+    /**
+     * If true, the consistency of the segment list is checked after every change to it. This is very slow, and only
+     * meant to be enabled by tests.
+     */
+    static final boolean CHECK_ASSERTIONS = Boolean.getBoolean("sodium.checkArenaAssertions");
 
     private static final GlBufferUsage BUFFER_USAGE = GlBufferUsage.STATIC_DRAW;
 
+    /**
+     * Orders free segments by their length, and then by their offset so that segments of equal length remain distinct.
+     * The smallest segment which can hold an allocation is then the ceiling of the requested length.
+     */
+    private static final Comparator<GlBufferSegment> FREE_SEGMENT_ORDER = Comparator.comparingInt(GlBufferSegment::getLength)
+            .thenComparingInt(GlBufferSegment::getOffset);
+
     private final int resizeIncrement;
 
+    /**
+     * The factor by which the capacity of the arena is multiplied when it has to grow, or 1.0 if the arena only grows
+     * by the resize increment.
+     */
+    private final float growthFactor;
+
+    /**
+     * The fraction of the arena's capacity which must be lost to fragmentation before segments will be moved by
+     * incremental compaction.
+     */
+    private static final float COMPACTION_THRESHOLD = 0.125f;
+
+    /**
+     * The fraction of the arena's capacity which can be in use before it is considered for shrinking. Arenas are shrunk
+     * to twice their used size, so they won't be considered again until half of the remaining space is released.
+     */
+    private static final float TRIM_THRESHOLD = 0.25f;
+
+    /**
+     * The number of consecutive frames an arena must stay below the trim threshold before it is shrunk, so that
+     * arenas which are briefly emptied while sections are rebuilt don't keep being re-allocated.
+     */
+    private static final int TRIM_DELAY_FRAMES = 600;
+
+    /**
+     * The fraction of the arena's capacity which must be free before it will be shrunk on request. Shrinking copies
+     * the whole arena, so smaller amounts of free space are left to be re-used by later allocations instead.
+     */
+    private static final float SHRINK_THRESHOLD = 0.25f;
+
+    private final int initialCapacity;
+    private int lowUsageFrames;
+
     private final StagingBuffer stagingBuffer;
     private GlMutableBuffer arenaBuffer;
 
     private GlBufferSegment head;
 
+    // Every free segment in the list, which must be removed before its length or offset is modified and added back
+    // afterwards to keep the ordering intact
+    private final TreeSet<GlBufferSegment> freeSegments = new TreeSet<>(FREE_SEGMENT_ORDER);
+
     private int capacity;
     private int used;
 
     public AsyncBufferArena(CommandList commands, int initialCapacity, StagingBuffer stagingBuffer) {
+        this(commands, initialCapacity, 1.0f, stagingBuffer);
+    }
+
+    /**
+     * @param growthFactor The factor by which the capacity is multiplied when the arena has to grow. Arenas which are
+     *                     expected to grow far past their initial capacity should use a factor above 1.0, so that they
+     *                     are only re-allocated (and compacted) a logarithmic number of times.
+     */
+    public AsyncBufferArena(CommandList commands, int initialCapacity, float growthFactor, StagingBuffer stagingBuffer) {
+        if (growthFactor < 1.0f) {
+            throw new IllegalArgumentException("Growth factor must be at least 1.0");
+        }
+
         this.resizeIncrement = initialCapacity / 16;
+        this.growthFactor = growthFactor;
+        this.initialCapacity = initialCapacity;
         this.capacity = initialCapacity;
 
         this.head = new GlBufferSegment(this, 0, initialCapacity);
         this.head.setFree(true);
 
+        this.freeSegments.add(this.head);
+
         this.arenaBuffer = commands.createMutableBuffer();
 
         commands.allocateStorage(this.arenaBuffer, initialCapacity, BUFFER_USAGE);
@@ -62,6 +130,10 @@ public class AsyncBufferArena implements GlBufferArena {
         this.head = new GlBufferSegment(this, 0, freeBytes);
         this.head.setFree(true);
 
+        // Compaction leaves all free space in the new head segment
+        this.freeSegments.clear();
+        this.freeSegments.add(this.head);
+
         if (usedSegments.isEmpty()) {
             this.head.setNext(null);
         } else {
@@ -163,7 +235,7 @@ public class AsyncBufferArena implements GlBufferArena {
         return this.capacity;
     }
 
-    private GlBufferSegment alloc(int size) {
+    GlBufferSegment alloc(int size) {
         GlBufferSegment a = this.findFree(size);
 
         if (a == null) {
@@ -172,6 +244,8 @@ public class AsyncBufferArena implements GlBufferArena {
 
         GlBufferSegment result;
 
+        this.freeSegments.remove(a);
+
         if (a.getLength() == size) {
             a.setFree(false);
 
@@ -189,6 +263,8 @@ public class AsyncBufferArena implements GlBufferArena {
             a.setLength(a.getLength() - size);
             a.setNext(b);
 
+            this.freeSegments.add(a);
+
             result = b;
         }
 
@@ -198,25 +274,12 @@ public class AsyncBufferArena implements GlBufferArena {
         return result;
     }
 
+    /**
+     * Finds the smallest free segment which can hold the given number of bytes, preferring the lowest offset when
+     * several segments have the same length.
+     */
     private GlBufferSegment findFree(int size) {
-        GlBufferSegment entry = this.head;
-        GlBufferSegment best = null;
-
-        while (entry != null) {
-            if (entry.isFree()) {
-                if (entry.getLength() == size) {
-                    return entry;
-                } else if (entry.getLength() >= size) {
-                    if (best == null || best.getLength() > entry.getLength()) {
-                        best = entry;
-                    }
-                }
-            }
-
-            entry = entry.getNext();
-        }
-
-        return best;
+        return this.freeSegments.ceiling(new GlBufferSegment(this, 0, size));
     }
 
     @Override
@@ -229,19 +292,207 @@ public class AsyncBufferArena implements GlBufferArena {
 
         this.used -= entry.getLength();
 
+        this.addFreeSegment(entry);
+
+        this.checkAssertions();
+    }
+
+    /**
+     * Merges a newly freed segment with any free segments next to it, and tracks the resulting segment.
+     */
+    private void addFreeSegment(GlBufferSegment entry) {
         GlBufferSegment next = entry.getNext();
 
         if (next != null && next.isFree()) {
+            this.freeSegments.remove(next);
             entry.mergeInto(next);
         }
 
         GlBufferSegment prev = entry.getPrev();
 
         if (prev != null && prev.isFree()) {
+            this.freeSegments.remove(prev);
             prev.mergeInto(entry);
+
+            this.freeSegments.add(prev);
+        } else {
+            this.freeSegments.add(entry);
+        }
+    }
+
+    /**
+     * @return The number of free bytes which are not part of the largest free segment, and as such can only be used
+     * by allocations smaller than the largest free segment
+     */
+    private int getFragmentedBytes() {
+        if (this.freeSegments.isEmpty()) {
+            return 0;
+        }
+
+        return (this.capacity - this.used) - this.freeSegments.last().getLength();
+    }
+
+    /**
+     * Moves used segments from the start of the arena into free segments further along it, which gathers free space
+     * into a single segment at the start of the arena. Unlike a resize, this doesn't need a new buffer object and
+     * can be spread over many frames.
+     *
+     * Segments which don't fit into what is left of the budget are skipped rather than ending the pass, as a single
+     * large segment near the start of the arena would otherwise keep it from ever being compacted.
+     */
+    @Override
+    public int compact(CommandList commandList, int byteBudget) {
+        if (this.getFragmentedBytes() < this.capacity * COMPACTION_THRESHOLD) {
+            return 0;
+        }
+
+        int copied = 0;
+
+        GlBufferSegment segment = this.head;
+
+        while (segment != null && this.freeSegments.size() > 1 && copied < byteBudget) {
+            if (segment.isFree() || copied + segment.getLength() > byteBudget) {
+                segment = segment.getNext();
+                continue;
+            }
+
+            GlBufferSegment target = this.findFreeAfter(segment);
+
+            if (target == null) {
+                segment = segment.getNext();
+                continue;
+            }
+
+            // The space vacated by the segment may be merged into the segment before it, which stays in place, so the
+            // pass continues from there
+            GlBufferSegment prev = segment.getPrev();
+
+            this.move(commandList, segment, target);
+
+            copied += segment.getLength();
+
+            segment = prev != null ? prev.getNext() : this.head;
         }
 
         this.checkAssertions();
+
+        return copied;
+    }
+
+    @Override
+    public int trim(CommandList commandList) {
+        if (this.capacity <= this.initialCapacity || this.used >= this.capacity * TRIM_THRESHOLD) {
+            this.lowUsageFrames = 0;
+
+            return 0;
+        }
+
+        if (++this.lowUsageFrames < TRIM_DELAY_FRAMES) {
+            return 0;
+        }
+
+        this.lowUsageFrames = 0;
+
+        return this.shrinkTo(commandList, this.used * 2);
+    }
+
+    @Override
+    public int shrink(CommandList commandList) {
+        if (this.capacity - this.used < this.capacity * SHRINK_THRESHOLD) {
+            return 0;
+        }
+
+        this.lowUsageFrames = 0;
+
+        // Some space is kept free so that the next allocations don't have to grow the arena again right away, and
+        // little enough that the arena won't pass the threshold again until much more of it has been released
+        return this.shrinkTo(commandList, this.used + Math.max(this.resizeIncrement, this.used / 8));
+    }
+
+    private int shrinkTo(CommandList commandList, int minCapacity) {
+        // Rounding to the resize increment keeps the capacity a multiple of the vertex stride
+        int increments = (minCapacity + this.resizeIncrement - 1) / this.resizeIncrement;
+        int newCapacity = Math.max(this.initialCapacity, increments * this.resizeIncrement);
+
+        if (newCapacity >= this.capacity) {
+            return 0;
+        }
+
+        int prevCapacity = this.capacity;
+
+        this.resize(commandList, newCapacity);
+
+        return prevCapacity - this.capacity;
+    }
+
+    /**
+     * Finds the smallest free segment which can hold the given segment and is located after it in the arena.
+     */
+    private GlBufferSegment findFreeAfter(GlBufferSegment segment) {
+        for (GlBufferSegment free : this.freeSegments.tailSet(new GlBufferSegment(this, 0, segment.getLength()), true)) {
+            if (free.getOffset() > segment.getOffset()) {
+                return free;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Copies a used segment into the end of a free segment which doesn't overlap it, and frees its previous location.
+     * The segment object itself is kept, so that anything holding it sees the new offset.
+     */
+    private void move(CommandList commandList, GlBufferSegment segment, GlBufferSegment target) {
+        int length = segment.getLength();
+        int offset = target.getEnd() - length;
+
+        commandList.copyBufferSubData(this.arenaBuffer, this.arenaBuffer, segment.getOffset(), offset, length);
+
+        // Replace the segment with a placeholder at its previous location
+        GlBufferSegment vacated = new GlBufferSegment(this, segment.getOffset(), length);
+        this.replace(segment, vacated);
+
+        this.freeSegments.remove(target);
+
+        if (target.getLength() == length) {
+            this.replace(target, segment);
+        } else {
+            target.setLength(target.getLength() - length);
+
+            segment.setPrev(target);
+            segment.setNext(target.getNext());
+
+            if (segment.getNext() != null) {
+                segment.getNext()
+                        .setPrev(segment);
+            }
+
+            target.setNext(segment);
+
+            this.freeSegments.add(target);
+        }
+
+        segment.setOffset(offset);
+
+        vacated.setFree(true);
+        this.addFreeSegment(vacated);
+    }
+
+    private void replace(GlBufferSegment prev, GlBufferSegment next) {
+        next.setPrev(prev.getPrev());
+        next.setNext(prev.getNext());
+
+        if (next.getPrev() != null) {
+            next.getPrev()
+                    .setNext(next);
+        } else {
+            this.head = next;
+        }
+
+        if (next.getNext() != null) {
+            next.getNext()
+                    .setPrev(next);
+        }
     }
 
     @Override
@@ -275,7 +526,7 @@ public class AsyncBufferArena implements GlBufferArena {
         if (!queue.isEmpty()) {
             // Calculate the amount of memory needed for the remaining uploads
             int remainingElements = queue.stream()
-                    .mapToInt(upload -> upload.getDataBuffer().getLength())
+                    .mapToInt(PendingUpload::getLength)
                     .sum();
 
             // Ask the arena to grow to accommodate the remaining uploads
@@ -301,19 +552,23 @@ public class AsyncBufferArena implements GlBufferArena {
     }
 
     private boolean tryUpload(CommandList commandList, PendingUpload upload) {
-        ByteBuffer data = upload.getDataBuffer()
-                .getDirectBuffer();
-
-        int elementCount = data.remaining();
-
-        GlBufferSegment dst = this.alloc(elementCount);
+        GlBufferSegment dst = this.alloc(upload.getLength());
 
         if (dst == null) {
             return false;
         }
 
+        long writeOffset = dst.getOffset();
+
         // Copy the data into our staging buffer, then copy it into the arena's buffer
-        this.stagingBuffer.enqueueCopy(commandList, data, this.arenaBuffer, dst.getOffset());
+        // Each part is staged contiguously, so the copies into the arena are usually merged into one
+        for (NativeBuffer buffer : upload.getDataBuffers()) {
+            ByteBuffer data = buffer.getDirectBuffer();
+
+            this.stagingBuffer.enqueueCopy(commandList, data, this.arenaBuffer, writeOffset);
+
+            writeOffset += data.remaining();
+        }
 
         upload.setResult(dst);
 
@@ -326,8 +581,33 @@ public class AsyncBufferArena implements GlBufferArena {
         // We calculate the number of free elements in our arena and then subtract that from the total requested
         int elementsNeeded = elementCount - (this.capacity - this.used);
 
+        // If the free space is only too fragmented to fit the allocation, compact the arena without growing it as long
+        // as enough free space would be left over for further allocations
+        if (elementsNeeded + this.resizeIncrement <= 0) {
+            this.resize(commandList, this.capacity);
+            return;
+        }
+
         // Try to allocate some extra buffer space unless this is an unusually large allocation
-        this.resize(commandList, Math.max(this.capacity + this.resizeIncrement, this.capacity + elementsNeeded));
+        this.resize(commandList, Math.max(this.capacity + this.getGrowth(), this.capacity + elementsNeeded));
+    }
+
+    /**
+     * @return The number of bytes to add to the capacity when the arena has to grow, which is always a multiple of the
+     * resize increment
+     */
+    private int getGrowth() {
+        long growth = this.resizeIncrement;
+
+        if (this.growthFactor > 1.0f) {
+            long increments = (long) Math.ceil((this.capacity * (double) (this.growthFactor - 1.0f)) / this.resizeIncrement);
+            growth = Math.max(growth, increments * this.resizeIncrement);
+        }
+
+        // Buffer sizes are limited to a signed integer
+        long limit = ((Integer.MAX_VALUE - (long) this.capacity) / this.resizeIncrement) * this.resizeIncrement;
+
+        return (int) Math.min(growth, limit);
     }
 
     private void checkAssertions() {
@@ -336,9 +616,10 @@ public class AsyncBufferArena implements GlBufferArena {
         }
     }
 
-    private void checkAssertions0() {
+    void checkAssertions0() {
         GlBufferSegment seg = this.head;
         int used = 0;
+        int free = 0;
 
         while (seg != null) {
             if (seg.getOffset() < 0) {
@@ -349,6 +630,12 @@ public class AsyncBufferArena implements GlBufferArena {
 
             if (!seg.isFree()) {
                 used += seg.getLength();
+            } else {
+                if (!this.freeSegments.contains(seg)) {
+                    throw new IllegalStateException("segment.free && !arena.freeSegments.contains(segment): untracked free segment");
+                }
+
+                free++;
             }
 
             GlBufferSegment next = seg.getNext();
@@ -395,6 +682,10 @@ public class AsyncBufferArena implements GlBufferArena {
         if (this.used != used) {
             throw new IllegalStateException("arena.used is invalid");
         }
+
+        if (this.freeSegments.size() != free) {
+            throw new IllegalStateException("arena.freeSegments is invalid");
+        }
     }
 
 }
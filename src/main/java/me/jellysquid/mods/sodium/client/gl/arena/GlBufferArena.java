@@ -19,4 +19,35 @@ public interface GlBufferArena {
     GlBuffer getBufferObject();
 
     boolean upload(CommandList commandList, Stream<PendingUpload> stream);
+
+    /**
+     * Moves some of the segments in this arena to reduce fragmentation. Segments are moved within the same buffer
+     * object, so only their offsets change.
+     *
+     * @param byteBudget The maximum number of bytes which can be copied
+     * @return The number of bytes which were copied
+     */
+    default int compact(CommandList commandList, int byteBudget) {
+        return 0;
+    }
+
+    /**
+     * Called once each frame to release storage if only a small part of the arena has been in use for some time.
+     * Shrinking an arena replaces its buffer object, which invalidates anything referencing it.
+     *
+     * @return The number of bytes of storage which were released
+     */
+    default int trim(CommandList commandList) {
+        return 0;
+    }
+
+    /**
+     * Releases the free storage of this arena right away if a large part of it is free, leaving some space for further
+     * allocations. Like {@link #trim(CommandList)}, this replaces the arena's buffer object if any storage was released.
+     *
+     * @return The number of bytes of storage which were released
+     */
+    default int shrink(CommandList commandList) {
+        return 0;
+    }
 }
@@ -2,15 +2,30 @@ package me.jellysquid.mods.sodium.client.gl.arena;
 
 import me.jellysquid.mods.sodium.client.util.NativeBuffer;
 
+import java.util.List;
+
 public class PendingUpload {
-    private final NativeBuffer data;
+    private final List<NativeBuffer> data;
+    private final int length;
+
     private GlBufferSegment result;
 
-    public PendingUpload(NativeBuffer data) {
+    /**
+     * @param data The buffers to upload, which will be placed one after another in a single segment
+     */
+    public PendingUpload(List<NativeBuffer> data) {
         this.data = data;
+
+        int length = 0;
+
+        for (NativeBuffer buffer : data) {
+            length += buffer.getLength();
+        }
+
+        this.length = length;
     }
 
-    public NativeBuffer getDataBuffer() {
+    public List<NativeBuffer> getDataBuffers() {
         return this.data;
     }
 
@@ -31,6 +46,6 @@ public class PendingUpload {
     }
 
     public int getLength() {
-        return this.data.getLength();
+        return this.length;
     }
 }
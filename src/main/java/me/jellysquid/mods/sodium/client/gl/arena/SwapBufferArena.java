@@ -6,6 +6,7 @@ import me.jellysquid.mods.sodium.client.gl.buffer.GlBuffer;
 import me.jellysquid.mods.sodium.client.gl.buffer.GlBufferUsage;
 import me.jellysquid.mods.sodium.client.gl.buffer.GlMutableBuffer;
 import me.jellysquid.mods.sodium.client.gl.device.CommandList;
+import me.jellysquid.mods.sodium.client.util.NativeBuffer;
 import org.lwjgl.system.MemoryUtil;
 
 import java.nio.ByteBuffer;
@@ -99,22 +100,24 @@ public class SwapBufferArena implements GlBufferArena {
         }
 
         for (PendingUpload upload : uploads) {
-            ByteBuffer payload = upload.getDataBuffer().getDirectBuffer();
-
-            GlBufferSegment seg = new GlBufferSegment(this, writePointer, payload.remaining());
+            GlBufferSegment seg = new GlBufferSegment(this, writePointer, upload.getLength());
             upload.setResult(seg);
 
             this.used += seg.getLength();
 
-            MemoryUtil.memCopy(
-                    MemoryUtil.memAddress(payload),
-                    MemoryUtil.memAddress(buffer, seg.getOffset()),
-                    seg.getLength()
-            );
+            for (NativeBuffer part : upload.getDataBuffers()) {
+                ByteBuffer payload = part.getDirectBuffer();
 
-            writePointer += seg.getLength();
+                MemoryUtil.memCopy(
+                        MemoryUtil.memAddress(payload),
+                        MemoryUtil.memAddress(buffer, writePointer),
+                        payload.remaining()
+                );
+
+                writePointer += payload.remaining();
+            }
 
-            StashedData stashedData = new StashedData(payload);
+            StashedData stashedData = new StashedData(MemoryUtil.memByteBuffer(MemoryUtil.memAddress(buffer, seg.getOffset()), seg.getLength()));
             this.active.put(seg, stashedData);
         }
 
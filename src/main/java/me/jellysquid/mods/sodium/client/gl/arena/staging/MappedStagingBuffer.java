@@ -9,11 +9,19 @@ import me.jellysquid.mods.sodium.client.gl.functions.BufferStorageFunctions;
 import me.jellysquid.mods.sodium.client.gl.sync.GlFence;
 import me.jellysquid.mods.sodium.client.gl.util.EnumBitField;
 import me.jellysquid.mods.sodium.client.util.MathUtil;
+import net.minecraft.util.math.MathHelper;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
+/**
+ * A staging buffer made up of one or more persistently mapped ring buffers. When an upload doesn't fit into the
+ * memory which is not still in use by the device, another ring is added, up to a maximum total capacity. Rings which
+ * are added this way are released again once they have been idle for some time. Only uploads which can't be staged
+ * within the maximum capacity fall back to a slower synchronous path.
+ */
 public class MappedStagingBuffer implements StagingBuffer {
     private static final EnumBitField<GlBufferStorageFlags> STORAGE_FLAGS =
             EnumBitField.of(GlBufferStorageFlags.PERSISTENT, GlBufferStorageFlags.CLIENT_STORAGE, GlBufferStorageFlags.MAP_WRITE);
@@ -21,30 +29,32 @@ public class MappedStagingBuffer implements StagingBuffer {
     private static final EnumBitField<GlBufferMapFlags> MAP_FLAGS =
             EnumBitField.of(GlBufferMapFlags.PERSISTENT, GlBufferMapFlags.INVALIDATE_BUFFER, GlBufferMapFlags.WRITE, GlBufferMapFlags.EXPLICIT_FLUSH);
 
+    /**
+     * The number of frames a ring other than the first must go unused before it is released.
+     */
+    static final int IDLE_RING_FRAMES = 300;
+
     private final FallbackStagingBuffer fallbackStagingBuffer;
 
-    private final MappedBuffer mappedBuffer;
-    private final PriorityQueue<CopyCommand> pendingCopies = new ObjectArrayFIFOQueue<>();
-    private final PriorityQueue<FencedMemoryRegion> fencedRegions = new ObjectArrayFIFOQueue<>();
+    private final List<StagingRing> rings = new ArrayList<>();
 
-    private int start = 0;
-    private int pos = 0;
+    private final int initialCapacity;
+    private final int maxCapacity;
 
-    private final int capacity;
-    private int remaining;
+    private int fallbackCount;
+    private long fallbackBytes;
+    private int peakUsage;
 
     public MappedStagingBuffer(CommandList commandList) {
-        this(commandList, 1024 * 1024 * 16 /* 16 MB */);
+        this(commandList, 1024 * 1024 * 16 /* 16 MB */, 1024 * 1024 * 128 /* 128 MB */);
     }
 
-    public MappedStagingBuffer(CommandList commandList, int capacity) {
-        GlImmutableBuffer buffer = commandList.createImmutableBuffer(capacity, STORAGE_FLAGS);
-        GlBufferMapping map = commandList.mapBuffer(buffer, 0, capacity, MAP_FLAGS);
+    public MappedStagingBuffer(CommandList commandList, int initialCapacity, int maxCapacity) {
+        this.initialCapacity = initialCapacity;
+        this.maxCapacity = maxCapacity;
 
-        this.mappedBuffer = new MappedBuffer(buffer, map);
+        this.rings.add(new StagingRing(commandList, initialCapacity));
         this.fallbackStagingBuffer = new FallbackStagingBuffer(commandList);
-        this.capacity = capacity;
-        this.remaining = this.capacity;
     }
 
     public static boolean isSupported(RenderDevice instance) {
@@ -55,59 +65,216 @@ public class MappedStagingBuffer implements StagingBuffer {
     public void enqueueCopy(CommandList commandList, ByteBuffer data, GlBuffer dst, long writeOffset) {
         int length = data.remaining();
 
-        if (length > this.remaining) {
+        StagingRing ring = this.findRing(commandList, length);
+
+        if (ring == null) {
+            this.fallbackCount++;
+            this.fallbackBytes += length;
+
             this.fallbackStagingBuffer.enqueueCopy(commandList, data, dst, writeOffset);
 
             return;
         }
 
-        int remaining = this.capacity - this.pos;
+        ring.enqueueCopy(data, dst, writeOffset);
 
-        // Split the transfer in two if we have enough available memory at the end and start of the buffer
-        if (length > remaining) {
-            int split = length - remaining;
+        this.peakUsage = Math.max(this.peakUsage, this.getUsedCapacity());
+    }
 
-            this.addTransfer(data.slice(0, remaining), dst, this.pos, writeOffset);
-            this.addTransfer(data.slice(remaining, split), dst, 0, writeOffset + remaining);
+    /**
+     * Returns a ring with enough available memory for an upload of the given size, adding a new ring if none of the
+     * existing rings have enough space and the maximum capacity allows for it.
+     *
+     * @return The ring to stage the upload in, or null if the upload needs to use the fallback path
+     */
+    private StagingRing findRing(CommandList commandList, int length) {
+        for (StagingRing ring : this.rings) {
+            if (length <= ring.remaining) {
+                return ring;
+            }
+        }
 
-            this.pos = split;
-        } else {
-            this.addTransfer(data, dst, this.pos, writeOffset);
-            this.pos += length;
+        int capacity = Math.max(this.initialCapacity, MathHelper.smallestEncompassingPowerOfTwo(length));
+
+        if (this.getTotalCapacity() + capacity > this.maxCapacity) {
+            return null;
         }
 
-        this.remaining -= length;
-    }
+        StagingRing ring = new StagingRing(commandList, capacity);
+        this.rings.add(ring);
 
-    private void addTransfer(ByteBuffer data, GlBuffer dst, long readOffset, long writeOffset) {
-        this.mappedBuffer.map.write(data, (int) readOffset);
-        this.pendingCopies.enqueue(new CopyCommand(dst, readOffset, writeOffset, data.remaining()));
+        return ring;
     }
 
     @Override
     public void flush(CommandList commandList) {
-        if (this.pendingCopies.isEmpty()) {
-            return;
+        for (StagingRing ring : this.rings) {
+            ring.flush(commandList);
+        }
+    }
+
+    @Override
+    public void delete(CommandList commandList) {
+        for (StagingRing ring : this.rings) {
+            ring.delete(commandList);
+        }
+
+        this.rings.clear();
+        this.fallbackStagingBuffer.delete(commandList);
+    }
+
+    @Override
+    public void flip(CommandList commandList) {
+        for (StagingRing ring : this.rings) {
+            ring.flip();
+        }
+
+        Iterator<StagingRing> it = this.rings.iterator();
+
+        // The first ring is always kept
+        it.next();
+
+        while (it.hasNext()) {
+            StagingRing ring = it.next();
+
+            if (ring.idleFrames >= IDLE_RING_FRAMES) {
+                ring.delete(commandList);
+
+                it.remove();
+            }
+        }
+    }
+
+    private int getTotalCapacity() {
+        int capacity = 0;
+
+        for (StagingRing ring : this.rings) {
+            capacity += ring.capacity;
+        }
+
+        return capacity;
+    }
+
+    private int getUsedCapacity() {
+        int used = 0;
+
+        for (StagingRing ring : this.rings) {
+            used += ring.capacity - ring.remaining;
+        }
+
+        return used;
+    }
+
+    /**
+     * @return The number of uploads which could not be staged and used the synchronous fallback path instead
+     */
+    public int getFallbackCount() {
+        return this.fallbackCount;
+    }
+
+    private static class StagingRing {
+        private final MappedBuffer mappedBuffer;
+        private final PriorityQueue<CopyCommand> pendingCopies = new ObjectArrayFIFOQueue<>();
+        private final PriorityQueue<FencedMemoryRegion> fencedRegions = new ObjectArrayFIFOQueue<>();
+
+        private int start = 0;
+        private int pos = 0;
+
+        private final int capacity;
+        private int remaining;
+
+        private int idleFrames;
+
+        private StagingRing(CommandList commandList, int capacity) {
+            GlImmutableBuffer buffer = commandList.createImmutableBuffer(capacity, STORAGE_FLAGS);
+            GlBufferMapping map = commandList.mapBuffer(buffer, 0, capacity, MAP_FLAGS);
+
+            this.mappedBuffer = new MappedBuffer(buffer, map);
+            this.capacity = capacity;
+            this.remaining = capacity;
+        }
+
+        private void enqueueCopy(ByteBuffer data, GlBuffer dst, long writeOffset) {
+            int length = data.remaining();
+            int remaining = this.capacity - this.pos;
+
+            // Split the transfer in two if we have enough available memory at the end and start of the buffer
+            if (length > remaining) {
+                int split = length - remaining;
+
+                this.addTransfer(data.slice(0, remaining), dst, this.pos, writeOffset);
+                this.addTransfer(data.slice(remaining, split), dst, 0, writeOffset + remaining);
+
+                this.pos = split;
+            } else {
+                this.addTransfer(data, dst, this.pos, writeOffset);
+                this.pos += length;
+            }
+
+            this.remaining -= length;
+            this.idleFrames = 0;
         }
 
-        if (this.pos < this.start) {
-            commandList.flushMappedRange(this.mappedBuffer.map, this.start, this.capacity - this.start);
-            commandList.flushMappedRange(this.mappedBuffer.map, 0, this.pos);
-        } else {
-            commandList.flushMappedRange(this.mappedBuffer.map, this.start, this.pos - this.start);
+        private void addTransfer(ByteBuffer data, GlBuffer dst, long readOffset, long writeOffset) {
+            this.mappedBuffer.map.write(data, (int) readOffset);
+            this.pendingCopies.enqueue(new CopyCommand(dst, readOffset, writeOffset, data.remaining()));
         }
 
-        int bytes = 0;
+        private void flush(CommandList commandList) {
+            if (this.pendingCopies.isEmpty()) {
+                return;
+            }
+
+            if (this.pos < this.start) {
+                commandList.flushMappedRange(this.mappedBuffer.map, this.start, this.capacity - this.start);
+                commandList.flushMappedRange(this.mappedBuffer.map, 0, this.pos);
+            } else {
+                commandList.flushMappedRange(this.mappedBuffer.map, this.start, this.pos - this.start);
+            }
 
-        for (CopyCommand command : consolidateCopies(this.pendingCopies)) {
-            bytes += command.bytes;
+            int bytes = 0;
+
+            for (CopyCommand command : consolidateCopies(this.pendingCopies)) {
+                bytes += command.bytes;
+
+                commandList.copyBufferSubData(this.mappedBuffer.buffer, command.buffer, command.readOffset, command.writeOffset, command.bytes);
+            }
 
-            commandList.copyBufferSubData(this.mappedBuffer.buffer, command.buffer, command.readOffset, command.writeOffset, command.bytes);
+            this.fencedRegions.enqueue(new FencedMemoryRegion(commandList.createFence(), bytes));
+
+            this.start = this.pos;
         }
 
-        this.fencedRegions.enqueue(new FencedMemoryRegion(commandList.createFence(), bytes));
+        private void flip() {
+            while (!this.fencedRegions.isEmpty()) {
+                var region = this.fencedRegions.first();
+                var fence = region.fence();
+
+                if (!fence.isCompleted()) {
+                    break;
+                }
 
-        this.start = this.pos;
+                fence.delete();
+
+                this.fencedRegions.dequeue();
+                this.remaining += region.length();
+            }
+
+            if (this.fencedRegions.isEmpty() && this.pendingCopies.isEmpty()) {
+                this.idleFrames++;
+            }
+        }
+
+        private void delete(CommandList commandList) {
+            while (!this.fencedRegions.isEmpty()) {
+                this.fencedRegions.dequeue()
+                        .fence()
+                        .delete();
+            }
+
+            this.mappedBuffer.delete(commandList);
+            this.pendingCopies.clear();
+        }
     }
 
     private static List<CopyCommand> consolidateCopies(PriorityQueue<CopyCommand> queue) {
@@ -132,30 +299,6 @@ public class MappedStagingBuffer implements StagingBuffer {
         return merged;
     }
 
-    @Override
-    public void delete(CommandList commandList) {
-        this.mappedBuffer.delete(commandList);
-        this.fallbackStagingBuffer.delete(commandList);
-        this.pendingCopies.clear();
-    }
-
-    @Override
-    public void flip() {
-        while (!this.fencedRegions.isEmpty()) {
-            var region = this.fencedRegions.first();
-            var fence = region.fence();
-
-            if (!fence.isCompleted()) {
-                break;
-            }
-
-            fence.delete();
-
-            this.fencedRegions.dequeue();
-            this.remaining += region.length();
-        }
-    }
-
     private static final class CopyCommand {
         private final GlBuffer buffer;
         private final long readOffset;
@@ -192,6 +335,10 @@ public class MappedStagingBuffer implements StagingBuffer {
 
     @Override
     public String toString() {
-        return "Mapped (%s/%s MiB)".formatted(MathUtil.toMib(this.remaining), MathUtil.toMib(this.capacity));
+        int capacity = this.getTotalCapacity();
+
+        return "Mapped (%s/%s MiB, %d rings, peak %s MiB, %d fallbacks / %s MiB)".formatted(
+                MathUtil.toMib(capacity - this.getUsedCapacity()), MathUtil.toMib(capacity), this.rings.size(),
+                MathUtil.toMib(this.peakUsage), this.fallbackCount, MathUtil.toMib(this.fallbackBytes));
     }
 }
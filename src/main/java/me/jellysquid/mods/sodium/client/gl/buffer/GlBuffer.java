@@ -9,7 +9,14 @@ public abstract class GlBuffer extends GlObject {
     private GlBufferMapping activeMapping;
 
     protected GlBuffer() {
-        this.setHandle(GL20C.glGenBuffers());
+        this(GL20C.glGenBuffers());
+    }
+
+    /**
+     * Creates a buffer object for a handle which was allocated elsewhere, such as by a device which does not use OpenGL.
+     */
+    protected GlBuffer(int handle) {
+        this.setHandle(handle);
     }
 
     public GlBufferMapping getActiveMapping() {
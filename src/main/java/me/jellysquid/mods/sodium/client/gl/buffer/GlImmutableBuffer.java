@@ -9,6 +9,12 @@ public class GlImmutableBuffer extends GlBuffer {
         this.flags = flags;
     }
 
+    public GlImmutableBuffer(int handle, EnumBitField<GlBufferStorageFlags> flags) {
+        super(handle);
+
+        this.flags = flags;
+    }
+
     public EnumBitField<GlBufferStorageFlags> getFlags() {
         return this.flags;
     }
@@ -0,0 +1,29 @@
+package me.jellysquid.mods.sodium.client.gl.buffer;
+
+import me.jellysquid.mods.sodium.client.gl.attribute.GlVertexFormat;
+import me.jellysquid.mods.sodium.client.util.NativeBuffer;
+
+import java.util.List;
+
+/**
+ * Helper type for tagging the vertex format alongside the raw buffer data. The vertex data may be split across
+ * multiple buffers, which are uploaded back-to-back as if they were one.
+ */
+public record VertexData(GlVertexFormat<?> vertexFormat,
+                         List<NativeBuffer> vertexBuffers) {
+    public int getLength() {
+        int length = 0;
+
+        for (NativeBuffer buffer : this.vertexBuffers) {
+            length += buffer.getLength();
+        }
+
+        return length;
+    }
+
+    public void delete() {
+        for (NativeBuffer buffer : this.vertexBuffers) {
+            buffer.free();
+        }
+    }
+}
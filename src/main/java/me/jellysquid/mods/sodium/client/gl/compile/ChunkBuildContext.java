@@ -1,6 +1,7 @@
 package me.jellysquid.mods.sodium.client.gl.compile;
 
 import me.jellysquid.mods.sodium.client.model.vertex.type.ChunkVertexType;
+import me.jellysquid.mods.sodium.client.render.chunk.compile.BlockRenderTable;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkBuildBuffers;
 import me.jellysquid.mods.sodium.client.render.chunk.passes.BlockRenderPassManager;
 import me.jellysquid.mods.sodium.client.render.pipeline.context.ChunkRenderCacheLocal;
@@ -10,10 +11,18 @@ import net.minecraft.world.World;
 public class ChunkBuildContext {
     public final ChunkBuildBuffers buffers;
     public final ChunkRenderCacheLocal cache;
+    public final BlockRenderTable blockRenderTable;
 
-    public ChunkBuildContext(World world, ChunkVertexType vertexType, BlockRenderPassManager renderPassManager) {
-        this.buffers = new ChunkBuildBuffers(vertexType, renderPassManager);
-        this.cache = new ChunkRenderCacheLocal(MinecraftClient.getInstance(), world);
+    public ChunkBuildContext(World world, ChunkVertexType vertexType, BlockRenderPassManager renderPassManager,
+                             BlockRenderTable blockRenderTable, boolean useGreedyMeshing) {
+        this(new ChunkBuildBuffers(vertexType, renderPassManager, useGreedyMeshing),
+                new ChunkRenderCacheLocal(MinecraftClient.getInstance(), world), blockRenderTable);
+    }
+
+    public ChunkBuildContext(ChunkBuildBuffers buffers, ChunkRenderCacheLocal cache, BlockRenderTable blockRenderTable) {
+        this.buffers = buffers;
+        this.cache = cache;
+        this.blockRenderTable = blockRenderTable;
     }
 
     public void release() {
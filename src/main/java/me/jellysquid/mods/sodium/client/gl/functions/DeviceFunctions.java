@@ -6,7 +6,11 @@ public class DeviceFunctions {
     private final BufferStorageFunctions bufferStorageFunctions;
 
     public DeviceFunctions(RenderDevice device) {
-        this.bufferStorageFunctions = BufferStorageFunctions.pickBest(device);
+        this(BufferStorageFunctions.pickBest(device));
+    }
+
+    public DeviceFunctions(BufferStorageFunctions bufferStorageFunctions) {
+        this.bufferStorageFunctions = bufferStorageFunctions;
     }
 
     public BufferStorageFunctions getBufferStorageFunctions() {
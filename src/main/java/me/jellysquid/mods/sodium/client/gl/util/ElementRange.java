@@ -1,6 +1,8 @@
 package me.jellysquid.mods.sodium.client.gl.util;
 
-import me.jellysquid.mods.sodium.client.gl.tessellation.GlIndexType;
-
-public record ElementRange(int elementPointer, int elementCount, GlIndexType indexType, int baseVertex) {
+/**
+ * A range of vertices within a mesh. Every four vertices in the range make up one quad, which are drawn using the
+ * shared quad index buffer.
+ */
+public record ElementRange(int vertexStart, int vertexCount) {
 }
@@ -259,6 +259,44 @@ public class SodiumGameOptionPages {
                         .setBinding((opts, value) -> opts.performance.alwaysDeferChunkUpdates = value, opts -> opts.performance.alwaysDeferChunkUpdates)
                         .setFlags(OptionFlag.REQUIRES_RENDERER_UPDATE)
                         .build())
+                .add(OptionImpl.createBuilder(int.class, sodiumOpts)
+                        .setName(new TranslatableText("sodium.options.chunk_upload_budget.name"))
+                        .setTooltip(new TranslatableText("sodium.options.chunk_upload_budget.tooltip"))
+                        .setControl(o -> new SliderControl(o, 0, 32, 1, ControlValueFormatter.quantityOrDisabled("MiB", "Unlimited")))
+                        .setImpact(OptionImpact.MEDIUM)
+                        .setBinding((opts, value) -> opts.performance.chunkUploadBudget = value, opts -> opts.performance.chunkUploadBudget)
+                        .build())
+                .add(OptionImpl.createBuilder(int.class, sodiumOpts)
+                        .setName(new TranslatableText("sodium.options.chunk_memory_budget.name"))
+                        .setTooltip(new TranslatableText("sodium.options.chunk_memory_budget.tooltip"))
+                        .setControl(o -> new SliderControl(o, 0, 4096, 128, ControlValueFormatter.quantityOrDisabled("MiB", "Unlimited")))
+                        .setImpact(OptionImpact.MEDIUM)
+                        .setBinding((opts, value) -> opts.performance.chunkMemoryBudget = value, opts -> opts.performance.chunkMemoryBudget)
+                        .build())
+                .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
+                        .setName(new TranslatableText("sodium.options.use_parallel_graph_traversal.name"))
+                        .setTooltip(new TranslatableText("sodium.options.use_parallel_graph_traversal.tooltip"))
+                        .setControl(TickBoxControl::new)
+                        .setImpact(OptionImpact.MEDIUM)
+                        .setBinding((opts, value) -> opts.performance.useParallelGraphTraversal = value, opts -> opts.performance.useParallelGraphTraversal)
+                        .setFlags(OptionFlag.REQUIRES_RENDERER_UPDATE)
+                        .build())
+                .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
+                        .setName(new TranslatableText("sodium.options.use_incremental_graph_traversal.name"))
+                        .setTooltip(new TranslatableText("sodium.options.use_incremental_graph_traversal.tooltip"))
+                        .setControl(TickBoxControl::new)
+                        .setImpact(OptionImpact.MEDIUM)
+                        .setBinding((opts, value) -> opts.performance.useIncrementalGraphTraversal = value, opts -> opts.performance.useIncrementalGraphTraversal)
+                        .setFlags(OptionFlag.REQUIRES_RENDERER_UPDATE)
+                        .build())
+                .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
+                        .setName(new TranslatableText("sodium.options.use_greedy_meshing.name"))
+                        .setTooltip(new TranslatableText("sodium.options.use_greedy_meshing.tooltip"))
+                        .setControl(TickBoxControl::new)
+                        .setImpact(OptionImpact.MEDIUM)
+                        .setBinding((opts, value) -> opts.performance.useGreedyMeshing = value, opts -> opts.performance.useGreedyMeshing)
+                        .setFlags(OptionFlag.REQUIRES_RENDERER_RELOAD)
+                        .build())
                 .build()
         );
 
@@ -334,6 +372,15 @@ public class SodiumGameOptionPages {
                         .setFlags(OptionFlag.REQUIRES_RENDERER_RELOAD)
                         .build()
                 )
+                .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
+                        .setName(new TranslatableText("sodium.options.use_compact_vertex_format.name"))
+                        .setTooltip(new TranslatableText("sodium.options.use_compact_vertex_format.tooltip"))
+                        .setControl(TickBoxControl::new)
+                        .setImpact(OptionImpact.MEDIUM)
+                        .setBinding((opts, value) -> opts.advanced.useCompactVertexFormat = value, opts -> opts.advanced.useCompactVertexFormat)
+                        .setFlags(OptionFlag.REQUIRES_RENDERER_RELOAD)
+                        .build()
+                )
                 .build());
 
         groups.add(OptionGroup.createBuilder()
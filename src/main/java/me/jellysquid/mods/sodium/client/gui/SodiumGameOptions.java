@@ -40,6 +40,11 @@ public class SodiumGameOptions {
     public static class PerformanceSettings {
         public int chunkBuilderThreads = 0;
         public boolean alwaysDeferChunkUpdates = false;
+        public int chunkUploadBudget = 8;
+        public int chunkMemoryBudget = 0;
+        public boolean useParallelGraphTraversal = true;
+        public boolean useIncrementalGraphTraversal = false;
+        public boolean useGreedyMeshing = false;
 
         public boolean animateOnlyVisibleTextures = true;
         public boolean useEntityCulling = true;
@@ -54,6 +59,7 @@ public class SodiumGameOptions {
         public boolean allowDirectMemoryAccess = true;
         public boolean enableMemoryTracing = false;
         public boolean useAdvancedStagingBuffers = true;
+        public boolean useCompactVertexFormat = false;
 
         public int cpuRenderAheadLimit = 3;
     }
@@ -71,7 +77,8 @@ public class SodiumGameOptions {
 
     public enum ArenaMemoryAllocator implements TextProvider {
         ASYNC("sodium.options.chunk_memory_allocator.async"),
-        SWAP("sodium.options.chunk_memory_allocator.swap");
+        SWAP("sodium.options.chunk_memory_allocator.swap"),
+        GLOBAL("sodium.options.chunk_memory_allocator.global");
 
         private final Text name;
 
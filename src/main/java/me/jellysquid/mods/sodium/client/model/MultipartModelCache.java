@@ -0,0 +1,72 @@
+package me.jellysquid.mods.sodium.client.model;
+
+import it.unimi.dsi.fastutil.objects.Reference2ReferenceOpenHashMap;
+import net.minecraft.block.BlockState;
+import net.minecraft.client.render.model.BakedModel;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+/**
+ * Caches the parts of a multipart model which are selected for each block state.
+ *
+ * The cache is never modified once published, so it can be read by every chunk builder thread without locking. New
+ * entries are added by swapping in a copy of the map, which is cheap as each model only has so many states.
+ */
+public class MultipartModelCache {
+    private final AtomicReference<Reference2ReferenceOpenHashMap<BlockState, BakedModel[]>> cache =
+            new AtomicReference<>(new Reference2ReferenceOpenHashMap<>());
+
+    private final List<Pair<Predicate<BlockState>, BakedModel>> components;
+
+    public MultipartModelCache(List<Pair<Predicate<BlockState>, BakedModel>> components) {
+        this.components = components;
+    }
+
+    /**
+     * @return The parts of the model which apply to the given block state, in the same order as the components
+     */
+    public BakedModel[] getModels(BlockState state) {
+        BakedModel[] models = this.cache.get()
+                .get(state);
+
+        if (models == null) {
+            models = this.cacheModels(state);
+        }
+
+        return models;
+    }
+
+    private BakedModel[] cacheModels(BlockState state) {
+        List<BakedModel> selected = new ArrayList<>(this.components.size());
+
+        for (Pair<Predicate<BlockState>, BakedModel> pair : this.components) {
+            if ((pair.getLeft()).test(state)) {
+                selected.add(pair.getRight());
+            }
+        }
+
+        BakedModel[] models = selected.toArray(new BakedModel[0]);
+
+        Reference2ReferenceOpenHashMap<BlockState, BakedModel[]> prev, next;
+
+        do {
+            prev = this.cache.get();
+
+            // Another thread may have already cached the same state, in which case its result is used
+            BakedModel[] existing = prev.get(state);
+
+            if (existing != null) {
+                return existing;
+            }
+
+            next = new Reference2ReferenceOpenHashMap<>(prev);
+            next.put(state, models);
+        } while (!this.cache.compareAndSet(prev, next));
+
+        return models;
+    }
+}
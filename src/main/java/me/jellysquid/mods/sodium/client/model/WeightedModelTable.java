@@ -0,0 +1,91 @@
+package me.jellysquid.mods.sodium.client.model;
+
+import net.minecraft.client.render.model.BakedModel;
+import net.minecraft.util.collection.Weighted;
+
+import java.util.List;
+
+/**
+ * Selects the variant of a weighted model for a weight index with a table lookup, or a binary search over the
+ * cumulative weights if the total weight is too large for a table. This returns the same model as vanilla's linear
+ * scan for every index, so that every block picks the same variant as it would without this mod.
+ */
+public class WeightedModelTable {
+    // The largest total weight for which a model is stored for every weight index
+    private static final int MAX_LOOKUP_TABLE_SIZE = 1024;
+
+    private final BakedModel[] models;
+
+    // The sum of the weights of each model and every model before it
+    private final int[] cumulativeWeights;
+
+    // The model selected by each weight index, or null if the total weight is too large for a table
+    private final BakedModel[] lookupTable;
+
+    public WeightedModelTable(List<Weighted.Present<BakedModel>> entries) {
+        int count = entries.size();
+
+        this.models = new BakedModel[count];
+        this.cumulativeWeights = new int[count];
+
+        int sum = 0;
+
+        for (int i = 0; i < count; i++) {
+            Weighted.Present<BakedModel> entry = entries.get(i);
+
+            sum += entry.getWeight().getValue();
+
+            this.models[i] = entry.getData();
+            this.cumulativeWeights[i] = sum;
+        }
+
+        if (sum > 0 && sum <= MAX_LOOKUP_TABLE_SIZE) {
+            this.lookupTable = new BakedModel[sum];
+
+            for (int i = 0, j = 0; i < sum; i++) {
+                while (this.cumulativeWeights[j] <= i) {
+                    j++;
+                }
+
+                this.lookupTable[i] = this.models[j];
+            }
+        } else {
+            this.lookupTable = null;
+        }
+    }
+
+    /**
+     * @param index The weight index, which is taken from the random source in the same way as vanilla
+     * @return The model selected by the index, or null if the index is not below the total weight
+     */
+    public BakedModel get(int index) {
+        // Math.abs can return a negative value, which vanilla resolves to the first model
+        if (index < 0) {
+            return this.models.length > 0 ? this.models[0] : null;
+        }
+
+        BakedModel[] table = this.lookupTable;
+
+        if (table != null) {
+            return index < table.length ? table[index] : null;
+        }
+
+        // Find the first model whose cumulative weight exceeds the index
+        int[] weights = this.cumulativeWeights;
+
+        int low = 0;
+        int high = weights.length;
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+
+            if (weights[mid] <= index) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low < this.models.length ? this.models[low] : null;
+    }
+}
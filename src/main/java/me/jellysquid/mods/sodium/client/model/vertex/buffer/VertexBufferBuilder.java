@@ -10,7 +10,9 @@ public class VertexBufferBuilder implements VertexBufferView {
     private final BufferVertexFormat vertexFormat;
     private final int initialCapacity;
 
-    private ByteBuffer buffer;
+    private NativeBuffer buffer;
+    private ByteBuffer directBuffer;
+
     private int writerOffset;
     private int count;
     private int capacity;
@@ -33,7 +35,17 @@ public class VertexBufferBuilder implements VertexBufferView {
     }
 
     private void setBufferSize(int cap) {
-        this.buffer = MemoryUtil.memRealloc(this.buffer, cap);
+        NativeBuffer buffer = new NativeBuffer(cap);
+
+        if (this.buffer != null) {
+            MemoryUtil.memCopy(MemoryUtil.memAddress(this.directBuffer), MemoryUtil.memAddress(buffer.getDirectBuffer()),
+                    Math.min(this.writerOffset, cap));
+
+            this.buffer.free();
+        }
+
+        this.buffer = buffer;
+        this.directBuffer = buffer.getDirectBuffer();
         this.capacity = cap;
     }
 
@@ -50,7 +62,7 @@ public class VertexBufferBuilder implements VertexBufferView {
 
     @Override
     public ByteBuffer getDirectBuffer() {
-        return this.buffer;
+        return this.directBuffer;
     }
 
     @Override
@@ -85,22 +97,52 @@ public class VertexBufferBuilder implements VertexBufferView {
         this.writerOffset = 0;
         this.count = 0;
 
-        this.setBufferSize(this.initialCapacity);
+        // Buffers which have grown beyond their initial size are given back, as they were only needed for one section
+        if (this.buffer == null || this.capacity != this.initialCapacity) {
+            this.destroy();
+            this.setBufferSize(this.initialCapacity);
+        }
     }
 
     public void destroy() {
         if (this.buffer != null) {
-            MemoryUtil.memFree(this.buffer);
+            this.buffer.free();
         }
 
         this.buffer = null;
+        this.directBuffer = null;
     }
 
+    /**
+     * Takes the written vertex data out of this builder. The builder must be started again before any further vertices
+     * are written to it.
+     *
+     * The scratch buffer itself is only handed over if most of it was written to, as it would otherwise keep a much
+     * larger block of memory alive than the vertex data needs for as long as the mesh is waiting to be uploaded. In
+     * that case, the vertex data is copied into a buffer of its own and the scratch buffer is kept for the next section.
+     *
+     * @return The buffer containing the written vertex data, or null if no vertices were written
+     */
     public NativeBuffer pop() {
         if (this.writerOffset == 0) {
             return null;
         }
 
-        return NativeBuffer.copy(MemoryUtil.memByteBuffer(MemoryUtil.memAddress(this.buffer), this.writerOffset));
+        NativeBuffer buffer;
+
+        if (this.writerOffset >= this.buffer.getBlockSize() / 2) {
+            buffer = this.buffer;
+            buffer.truncate(this.writerOffset);
+
+            this.buffer = null;
+            this.directBuffer = null;
+        } else {
+            buffer = new NativeBuffer(this.writerOffset);
+
+            MemoryUtil.memCopy(MemoryUtil.memAddress(this.directBuffer), MemoryUtil.memAddress(buffer.getDirectBuffer()),
+                    this.writerOffset);
+        }
+
+        return buffer;
     }
 }
@@ -3,6 +3,8 @@ package me.jellysquid.mods.sodium.client.model.vertex.type;
 import me.jellysquid.mods.sodium.client.render.chunk.format.ChunkMeshAttribute;
 import me.jellysquid.mods.sodium.client.render.chunk.format.ModelVertexSink;
 
+import java.util.List;
+
 public interface ChunkVertexType extends BlittableVertexType<ModelVertexSink>, CustomVertexType<ModelVertexSink, ChunkMeshAttribute> {
     /**
      * @return The scale to be applied to vertex coordinates
@@ -18,4 +20,17 @@ public interface ChunkVertexType extends BlittableVertexType<ModelVertexSink>, C
      * @return The scale to be applied to texture coordinates
      */
     float getTextureScale();
+
+    /**
+     * @return The shader defines which are needed to decode vertices of this type
+     */
+    default List<String> getDefines() {
+        return List.of();
+    }
+
+    /**
+     * @return True if the upper byte of the chunk ID is stored with each vertex, which is used to carry the flags of
+     * merged quads
+     */
+    boolean hasVertexFlags();
 }
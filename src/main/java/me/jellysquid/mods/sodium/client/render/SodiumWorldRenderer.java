@@ -12,6 +12,7 @@ import me.jellysquid.mods.sodium.client.render.chunk.RenderSectionManager;
 import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkRenderData;
 import me.jellysquid.mods.sodium.client.render.chunk.passes.BlockRenderPass;
 import me.jellysquid.mods.sodium.client.render.chunk.passes.BlockRenderPassManager;
+import me.jellysquid.mods.sodium.client.render.occlusion.OcclusionShapeCache;
 import me.jellysquid.mods.sodium.client.render.pipeline.context.ChunkRenderCacheShared;
 import me.jellysquid.mods.sodium.client.util.NativeBuffer;
 import me.jellysquid.mods.sodium.client.util.frustum.Frustum;
@@ -120,6 +121,9 @@ public class SodiumWorldRenderer {
             this.renderSectionManager = null;
         }
 
+        // The shapes of block states may have been replaced if resources were reloaded
+        OcclusionShapeCache.INSTANCE.clear();
+
         this.globalBlockEntities.clear();
 
         this.chunkTracker = null;
@@ -147,7 +151,7 @@ public class SodiumWorldRenderer {
      * @return True if no chunks are pending rebuilds
      */
     public boolean isTerrainRenderComplete() {
-        return this.renderSectionManager.getBuilder().isBuildQueueEmpty();
+        return this.renderSectionManager.getBuilder().isBuildQueueEmpty() && !this.renderSectionManager.hasPendingUploads();
     }
 
     /**
@@ -0,0 +1,128 @@
+package me.jellysquid.mods.sodium.client.render.chunk;
+
+import me.jellysquid.mods.sodium.client.gl.util.ElementRange;
+import me.jellysquid.mods.sodium.client.gl.util.MultiDrawBatch;
+import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadFacing;
+import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkRenderBounds;
+
+/**
+ * Fills a {@link MultiDrawBatch} with the draws for the visible facings of each section in a region. Ranges of
+ * vertices which directly follow the previous draw in the vertex buffer are merged into it, which is possible as every
+ * vertex carries the index of its section.
+ */
+class ChunkDrawBatchBuilder {
+    // Merged draws are limited in size so that the shared index buffer doesn't need to cover an entire region
+    static final int MAX_MERGED_VERTEX_COUNT = 65536;
+
+    private final MultiDrawBatch batch;
+    private final boolean useBlockFaceCulling;
+
+    // The largest number of vertices used by any draw in the current batch
+    private int maxBatchVertexCount;
+
+    // The draw which is still being extended by ranges directly following it in the vertex buffer
+    private int pendingBaseVertex;
+    private int pendingVertexCount;
+
+    ChunkDrawBatchBuilder(MultiDrawBatch batch, boolean useBlockFaceCulling) {
+        this.batch = batch;
+        this.useBlockFaceCulling = useBlockFaceCulling;
+    }
+
+    public void begin() {
+        this.batch.begin();
+
+        this.maxBatchVertexCount = 0;
+        this.pendingVertexCount = 0;
+    }
+
+    /**
+     * Adds the draws for the facings of a section which can be seen from the camera.
+     *
+     * @param baseVertex The index of the section's first vertex within the region's vertex buffer
+     */
+    public void addSection(ChunkGraphicsState state, ChunkRenderBounds bounds, int baseVertex, ChunkCameraContext camera) {
+        // Draws are added in the same order as the facings are laid out in the vertex buffer, so that the ranges of
+        // all visible facings can be merged together
+        if (this.useBlockFaceCulling) {
+            if (camera.posY > bounds.y1) {
+                this.addDrawCall(state.getModelPart(ModelQuadFacing.UP), baseVertex);
+            }
+
+            if (camera.posY < bounds.y2) {
+                this.addDrawCall(state.getModelPart(ModelQuadFacing.DOWN), baseVertex);
+            }
+
+            if (camera.posX > bounds.x1) {
+                this.addDrawCall(state.getModelPart(ModelQuadFacing.EAST), baseVertex);
+            }
+
+            if (camera.posX < bounds.x2) {
+                this.addDrawCall(state.getModelPart(ModelQuadFacing.WEST), baseVertex);
+            }
+
+            if (camera.posZ > bounds.z1) {
+                this.addDrawCall(state.getModelPart(ModelQuadFacing.SOUTH), baseVertex);
+            }
+
+            if (camera.posZ < bounds.z2) {
+                this.addDrawCall(state.getModelPart(ModelQuadFacing.NORTH), baseVertex);
+            }
+        } else {
+            for (ModelQuadFacing facing : ModelQuadFacing.DIRECTIONS) {
+                this.addDrawCall(state.getModelPart(facing), baseVertex);
+            }
+        }
+
+        this.addDrawCall(state.getModelPart(ModelQuadFacing.UNASSIGNED), baseVertex);
+    }
+
+    /**
+     * @return True if any draws were added to the batch
+     */
+    public boolean end() {
+        this.flushDrawCall();
+        this.batch.end();
+
+        return !this.batch.isEmpty();
+    }
+
+    /**
+     * @return The largest number of vertices used by any draw in the batch
+     */
+    public int getMaxBatchVertexCount() {
+        return this.maxBatchVertexCount;
+    }
+
+    private void addDrawCall(ElementRange part, int baseVertexIndex) {
+        if (part == null) {
+            return;
+        }
+
+        int vertexStart = baseVertexIndex + part.vertexStart();
+
+        if (this.pendingVertexCount > 0 &&
+                this.pendingBaseVertex + this.pendingVertexCount == vertexStart &&
+                this.pendingVertexCount + part.vertexCount() <= MAX_MERGED_VERTEX_COUNT) {
+            this.pendingVertexCount += part.vertexCount();
+            return;
+        }
+
+        this.flushDrawCall();
+
+        this.pendingBaseVertex = vertexStart;
+        this.pendingVertexCount = part.vertexCount();
+    }
+
+    private void flushDrawCall() {
+        if (this.pendingVertexCount <= 0) {
+            return;
+        }
+
+        // Every draw starts at the beginning of the shared index buffer and is offset by its first vertex
+        this.batch.add(0L, SharedQuadIndexBuffer.getElementCount(this.pendingVertexCount), this.pendingBaseVertex);
+        this.maxBatchVertexCount = Math.max(this.maxBatchVertexCount, this.pendingVertexCount);
+
+        this.pendingVertexCount = 0;
+    }
+}
@@ -10,16 +10,13 @@ import java.util.Map;
 
 public class ChunkGraphicsState {
     private final GlBufferSegment vertexSegment;
-    private final GlBufferSegment indexSegment;
 
     private final ElementRange[] parts;
 
-    public ChunkGraphicsState(GlBufferSegment vertexSegment, GlBufferSegment indexSegment, ChunkMeshData data) {
+    public ChunkGraphicsState(GlBufferSegment vertexSegment, ChunkMeshData data) {
         Validate.notNull(vertexSegment);
-        Validate.notNull(indexSegment);
 
         this.vertexSegment = vertexSegment;
-        this.indexSegment = indexSegment;
 
         this.parts = new ElementRange[ModelQuadFacing.COUNT];
 
@@ -30,7 +27,6 @@ public class ChunkGraphicsState {
 
     public void delete() {
         this.vertexSegment.delete();
-        this.indexSegment.delete();
     }
 
     public ElementRange getModelPart(ModelQuadFacing facing) {
@@ -40,8 +36,4 @@ public class ChunkGraphicsState {
     public GlBufferSegment getVertexSegment() {
         return this.vertexSegment;
     }
-
-    public GlBufferSegment getIndexSegment() {
-        return this.indexSegment;
-    }
 }
@@ -1,16 +1,27 @@
 package me.jellysquid.mods.sodium.client.render.chunk;
 
 public enum ChunkUpdateType {
-    INITIAL_BUILD(false),
-    REBUILD(false),
-    IMPORTANT_REBUILD(true);
+    INITIAL_BUILD(1, false),
+    REBUILD(2, false),
+    IMPORTANT_REBUILD(0, true);
 
+    private final int priority;
     private final boolean important;
 
-    ChunkUpdateType(boolean important) {
+    ChunkUpdateType(int priority, boolean important) {
+        this.priority = priority;
         this.important = important;
     }
 
+    /**
+     * @return The order in which updates of this type are processed relative to other types, where lower values are
+     * processed first. Sections which have never been built leave holes in the world, so they are preferred over
+     * sections which only have outdated geometry.
+     */
+    public int getPriority() {
+        return this.priority;
+    }
+
     public boolean isImportant() {
         return this.important;
     }
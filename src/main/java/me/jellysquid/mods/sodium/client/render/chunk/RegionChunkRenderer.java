@@ -8,15 +8,12 @@ import me.jellysquid.mods.sodium.client.gl.buffer.GlMutableBuffer;
 import me.jellysquid.mods.sodium.client.gl.device.CommandList;
 import me.jellysquid.mods.sodium.client.gl.device.DrawCommandList;
 import me.jellysquid.mods.sodium.client.gl.device.RenderDevice;
-import me.jellysquid.mods.sodium.client.gl.tessellation.GlIndexType;
 import me.jellysquid.mods.sodium.client.gl.tessellation.GlPrimitiveType;
 import me.jellysquid.mods.sodium.client.gl.tessellation.GlTessellation;
 import me.jellysquid.mods.sodium.client.gl.tessellation.TessellationBinding;
-import me.jellysquid.mods.sodium.client.gl.util.ElementRange;
 import me.jellysquid.mods.sodium.client.gl.util.MultiDrawBatch;
 import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadFacing;
 import me.jellysquid.mods.sodium.client.model.vertex.type.ChunkVertexType;
-import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkRenderBounds;
 import me.jellysquid.mods.sodium.client.render.chunk.format.ChunkMeshAttribute;
 import me.jellysquid.mods.sodium.client.render.chunk.passes.BlockRenderPass;
 import me.jellysquid.mods.sodium.client.render.chunk.region.RenderRegion;
@@ -31,11 +28,13 @@ import java.util.Map;
 public class RegionChunkRenderer extends ShaderChunkRenderer {
     private static final ByteBuffer DRAW_INFO_BUFFER = createChunkInfoBuffer();
 
-    private final MultiDrawBatch[] batches;
+    private final MultiDrawBatch batch;
     private final GlVertexAttributeBinding[] vertexAttributeBindings;
 
     private final GlMutableBuffer chunkInfoBuffer;
-    private final boolean isBlockFaceCullingEnabled = SodiumClientMod.options().performance.useBlockFaceCulling;
+    private final SharedQuadIndexBuffer sharedIndexBuffer;
+
+    private final ChunkDrawBatchBuilder batchBuilder;
 
     public RegionChunkRenderer(RenderDevice device, ChunkVertexType vertexType) {
         super(device, vertexType);
@@ -54,13 +53,12 @@ public class RegionChunkRenderer extends ShaderChunkRenderer {
         try (CommandList commandList = device.createCommandList()) {
             this.chunkInfoBuffer = commandList.createMutableBuffer();
             commandList.uploadData(this.chunkInfoBuffer, DRAW_INFO_BUFFER, GlBufferUsage.STATIC_DRAW);
-        }
-
-        this.batches = new MultiDrawBatch[GlIndexType.VALUES.length];
 
-        for (int i = 0; i < this.batches.length; i++) {
-            this.batches[i] = MultiDrawBatch.create(ModelQuadFacing.COUNT * RenderRegion.REGION_SIZE);
+            this.sharedIndexBuffer = new SharedQuadIndexBuffer(commandList);
         }
+
+        this.batch = MultiDrawBatch.create(ModelQuadFacing.COUNT * RenderRegion.REGION_SIZE);
+        this.batchBuilder = new ChunkDrawBatchBuilder(this.batch, SodiumClientMod.options().performance.useBlockFaceCulling);
     }
 
     @Override
@@ -83,17 +81,17 @@ public class RegionChunkRenderer extends ShaderChunkRenderer {
                 continue;
             }
 
+            this.sharedIndexBuffer.ensureCapacity(commandList, this.batchBuilder.getMaxBatchVertexCount());
+
             this.setModelMatrixUniforms(shader, region, camera);
-            this.executeDrawBatches(commandList, this.createTessellationForRegion(commandList, region.getArenas(), pass));
+            this.executeDrawBatch(commandList, this.createTessellationForRegion(commandList, region.getArenas(), pass));
         }
         
         super.end();
     }
 
     private boolean buildDrawBatches(List<RenderSection> sections, BlockRenderPass pass, ChunkCameraContext camera) {
-        for (MultiDrawBatch batch : this.batches) {
-            batch.begin();
-        }
+        this.batchBuilder.begin();
 
         for (RenderSection render : sortedChunks(sections, pass.isTranslucent())) {
             ChunkGraphicsState state = render.getGraphicsState(pass);
@@ -102,56 +100,13 @@ public class RegionChunkRenderer extends ShaderChunkRenderer {
                 continue;
             }
 
-            ChunkRenderBounds bounds = render.getBounds();
-
-            long indexOffset = state.getIndexSegment()
-                    .getOffset();
-
             int baseVertex = state.getVertexSegment()
                     .getOffset() / this.vertexFormat.getStride();
 
-            this.addDrawCall(state.getModelPart(ModelQuadFacing.UNASSIGNED), indexOffset, baseVertex);
-
-            if (this.isBlockFaceCullingEnabled) {
-                if (camera.posY > bounds.y1) {
-                    this.addDrawCall(state.getModelPart(ModelQuadFacing.UP), indexOffset, baseVertex);
-                }
-
-                if (camera.posY < bounds.y2) {
-                    this.addDrawCall(state.getModelPart(ModelQuadFacing.DOWN), indexOffset, baseVertex);
-                }
-
-                if (camera.posX > bounds.x1) {
-                    this.addDrawCall(state.getModelPart(ModelQuadFacing.EAST), indexOffset, baseVertex);
-                }
-
-                if (camera.posX < bounds.x2) {
-                    this.addDrawCall(state.getModelPart(ModelQuadFacing.WEST), indexOffset, baseVertex);
-                }
-
-                if (camera.posZ > bounds.z1) {
-                    this.addDrawCall(state.getModelPart(ModelQuadFacing.SOUTH), indexOffset, baseVertex);
-                }
-
-                if (camera.posZ < bounds.z2) {
-                    this.addDrawCall(state.getModelPart(ModelQuadFacing.NORTH), indexOffset, baseVertex);
-                }
-            } else {
-                for (ModelQuadFacing facing : ModelQuadFacing.DIRECTIONS) {
-                    this.addDrawCall(state.getModelPart(facing), indexOffset, baseVertex);
-                }
-            }
-        }
-
-        boolean nonEmpty = false;
-
-        for (MultiDrawBatch batch : this.batches) {
-            batch.end();
-
-            nonEmpty |= !batch.isEmpty();
+            this.batchBuilder.addSection(state, render.getBounds(), baseVertex, camera);
         }
 
-        return nonEmpty;
+        return this.batchBuilder.end();
     }
 
     private GlTessellation createTessellationForRegion(CommandList commandList, RenderRegion.RenderRegionArenas arenas, BlockRenderPass pass) {
@@ -164,15 +119,11 @@ public class RegionChunkRenderer extends ShaderChunkRenderer {
         return tessellation;
     }
 
-    private void executeDrawBatches(CommandList commandList, GlTessellation tessellation) {
-        for (int i = 0; i < this.batches.length; i++) {
-            MultiDrawBatch batch = this.batches[i];
+    private void executeDrawBatch(CommandList commandList, GlTessellation tessellation) {
+        MultiDrawBatch batch = this.batch;
 
-            if (!batch.isEmpty()) {
-                try (DrawCommandList drawCommandList = commandList.beginTessellating(tessellation)) {
-                    drawCommandList.multiDrawElementsBaseVertex(batch.getPointerBuffer(), batch.getCountBuffer(), batch.getBaseVertexBuffer(), GlIndexType.VALUES[i]);
-                }
-            }
+        try (DrawCommandList drawCommandList = commandList.beginTessellating(tessellation)) {
+            drawCommandList.multiDrawElementsBaseVertex(batch.getPointerBuffer(), batch.getCountBuffer(), batch.getBaseVertexBuffer(), SharedQuadIndexBuffer.INDEX_TYPE);
         }
     }
 
@@ -184,17 +135,10 @@ public class RegionChunkRenderer extends ShaderChunkRenderer {
         shader.setRegionOffset(x, y, z);
     }
 
-    private void addDrawCall(ElementRange part, long baseIndexPointer, int baseVertexIndex) {
-        if (part != null) {
-            MultiDrawBatch batch = this.batches[part.indexType().ordinal()];
-            batch.add(baseIndexPointer + part.elementPointer(), part.elementCount(), baseVertexIndex + part.baseVertex());
-        }
-    }
-
     private GlTessellation createRegionTessellation(CommandList commandList, RenderRegion.RenderRegionArenas arenas) {
         return commandList.createTessellation(GlPrimitiveType.TRIANGLES, new TessellationBinding[] {
                 TessellationBinding.forVertexBuffer(arenas.vertexBuffers.getBufferObject(), this.vertexAttributeBindings),
-                TessellationBinding.forElementBuffer(arenas.indexBuffers.getBufferObject())
+                TessellationBinding.forElementBuffer(this.sharedIndexBuffer.getBufferObject())
         });
     }
 
@@ -202,12 +146,12 @@ public class RegionChunkRenderer extends ShaderChunkRenderer {
     public void delete() {
         super.delete();
 
-        for (MultiDrawBatch batch : this.batches) {
-            batch.delete();
-        }
+        this.batch.delete();
 
-        RenderDevice.INSTANCE.createCommandList()
-                .deleteBuffer(this.chunkInfoBuffer);
+        try (CommandList commandList = RenderDevice.INSTANCE.createCommandList()) {
+            commandList.deleteBuffer(this.chunkInfoBuffer);
+            this.sharedIndexBuffer.delete(commandList);
+        }
     }
 
     private static Iterable<Map.Entry<RenderRegion, List<RenderSection>>> sortedRegions(ChunkRenderList list, boolean translucent) {
@@ -8,7 +8,6 @@ import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkRenderData;
 import me.jellysquid.mods.sodium.client.render.chunk.passes.BlockRenderPass;
 import me.jellysquid.mods.sodium.client.render.chunk.region.RenderRegion;
 import me.jellysquid.mods.sodium.client.render.texture.SpriteUtil;
-import me.jellysquid.mods.sodium.common.util.DirectionUtil;
 import net.minecraft.client.render.chunk.ChunkOcclusionData;
 import net.minecraft.client.texture.Sprite;
 import net.minecraft.util.math.BlockPos;
@@ -36,8 +35,6 @@ public class RenderSection {
     private final float regionOffsetY;
     private final float regionOffsetZ;
 
-    private final RenderSection[] adjacent = new RenderSection[DirectionUtil.ALL_DIRECTIONS.length];
-
     private ChunkRenderData data = ChunkRenderData.ABSENT;
     private CompletableFuture<?> rebuildTask = null;
 
@@ -47,6 +44,7 @@ public class RenderSection {
     private boolean disposed;
 
     private int lastAcceptedBuildTime = -1;
+    private int lastDrawnFrame = -1;
 
     public RenderSection(SodiumWorldRenderer worldRenderer, int chunkX, int chunkY, int chunkZ, RenderRegion region) {
         this.worldRenderer = worldRenderer;
@@ -56,8 +54,6 @@ public class RenderSection {
         this.chunkY = chunkY;
         this.chunkZ = chunkZ;
 
-        this.graphInfo = new ChunkGraphInfo(this);
-
         this.graphicsStates = new EnumMap<>(BlockRenderPass.class);
 
         int rX = this.getChunkX() & (RenderRegion.REGION_WIDTH - 1);
@@ -69,15 +65,12 @@ public class RenderSection {
         this.regionOffsetZ = rZ * 16.0f;
 
         this.chunkId = RenderRegion.getChunkIndex(rX, rY, rZ);
-    }
-
 
-    public RenderSection getAdjacent(Direction dir) {
-        return this.adjacent[dir.ordinal()];
+        this.graphInfo = new ChunkGraphInfo(this, region.getGraph(), this.chunkId);
     }
 
-    public void setAdjacentNode(Direction dir, RenderSection node) {
-        this.adjacent[dir.ordinal()] = node;
+    public RenderSection getAdjacent(Direction dir) {
+        return this.region.getAdjacentSection(this.chunkId, dir);
     }
 
     /**
@@ -108,6 +101,28 @@ public class RenderSection {
         this.disposed = true;
     }
 
+    /**
+     * Releases the geometry of this render while keeping its other data, so that it remains part of the graph. The render
+     * is marked for a rebuild, which will restore its geometry once it becomes visible again.
+     */
+    public void evictGraphicsState() {
+        this.deleteGraphicsState();
+        this.markForUpdate(ChunkUpdateType.REBUILD);
+    }
+
+    /**
+     * @return The number of bytes used by the geometry of this render in graphics memory
+     */
+    public long getResidentBytes() {
+        long bytes = 0;
+
+        for (ChunkGraphicsState state : this.graphicsStates.values()) {
+            bytes += state.getVertexSegment().getLength();
+        }
+
+        return bytes;
+    }
+
     private void deleteGraphicsState() {
         for (ChunkGraphicsState state : this.graphicsStates.values()) {
             state.delete();
@@ -272,8 +287,11 @@ public class RenderSection {
         return this.graphInfo;
     }
 
-    public void setOcclusionData(ChunkOcclusionData occlusionData) {
-        this.graphInfo.setOcclusionData(occlusionData);
+    /**
+     * @return True if the visibility of this section in the graph has changed
+     */
+    public boolean setOcclusionData(ChunkOcclusionData occlusionData) {
+        return this.graphInfo.setOcclusionData(occlusionData);
     }
 
     public ChunkUpdateType getPendingUpdate() {
@@ -309,6 +327,17 @@ public class RenderSection {
         this.lastAcceptedBuildTime = result.buildTime;
     }
 
+    /**
+     * @return The last frame in which this render was added to the render lists, or -1 if it has never been drawn
+     */
+    public int getLastDrawnFrame() {
+        return this.lastDrawnFrame;
+    }
+
+    public void setLastDrawnFrame(int frame) {
+        this.lastDrawnFrame = frame;
+    }
+
     public int getChunkId() {
         return this.chunkId;
     }
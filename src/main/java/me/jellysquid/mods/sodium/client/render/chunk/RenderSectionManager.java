@@ -4,19 +4,23 @@ import com.mojang.blaze3d.systems.RenderSystem;
 import it.unimi.dsi.fastutil.PriorityQueue;
 import it.unimi.dsi.fastutil.longs.Long2ReferenceMap;
 import it.unimi.dsi.fastutil.longs.Long2ReferenceOpenHashMap;
-import it.unimi.dsi.fastutil.objects.ObjectArrayFIFOQueue;
+import it.unimi.dsi.fastutil.objects.ObjectHeapPriorityQueue;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import it.unimi.dsi.fastutil.objects.ObjectList;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import me.jellysquid.mods.sodium.client.SodiumClientMod;
 import me.jellysquid.mods.sodium.client.gl.device.CommandList;
 import me.jellysquid.mods.sodium.client.gl.device.RenderDevice;
+import me.jellysquid.mods.sodium.client.model.vertex.type.ChunkVertexType;
 import me.jellysquid.mods.sodium.client.render.SodiumWorldRenderer;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkBuildResult;
+import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkBuildStatistics;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkBuilder;
 import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkRenderData;
 import me.jellysquid.mods.sodium.client.render.chunk.format.ChunkModelVertexFormats;
-import me.jellysquid.mods.sodium.client.render.chunk.graph.ChunkGraphInfo;
 import me.jellysquid.mods.sodium.client.render.chunk.graph.ChunkGraphIterationQueue;
+import me.jellysquid.mods.sodium.client.render.chunk.graph.ChunkGraphTraversal;
 import me.jellysquid.mods.sodium.client.render.chunk.passes.BlockRenderPass;
 import me.jellysquid.mods.sodium.client.render.chunk.passes.BlockRenderPassManager;
 import me.jellysquid.mods.sodium.client.render.chunk.region.RenderRegion;
@@ -24,12 +28,12 @@ import me.jellysquid.mods.sodium.client.render.chunk.region.RenderRegionManager;
 import me.jellysquid.mods.sodium.client.render.chunk.tasks.ChunkRenderBuildTask;
 import me.jellysquid.mods.sodium.client.render.chunk.tasks.ChunkRenderEmptyBuildTask;
 import me.jellysquid.mods.sodium.client.render.chunk.tasks.ChunkRenderRebuildTask;
+import me.jellysquid.mods.sodium.client.render.occlusion.OcclusionShapeCache;
 import me.jellysquid.mods.sodium.client.util.MathUtil;
 import me.jellysquid.mods.sodium.client.util.frustum.Frustum;
 import me.jellysquid.mods.sodium.client.world.WorldSlice;
 import me.jellysquid.mods.sodium.client.world.cloned.ChunkRenderContext;
 import me.jellysquid.mods.sodium.client.world.cloned.ClonedChunkSectionCache;
-import me.jellysquid.mods.sodium.common.util.DirectionUtil;
 import me.jellysquid.mods.sodium.common.util.collections.WorkStealingFutureDrain;
 import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.client.MinecraftClient;
@@ -62,6 +66,20 @@ public class RenderSectionManager {
      */
     private static final float FOG_PLANE_OFFSET = 12.0f;
 
+    /**
+     * The penalty added to the build priority of sections which are no longer in view. This is larger than the squared
+     * distance to any section within the render distance, so that everything in view is built first.
+     */
+    private static final double OUT_OF_VIEW_PRIORITY_PENALTY = 1.0e12D;
+
+    /**
+     * The fraction of the memory budget which geometry is evicted down to once the budget has been exceeded. Leaving
+     * some headroom avoids evicting sections again every time a new one is uploaded.
+     */
+    private static final double EVICTION_TARGET_RATIO = 0.9D;
+
+    private static final long BYTES_PER_MIB = 1024L * 1024L;
+
     private final ChunkBuilder builder;
 
     private final RenderRegionManager regions;
@@ -71,8 +89,23 @@ public class RenderSectionManager {
 
     private final Map<ChunkUpdateType, PriorityQueue<RenderSection>> rebuildQueues = new EnumMap<>(ChunkUpdateType.class);
 
+    /**
+     * Deferred build results which have finished but did not fit into the upload budget of an earlier frame.
+     */
+    private final ObjectArrayList<ChunkBuildResult> pendingUploads = new ObjectArrayList<>();
+    private long pendingUploadBytes;
+    private long uploadBudgetBytes;
+
+    private long memoryBudgetBytes;
+    private long evictedSections;
+
+    // The sections which have been drawn or uploaded, ordered from the least to the most recently used. This is only
+    // maintained while a memory budget is set, and lets eviction find the oldest sections without searching every
+    // section.
+    private final ReferenceLinkedOpenHashSet<RenderSection> residentSections = new ReferenceLinkedOpenHashSet<>();
+
     private final ChunkRenderList chunkRenderList = new ChunkRenderList();
-    private final ChunkGraphIterationQueue iterationQueue = new ChunkGraphIterationQueue();
+    private final ChunkGraphTraversal traversal;
 
     private final ObjectList<RenderSection> tickableChunks = new ObjectArrayList<>();
     private final ObjectList<BlockEntity> visibleBlockEntities = new ObjectArrayList<>();
@@ -85,42 +118,80 @@ public class RenderSectionManager {
     private final int renderDistance;
 
     private float cameraX, cameraY, cameraZ;
-    private int centerChunkX, centerChunkZ;
 
     private boolean needsUpdate;
+    private boolean needsTraversal;
 
     private boolean useFogCulling;
-    private boolean useOcclusionCulling;
+    private boolean useParallelTraversal;
+    private boolean useIncrementalTraversal;
 
     private double fogRenderCutoff;
 
     private Frustum frustum;
 
     private int currentFrame = 0;
+
+    /**
+     * The value written to the frame stamp of each section visited by the last search of every reachable section. This
+     * is a unique negative value for each such search, which keeps those stamps from being confused with any real frame.
+     */
+    private int reachableSearchStamp = -1;
+
+    /**
+     * True if the iteration queue holds every section reachable from the search origin, rather than only those which
+     * were also within the frustum.
+     */
+    private boolean hasReachableSections;
+    private long reachableSearchOrigin;
+    private boolean reachableSearchOcclusionCulling;
+    private boolean reachableSearchFromCamera;
     private boolean alwaysDeferChunkUpdates;
 
+    // The section containing the camera when the build queue was last re-prioritized
+    private long lastReprioritizedSection = Long.MIN_VALUE;
+
     private final ChunkTracker tracker;
 
     public RenderSectionManager(SodiumWorldRenderer worldRenderer, BlockRenderPassManager renderPassManager, ClientWorld world, int renderDistance, CommandList commandList) {
-        this.chunkRenderer = new RegionChunkRenderer(RenderDevice.INSTANCE, ChunkModelVertexFormats.DEFAULT);
+        ChunkVertexType vertexType = createVertexType();
+
+        this.chunkRenderer = new RegionChunkRenderer(RenderDevice.INSTANCE, vertexType);
 
         this.worldRenderer = worldRenderer;
         this.world = world;
 
-        this.builder = new ChunkBuilder(ChunkModelVertexFormats.DEFAULT);
+        this.builder = new ChunkBuilder(vertexType);
         this.builder.init(world, renderPassManager);
 
         this.needsUpdate = true;
+        this.needsTraversal = true;
         this.renderDistance = renderDistance;
 
-        this.regions = new RenderRegionManager(commandList);
+        this.regions = new RenderRegionManager(commandList, vertexType);
         this.sectionCache = new ClonedChunkSectionCache(this.world);
 
         for (ChunkUpdateType type : ChunkUpdateType.values()) {
-            this.rebuildQueues.put(type, new ObjectArrayFIFOQueue<>());
+            this.rebuildQueues.put(type, new ObjectHeapPriorityQueue<>(this::compareBuildPriority));
         }
 
         this.tracker = this.worldRenderer.getChunkTracker();
+
+        this.traversal = new ChunkGraphTraversal(renderDistance, new ChunkGraphTraversal.Visitor() {
+            @Override
+            public void onSectionVisible(RenderSection section) {
+                RenderSectionManager.this.addToRenderLists(section);
+            }
+
+            @Override
+            public void onSectionIterated(RenderSection section) {
+                RenderSectionManager.this.schedulePendingUpdates(section);
+            }
+        });
+    }
+
+    private static ChunkVertexType createVertexType() {
+        return SodiumClientMod.options().advanced.useCompactVertexFormat ? ChunkModelVertexFormats.COMPACT : ChunkModelVertexFormats.DEFAULT;
     }
 
     public void reloadChunks(ChunkTracker tracker) {
@@ -134,9 +205,84 @@ public class RenderSectionManager {
         this.regions.updateVisibility(frustum);
 
         this.setup(camera);
-        this.iterateChunks(camera, frustum, frame, spectator);
+
+        this.currentFrame = frame;
+        this.frustum = frustum;
+
+        if (this.useIncrementalTraversal) {
+            // The set of reachable sections only depends on the section the camera is in, so it can be re-used until
+            // either the camera moves into another section or the graph itself changes
+            if (this.needsTraversal || !this.canReuseReachableSections(camera, spectator)) {
+                this.iterateChunks(camera, null, --this.reachableSearchStamp, spectator);
+            }
+
+            this.filterReachableChunks();
+        } else {
+            this.iterateChunks(camera, frustum, frame, spectator);
+        }
+
+        // Tasks which were submitted from an earlier camera position would otherwise be built in a stale order. Doing so
+        // requires draining the entire build queue, so it is only done once the camera has moved into another section.
+        long cameraSection = getCameraSection(camera);
+
+        if (this.lastReprioritizedSection != cameraSection) {
+            this.builder.reprioritize(this::getBuildPriority);
+            this.lastReprioritizedSection = cameraSection;
+        }
 
         this.needsUpdate = false;
+        this.needsTraversal = false;
+    }
+
+    private static long getCameraSection(Camera camera) {
+        BlockPos origin = camera.getBlockPos();
+
+        return ChunkSectionPos.asLong(origin.getX() >> 4, origin.getY() >> 4, origin.getZ() >> 4);
+    }
+
+    private boolean canReuseReachableSections(Camera camera, boolean spectator) {
+        BlockPos origin = camera.getBlockPos();
+
+        return this.hasReachableSections &&
+                this.reachableSearchOrigin == getCameraSection(camera) &&
+                this.reachableSearchOcclusionCulling == this.shouldUseOcclusionCulling(origin, spectator);
+    }
+
+    /**
+     * Walks the cached set of reachable sections and adds those which are within the frustum to the render lists, as
+     * if a regular search had visited them this frame.
+     */
+    private void filterReachableChunks() {
+        ChunkGraphIterationQueue queue = this.traversal.getQueue();
+
+        for (int i = 0; i < queue.size(); i++) {
+            RenderSection section = queue.getRender(i);
+
+            // The section containing the camera is always visible
+            boolean isCameraSection = i == 0 && this.reachableSearchFromCamera;
+
+            if (!isCameraSection && !this.isWithinFrustum(section)) {
+                continue;
+            }
+
+            section.getGraphInfo()
+                    .setLastVisibleFrame(this.currentFrame);
+
+            this.schedulePendingUpdates(section);
+            this.addToRenderLists(section);
+        }
+    }
+
+    private boolean isWithinFrustum(RenderSection section) {
+        Frustum.Visibility regionVisibility = section.getRegion().getVisibility();
+
+        if (regionVisibility == Frustum.Visibility.OUTSIDE) {
+            return false;
+        } else if (regionVisibility == Frustum.Visibility.INTERSECT) {
+            return !section.getGraphInfo().isCulledByFrustum(this.frustum);
+        }
+
+        return true;
     }
 
     private void setup(Camera camera) {
@@ -150,6 +296,14 @@ public class RenderSectionManager {
 
         this.useFogCulling = options.performance.useFogOcclusion;
         this.alwaysDeferChunkUpdates = options.performance.alwaysDeferChunkUpdates;
+        this.useParallelTraversal = options.performance.useParallelGraphTraversal;
+        this.useIncrementalTraversal = options.performance.useIncrementalGraphTraversal;
+        this.uploadBudgetBytes = options.performance.chunkUploadBudget * BYTES_PER_MIB;
+        this.memoryBudgetBytes = options.performance.chunkMemoryBudget * BYTES_PER_MIB;
+
+        if (this.memoryBudgetBytes <= 0) {
+            this.residentSections.clear();
+        }
 
         if (this.useFogCulling) {
             float dist = RenderSystem.getShaderFogEnd() + FOG_PLANE_OFFSET;
@@ -162,29 +316,16 @@ public class RenderSectionManager {
         }
     }
 
-    private void iterateChunks(Camera camera, Frustum frustum, int frame, boolean spectator) {
-        this.initSearch(camera, frustum, frame, spectator);
-
-        ChunkGraphIterationQueue queue = this.iterationQueue;
-
-        for (int i = 0; i < queue.size(); i++) {
-            RenderSection section = queue.getRender(i);
-            Direction flow = queue.getDirection(i);
-
-            this.schedulePendingUpdates(section);
-
-            for (Direction dir : DirectionUtil.ALL_DIRECTIONS) {
-                if (this.isCulled(section.getGraphInfo(), flow, dir)) {
-                    continue;
-                }
-
-                RenderSection adj = section.getAdjacent(dir);
-
-                if (adj != null && this.isWithinRenderDistance(adj)) {
-                    this.bfsEnqueue(section, adj, DirectionUtil.getOpposite(dir));
-                }
-            }
-        }
+    /**
+     * Searches the graph for visible sections, starting from the camera.
+     *
+     * @param frustum The frustum to cull sections against, or null if all reachable sections should be collected into
+     *                the iteration queue without being added to the render lists
+     * @param stamp The value to mark visited sections with
+     */
+    private void iterateChunks(Camera camera, Frustum frustum, int stamp, boolean spectator) {
+        this.initSearch(camera, frustum, stamp, spectator);
+        this.traversal.iterate(this.useParallelTraversal);
     }
 
     private void schedulePendingUpdates(RenderSection section) {
@@ -192,17 +333,36 @@ public class RenderSectionManager {
             return;
         }
 
-        PriorityQueue<RenderSection> queue = this.rebuildQueues.get(section.getPendingUpdate());
+        this.rebuildQueues.get(section.getPendingUpdate())
+                .enqueue(section);
+    }
 
-        if (queue.size() >= 32) {
-            return;
+    /**
+     * Returns the priority with which a section should be built, where lower values are built first. Sections closer to
+     * the camera are preferred, and sections which were not visible in the last frame are only built after those which
+     * were.
+     */
+    private double getBuildPriority(RenderSection section) {
+        double priority = section.getSquaredDistance(this.cameraX, this.cameraY, this.cameraZ);
+
+        if (section.getGraphInfo().getLastVisibleFrame() != this.currentFrame) {
+            priority += OUT_OF_VIEW_PRIORITY_PENALTY;
         }
 
-        queue.enqueue(section);
+        return priority;
+    }
+
+    // The update queues are cleared before the camera position changes, so distances remain stable while queued
+    private int compareBuildPriority(RenderSection a, RenderSection b) {
+        return Double.compare(a.getSquaredDistance(this.cameraX, this.cameraY, this.cameraZ),
+                b.getSquaredDistance(this.cameraX, this.cameraY, this.cameraZ));
     }
 
     private void addChunkToVisible(RenderSection render) {
         this.chunkRenderList.add(render);
+        render.setLastDrawnFrame(this.currentFrame);
+
+        this.markResident(render);
 
         if (render.isTickable()) {
             this.tickableChunks.add(render);
@@ -233,14 +393,18 @@ public class RenderSectionManager {
 
     public void onChunkAdded(int x, int z) {
         for (int y = this.world.getBottomSectionCoord(); y < this.world.getTopSectionCoord(); y++) {
-            this.needsUpdate |= this.loadSection(x, y, z);
+            this.needsTraversal |= this.loadSection(x, y, z);
         }
+
+        this.needsUpdate |= this.needsTraversal;
     }
 
     public void onChunkRemoved(int x, int z) {
         for (int y = this.world.getBottomSectionCoord(); y < this.world.getTopSectionCoord(); y++) {
-            this.needsUpdate |= this.unloadSection(x, y, z);
+            this.needsTraversal |= this.unloadSection(x, y, z);
         }
+
+        this.needsUpdate |= this.needsTraversal;
     }
 
     private boolean loadSection(int x, int y, int z) {
@@ -260,8 +424,6 @@ public class RenderSectionManager {
             render.markForUpdate(ChunkUpdateType.INITIAL_BUILD);
         }
 
-        this.connectNeighborNodes(render);
-
         return true;
     }
 
@@ -274,7 +436,7 @@ public class RenderSectionManager {
 
         chunk.delete();
 
-        this.disconnectNeighborNodes(chunk);
+        this.residentSections.remove(chunk);
 
         RenderRegion region = chunk.getRegion();
         region.removeChunk(chunk);
@@ -319,7 +481,19 @@ public class RenderSectionManager {
 
         if (!blockingFutures.isEmpty()) {
             this.needsUpdate = true;
-            this.regions.upload(RenderDevice.INSTANCE.createCommandList(), new WorkStealingFutureDrain<>(blockingFutures, this.builder::stealTask));
+
+            List<ChunkBuildResult> results = new ArrayList<>(blockingFutures.size());
+            new WorkStealingFutureDrain<>(blockingFutures, this.builder::stealTask)
+                    .forEachRemaining(results::add);
+
+            this.upload(results);
+        }
+
+        this.evictSections();
+
+        try (CommandList commandList = RenderDevice.INSTANCE.createCommandList()) {
+            this.regions.compact(commandList);
+            this.regions.trim(commandList);
         }
 
         this.regions.cleanup();
@@ -345,15 +519,17 @@ public class RenderSectionManager {
             }
 
             ChunkRenderBuildTask task = this.createRebuildTask(section);
+            double priority = this.getBuildPriority(section);
+
             CompletableFuture<?> future;
 
             if (filterType.isImportant()) {
-                CompletableFuture<ChunkBuildResult> immediateFuture = this.builder.schedule(task);
+                CompletableFuture<ChunkBuildResult> immediateFuture = this.builder.schedule(task, filterType, priority);
                 immediateFutures.add(immediateFuture);
 
                 future = immediateFuture;
             } else {
-                future = this.builder.scheduleDeferred(task);
+                future = this.builder.scheduleDeferred(task, filterType, priority);
             }
 
             section.onBuildSubmitted(future);
@@ -367,13 +543,174 @@ public class RenderSectionManager {
     private boolean performPendingUploads() {
         Iterator<ChunkBuildResult> it = this.builder.createDeferredBuildResultDrain();
 
-        if (!it.hasNext()) {
+        while (it.hasNext()) {
+            ChunkBuildResult result = it.next();
+
+            this.pendingUploads.add(result);
+            this.pendingUploadBytes += result.getMeshByteSize();
+        }
+
+        if (this.pendingUploads.isEmpty()) {
             return false;
         }
 
-        this.regions.upload(RenderDevice.INSTANCE.createCommandList(), it);
+        List<ChunkBuildResult> uploads = this.takeBudgetedUploads();
 
-        return true;
+        // The state of each section before the upload, used to check whether it needs to be added to or removed from
+        // the render lists
+        boolean[] wasEmpty = new boolean[uploads.size()];
+        ChunkRenderData[] previousData = new ChunkRenderData[uploads.size()];
+
+        for (int i = 0; i < uploads.size(); i++) {
+            RenderSection render = uploads.get(i).render;
+
+            wasEmpty[i] = render.isEmpty();
+            previousData[i] = render.getData();
+        }
+
+        this.upload(uploads);
+
+        // Changes to the occlusion data are handled separately, as they also require the graph to be searched again
+        boolean changed = false;
+
+        for (int i = 0; i < uploads.size() && !changed; i++) {
+            changed = hasRenderListChanged(uploads.get(i).render, wasEmpty[i], previousData[i]);
+        }
+
+        return changed;
+    }
+
+    private void upload(List<ChunkBuildResult> results) {
+        this.regions.upload(RenderDevice.INSTANCE.createCommandList(), results.iterator());
+
+        // Sections which are never drawn would otherwise keep their geometry forever, such as those which are only
+        // reachable by the search but out of view
+        for (ChunkBuildResult result : results) {
+            if (!result.render.isDisposed()) {
+                this.markResident(result.render);
+            }
+        }
+    }
+
+    private void markResident(RenderSection render) {
+        if (this.memoryBudgetBytes > 0) {
+            this.residentSections.addAndMoveToLast(render);
+        }
+    }
+
+    /**
+     * @return True if the section must be added to or removed from any of the render lists, or if it contributes
+     * different block entities to them
+     */
+    private static boolean hasRenderListChanged(RenderSection render, boolean wasEmpty, ChunkRenderData previousData) {
+        if (render.isEmpty() != wasEmpty) {
+            return true;
+        }
+
+        ChunkRenderData data = render.getData();
+
+        return previousData.getAnimatedSprites().isEmpty() != data.getAnimatedSprites().isEmpty() ||
+                !previousData.getBlockEntities().equals(data.getBlockEntities());
+    }
+
+    /**
+     * Removes the results which should be uploaded this frame from the pending uploads. If the pending results exceed
+     * the upload budget, those closest to the camera are taken first, and the remaining results are left for the
+     * following frames. At least one result is always taken so that uploads continue to make progress.
+     */
+    private List<ChunkBuildResult> takeBudgetedUploads() {
+        ObjectArrayList<ChunkBuildResult> pending = this.pendingUploads;
+
+        if (this.uploadBudgetBytes <= 0 || this.pendingUploadBytes <= this.uploadBudgetBytes) {
+            List<ChunkBuildResult> results = new ArrayList<>(pending);
+
+            pending.clear();
+            this.pendingUploadBytes = 0;
+
+            return results;
+        }
+
+        pending.sort(Comparator.comparingDouble(result -> result.render.getSquaredDistance(this.cameraX, this.cameraY, this.cameraZ)));
+
+        long bytes = 0;
+        int count = 0;
+
+        while (count < pending.size()) {
+            long size = pending.get(count).getMeshByteSize();
+
+            if (count > 0 && bytes + size > this.uploadBudgetBytes) {
+                break;
+            }
+
+            bytes += size;
+            count++;
+        }
+
+        List<ChunkBuildResult> results = new ArrayList<>(pending.subList(0, count));
+
+        pending.removeElements(0, count);
+        this.pendingUploadBytes -= bytes;
+
+        return results;
+    }
+
+    /**
+     * Releases the geometry of sections which have not been drawn or uploaded for the longest time if the memory
+     * allocated by the arenas exceeds the memory budget. Sections in the current render list are never evicted.
+     *
+     * Evicting only frees space within the arenas, so geometry is evicted until the used memory is below the target.
+     * The arenas which held evicted geometry are only shrunk if a large part of them is now free, as shrinking copies
+     * the whole arena, and smaller amounts of space are re-used by the next uploads instead.
+     *
+     * The frame in which each section was last drawn is tracked separately from the graph's visibility stamps, as the
+     * latter are also used to mark sections which were only reachable by a search.
+     */
+    private void evictSections() {
+        if (this.memoryBudgetBytes <= 0) {
+            return;
+        }
+
+        long allocatedBytes = this.regions.getDeviceAllocatedMemory();
+
+        if (allocatedBytes <= this.memoryBudgetBytes) {
+            return;
+        }
+
+        long targetBytes = (long) (this.memoryBudgetBytes * EVICTION_TARGET_RATIO);
+        long usedBytes = this.regions.getDeviceUsedMemory();
+
+        Set<RenderRegion.RenderRegionArenas> shrinkArenas = new ReferenceOpenHashSet<>();
+
+        while (usedBytes > targetBytes && !this.residentSections.isEmpty()) {
+            RenderSection section = this.residentSections.first();
+
+            // Every section after this one is either in the current render list or was uploaded more recently, and
+            // the latter will be evicted in a later frame once they reach the front
+            if (section.getLastDrawnFrame() == this.currentFrame) {
+                break;
+            }
+
+            this.residentSections.removeFirst();
+
+            long bytes = section.getResidentBytes();
+
+            if (bytes <= 0) {
+                continue;
+            }
+
+            shrinkArenas.add(section.getRegion().getArenas());
+            section.evictGraphicsState();
+
+            usedBytes -= bytes;
+
+            this.evictedSections++;
+        }
+
+        if (!shrinkArenas.isEmpty()) {
+            try (CommandList commandList = RenderDevice.INSTANCE.createCommandList()) {
+                this.regions.shrink(commandList, shrinkArenas);
+            }
+        }
     }
 
     public ChunkRenderBuildTask createRebuildTask(RenderSection render) {
@@ -387,6 +724,11 @@ public class RenderSectionManager {
         return new ChunkRenderRebuildTask(render, context, frame);
     }
 
+    /**
+     * Marks the list of visible sections as needing to be updated, such as when the camera has moved. If the
+     * incremental search is enabled, this will not cause the graph to be searched again unless the camera has left
+     * the section it was previously in.
+     */
     public void markGraphDirty() {
         this.needsUpdate = true;
     }
@@ -402,6 +744,13 @@ public class RenderSectionManager {
     public void destroy() {
         this.resetLists();
 
+        for (ChunkBuildResult result : this.pendingUploads) {
+            result.delete();
+        }
+
+        this.pendingUploads.clear();
+        this.pendingUploadBytes = 0;
+
         try (CommandList commandList = RenderDevice.INSTANCE.createCommandList()) {
             this.regions.delete(commandList);
         }
@@ -447,54 +796,36 @@ public class RenderSectionManager {
     public void onChunkRenderUpdates(int x, int y, int z, ChunkRenderData data) {
         RenderSection node = this.getRenderSection(x, y, z);
 
-        if (node != null) {
-            node.setOcclusionData(data.getOcclusionData());
+        if (node != null && node.setOcclusionData(data.getOcclusionData())) {
+            this.needsTraversal = true;
+            this.needsUpdate = true;
         }
     }
 
-    private boolean isWithinRenderDistance(RenderSection adj) {
-        int x = Math.abs(adj.getChunkX() - this.centerChunkX);
-        int z = Math.abs(adj.getChunkZ() - this.centerChunkZ);
-
-        return x <= this.renderDistance && z <= this.renderDistance;
-    }
-
-    private boolean isCulled(ChunkGraphInfo node, Direction from, Direction to) {
-        if (node.canCull(to)) {
-            return true;
+    private boolean shouldUseOcclusionCulling(BlockPos origin, boolean spectator) {
+        if (!MinecraftClient.getInstance().chunkCullingEnabled) {
+            return false;
         }
 
-        return this.useOcclusionCulling && from != null && !node.isVisibleThrough(from, to);
+        // Spectators inside solid blocks should be able to see through them
+        return !spectator || !this.world.getBlockState(origin).isOpaqueFullCube(this.world, origin);
     }
 
-    private void initSearch(Camera camera, Frustum frustum, int frame, boolean spectator) {
-        this.currentFrame = frame;
-        this.frustum = frustum;
-        this.useOcclusionCulling = MinecraftClient.getInstance().chunkCullingEnabled;
-
-        this.iterationQueue.clear();
-
+    private void initSearch(Camera camera, Frustum frustum, int stamp, boolean spectator) {
         BlockPos origin = camera.getBlockPos();
 
+        boolean useOcclusionCulling = this.shouldUseOcclusionCulling(origin, spectator);
+
         int chunkX = origin.getX() >> 4;
         int chunkY = origin.getY() >> 4;
         int chunkZ = origin.getZ() >> 4;
 
-        this.centerChunkX = chunkX;
-        this.centerChunkZ = chunkZ;
+        this.traversal.begin(frustum, stamp, useOcclusionCulling, chunkX, chunkZ);
 
         RenderSection rootRender = this.getRenderSection(chunkX, chunkY, chunkZ);
 
         if (rootRender != null) {
-            ChunkGraphInfo rootInfo = rootRender.getGraphInfo();
-            rootInfo.resetCullingState();
-            rootInfo.setLastVisibleFrame(frame);
-
-            if (spectator && this.world.getBlockState(origin).isOpaqueFullCube(this.world, origin)) {
-                this.useOcclusionCulling = false;
-            }
-
-            this.addVisible(rootRender, null);
+            this.traversal.addRoot(rootRender);
         } else {
             chunkY = MathHelper.clamp(origin.getY() >> 4, this.world.getBottomSectionCoord(), this.world.getTopSectionCoord() - 1);
 
@@ -508,15 +839,10 @@ public class RenderSectionManager {
                         continue;
                     }
 
-                    ChunkGraphInfo info = render.getGraphInfo();
-
-                    if (info.isCulledByFrustum(frustum)) {
+                    if (frustum != null && render.getGraphInfo().isCulledByFrustum(frustum)) {
                         continue;
                     }
 
-                    info.resetCullingState();
-                    info.setLastVisibleFrame(frame);
-
                     sorted.add(render);
                 }
             }
@@ -524,36 +850,20 @@ public class RenderSectionManager {
             sorted.sort(Comparator.comparingDouble(node -> node.getSquaredDistance(origin)));
 
             for (RenderSection render : sorted) {
-                this.addVisible(render, null);
+                this.traversal.addRoot(render);
             }
         }
-    }
-
-
-    private void bfsEnqueue(RenderSection parent, RenderSection render, Direction flow) {
-        ChunkGraphInfo info = render.getGraphInfo();
-
-        if (info.getLastVisibleFrame() == this.currentFrame) {
-            return;
-        }
 
-        Frustum.Visibility parentVisibility = parent.getRegion().getVisibility();
+        this.hasReachableSections = frustum == null;
 
-        if (parentVisibility == Frustum.Visibility.OUTSIDE) {
-            return;
-        } else if (parentVisibility == Frustum.Visibility.INTERSECT && info.isCulledByFrustum(this.frustum)) {
-            return;
+        if (this.hasReachableSections) {
+            this.reachableSearchOrigin = ChunkSectionPos.asLong(chunkX, origin.getY() >> 4, chunkZ);
+            this.reachableSearchOcclusionCulling = useOcclusionCulling;
+            this.reachableSearchFromCamera = rootRender != null;
         }
-
-        info.setLastVisibleFrame(this.currentFrame);
-        info.setCullingState(parent.getGraphInfo().getCullingState(), flow);
-
-        this.addVisible(render, flow);
     }
 
-    private void addVisible(RenderSection render, Direction flow) {
-        this.iterationQueue.add(render, flow);
-
+    private void addToRenderLists(RenderSection render) {
         if (this.useFogCulling && render.getSquaredDistanceXZ(this.cameraX, this.cameraZ) >= this.fogRenderCutoff) {
             return;
         }
@@ -564,41 +874,31 @@ public class RenderSectionManager {
         }
     }
 
-    private void connectNeighborNodes(RenderSection render) {
-        for (Direction dir : DirectionUtil.ALL_DIRECTIONS) {
-            RenderSection adj = this.getRenderSection(render.getChunkX() + dir.getOffsetX(),
-                    render.getChunkY() + dir.getOffsetY(),
-                    render.getChunkZ() + dir.getOffsetZ());
+    private RenderSection getRenderSection(int x, int y, int z) {
+        return this.sections.get(ChunkSectionPos.asLong(x, y, z));
+    }
 
-            if (adj != null) {
-                adj.setAdjacentNode(DirectionUtil.getOpposite(dir), render);
-                render.setAdjacentNode(dir, adj);
-            }
-        }
+    /**
+     * @return True if any finished build results are still waiting to be uploaded in a later frame
+     */
+    public boolean hasPendingUploads() {
+        return !this.pendingUploads.isEmpty();
     }
 
-    private void disconnectNeighborNodes(RenderSection render) {
-        for (Direction dir : DirectionUtil.ALL_DIRECTIONS) {
-            RenderSection adj = render.getAdjacent(dir);
+    private int getPendingUpdateCount() {
+        int count = 0;
 
-            if (adj != null) {
-                adj.setAdjacentNode(DirectionUtil.getOpposite(dir), null);
-                render.setAdjacentNode(dir, null);
-            }
+        for (PriorityQueue<RenderSection> queue : this.rebuildQueues.values()) {
+            count += queue.size();
         }
-    }
 
-    private RenderSection getRenderSection(int x, int y, int z) {
-        return this.sections.get(ChunkSectionPos.asLong(x, y, z));
+        return count;
     }
 
     public Collection<String> getDebugStrings() {
         List<String> list = new ArrayList<>();
 
-        Iterator<RenderRegion.RenderRegionArenas> it = this.regions.getLoadedRegions()
-                .stream()
-                .map(RenderRegion::getArenas)
-                .filter(Objects::nonNull)
+        Iterator<RenderRegion.RenderRegionArenas> it = this.regions.getAllArenas()
                 .iterator();
 
         int count = 0;
@@ -618,6 +918,32 @@ public class RenderSectionManager {
         list.add(String.format("Device buffer objects: %d", count));
         list.add(String.format("Device memory: %d/%d MiB", MathUtil.toMib(deviceUsed), MathUtil.toMib(deviceAllocated)));
         list.add(String.format("Staging buffer: %s", this.regions.getStagingBuffer().toString()));
+        list.add(String.format("Reclaimed device memory: %d MiB", MathUtil.toMib(this.regions.getReclaimedBytes())));
+
+        if (this.memoryBudgetBytes > 0) {
+            list.add(String.format("Chunk memory budget: %d/%d MiB (%d sections evicted)", MathUtil.toMib(deviceAllocated),
+                    MathUtil.toMib(this.memoryBudgetBytes), this.evictedSections));
+        }
+
+        ChunkBuildStatistics stats = this.builder.getStatistics();
+        list.add(String.format("Chunk builds: %d (%.0f µs, %d KiB avg)", stats.getSectionsBuilt(),
+                stats.getAverageBuildTimeMicros(), stats.getAverageMeshBytes() / 1024L));
+
+        list.add(String.format("Build queue: %d queued, %d pending (%.1f ms avg wait, %d dropped)",
+                this.builder.getQueueDepth(), this.getPendingUpdateCount(), stats.getAverageWaitTimeMillis(),
+                stats.getTasksDropped()));
+
+        if (!this.pendingUploads.isEmpty()) {
+            list.add(String.format("Deferred uploads: %d (%d KiB)", this.pendingUploads.size(), this.pendingUploadBytes / 1024L));
+        }
+
+        list.add(String.format("Occlusion cache: %d entries (%.1f%% hit rate)", OcclusionShapeCache.INSTANCE.size(),
+                OcclusionShapeCache.INSTANCE.getHitRate() * 100.0D));
+
+        if (stats.getMergedVertices() != 0) {
+            list.add(String.format("Merged vertices: %d", stats.getMergedVertices()));
+        }
+
         return list;
     }
 }
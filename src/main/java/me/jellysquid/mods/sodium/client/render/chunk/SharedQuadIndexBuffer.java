@@ -0,0 +1,83 @@
+package me.jellysquid.mods.sodium.client.render.chunk;
+
+import me.jellysquid.mods.sodium.client.gl.buffer.GlBuffer;
+import me.jellysquid.mods.sodium.client.gl.buffer.GlBufferUsage;
+import me.jellysquid.mods.sodium.client.gl.buffer.GlMutableBuffer;
+import me.jellysquid.mods.sodium.client.gl.device.CommandList;
+import me.jellysquid.mods.sodium.client.gl.tessellation.GlIndexType;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An element buffer containing the indices of consecutive quads, which is shared by every mesh. Since all quads are
+ * written with the same winding order, meshes only need to store their vertices, and each draw can start from the
+ * beginning of this buffer with a base vertex pointing at the first vertex of its range.
+ */
+public class SharedQuadIndexBuffer {
+    public static final GlIndexType INDEX_TYPE = GlIndexType.UNSIGNED_INT;
+
+    private static final int ELEMENTS_PER_QUAD = 6;
+
+    // Start with enough quads to cover most sections without needing to grow the buffer
+    private static final int INITIAL_QUAD_CAPACITY = 16384;
+
+    private final GlMutableBuffer buffer;
+    private int maxQuads;
+
+    public SharedQuadIndexBuffer(CommandList commandList) {
+        this.buffer = commandList.createMutableBuffer();
+        this.grow(commandList, INITIAL_QUAD_CAPACITY);
+    }
+
+    /**
+     * Ensures that the buffer contains the indices for at least the given number of vertices. The buffer object is
+     * re-used when growing, so existing tessellations which reference it remain valid.
+     */
+    public void ensureCapacity(CommandList commandList, int vertexCount) {
+        int quadCount = vertexCount / 4;
+
+        if (quadCount > this.maxQuads) {
+            this.grow(commandList, Math.max(quadCount, this.maxQuads * 2));
+        }
+    }
+
+    private void grow(CommandList commandList, int quadCount) {
+        ByteBuffer data = MemoryUtil.memAlloc(quadCount * ELEMENTS_PER_QUAD * INDEX_TYPE.getStride());
+
+        try {
+            for (int quad = 0; quad < quadCount; quad++) {
+                int vertex = quad * 4;
+                int i = quad * ELEMENTS_PER_QUAD * 4;
+
+                data.putInt(i + 0, vertex + 0);
+                data.putInt(i + 4, vertex + 1);
+                data.putInt(i + 8, vertex + 2);
+                data.putInt(i + 12, vertex + 2);
+                data.putInt(i + 16, vertex + 3);
+                data.putInt(i + 20, vertex + 0);
+            }
+
+            commandList.uploadData(this.buffer, data, GlBufferUsage.STATIC_DRAW);
+        } finally {
+            MemoryUtil.memFree(data);
+        }
+
+        this.maxQuads = quadCount;
+    }
+
+    /**
+     * @return The number of elements which need to be drawn for the given number of vertices
+     */
+    public static int getElementCount(int vertexCount) {
+        return (vertexCount / 4) * ELEMENTS_PER_QUAD;
+    }
+
+    public GlBuffer getBufferObject() {
+        return this.buffer;
+    }
+
+    public void delete(CommandList commandList) {
+        commandList.deleteBuffer(this.buffer);
+    }
+}
@@ -0,0 +1,161 @@
+package me.jellysquid.mods.sodium.client.render.chunk.compile;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import me.jellysquid.mods.sodium.client.render.chunk.passes.BlockRenderPassManager;
+import me.jellysquid.mods.sodium.client.render.pipeline.CachedModelQuads;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockRenderType;
+import net.minecraft.block.BlockState;
+import net.minecraft.client.render.RenderLayers;
+import net.minecraft.client.render.block.BlockModels;
+import net.minecraft.client.render.model.BakedModel;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.BlockView;
+import net.minecraft.world.EmptyBlockView;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A table of the properties of every block state which are needed to build chunk meshes, indexed by the raw id of each
+ * state. This replaces the many small look-ups which would otherwise be needed for every block with a few array reads.
+ *
+ * The table depends on the loaded models and the graphics settings (which decide the render layer of some blocks), so
+ * it must be created again whenever either of those change.
+ */
+public class BlockRenderTable {
+    public static final int FLAG_AIR = 1 << 0;
+    public static final int FLAG_HAS_BLOCK_ENTITY = 1 << 1;
+    public static final int FLAG_OPAQUE = 1 << 2;
+    public static final int FLAG_OPAQUE_FULL_CUBE = 1 << 3;
+
+    // The shape of the block depends on its position, so whether it is an opaque full cube needs to be checked in-world
+    public static final int FLAG_DYNAMIC_SHAPE = 1 << 4;
+
+    private static final byte NO_PASS = -1;
+
+    private final byte[] flags;
+    private final byte[] blockPasses;
+    private final byte[] fluidPasses;
+    private final BakedModel[] models;
+    private final CachedModelQuads[] modelQuads;
+
+    private BlockRenderTable(int size) {
+        this.flags = new byte[size];
+        this.blockPasses = new byte[size];
+        this.fluidPasses = new byte[size];
+        this.models = new BakedModel[size];
+        this.modelQuads = new CachedModelQuads[size];
+    }
+
+    /**
+     * @param models The function which returns the model of each block state, usually {@link BlockModels#getModel}
+     */
+    public static BlockRenderTable create(BlockRenderPassManager renderPassManager, Function<BlockState, BakedModel> models) {
+        BlockRenderTable table = new BlockRenderTable(Block.STATE_IDS.size());
+
+        // Most models are shared by many states, and the quads of each model are only cached once
+        Map<BakedModel, CachedModelQuads> cachedQuads = new Reference2ObjectOpenHashMap<>();
+
+        for (BlockState state : Block.STATE_IDS) {
+            int id = Block.STATE_IDS.getRawId(state);
+
+            table.flags[id] = (byte) getFlags(state);
+
+            if (state.getRenderType() == BlockRenderType.MODEL) {
+                table.blockPasses[id] = (byte) renderPassManager.getRenderPassId(RenderLayers.getBlockLayer(state));
+                table.models[id] = models.apply(state);
+                table.modelQuads[id] = cachedQuads.computeIfAbsent(table.models[id], model -> CachedModelQuads.create(model, state));
+            } else {
+                table.blockPasses[id] = NO_PASS;
+            }
+
+            FluidState fluidState = state.getFluidState();
+
+            if (!fluidState.isEmpty()) {
+                table.fluidPasses[id] = (byte) renderPassManager.getRenderPassId(RenderLayers.getFluidLayer(fluidState));
+            } else {
+                table.fluidPasses[id] = NO_PASS;
+            }
+        }
+
+        return table;
+    }
+
+    private static int getFlags(BlockState state) {
+        int flags = 0;
+
+        if (state.isAir()) {
+            flags |= FLAG_AIR;
+        }
+
+        if (state.hasBlockEntity()) {
+            flags |= FLAG_HAS_BLOCK_ENTITY;
+        }
+
+        if (state.isOpaque()) {
+            flags |= FLAG_OPAQUE;
+        }
+
+        if (state.getBlock().hasDynamicBounds()) {
+            flags |= FLAG_DYNAMIC_SHAPE;
+        } else if (state.isOpaqueFullCube(EmptyBlockView.INSTANCE, BlockPos.ORIGIN)) {
+            flags |= FLAG_OPAQUE_FULL_CUBE;
+        }
+
+        return flags;
+    }
+
+    /**
+     * @return The index of the given state in this table
+     */
+    public int getStateId(BlockState state) {
+        return Block.STATE_IDS.getRawId(state);
+    }
+
+    public int getFlags(int stateId) {
+        return this.flags[stateId];
+    }
+
+    /**
+     * @return The id of the render pass for the model of the block, or -1 if the block has no model to render
+     */
+    public int getBlockPass(int stateId) {
+        return this.blockPasses[stateId];
+    }
+
+    /**
+     * @return The id of the render pass for the fluid of the block, or -1 if the block contains no fluid
+     */
+    public int getFluidPass(int stateId) {
+        return this.fluidPasses[stateId];
+    }
+
+    /**
+     * @return The model of the block, or null if the block has no model to render
+     */
+    public BakedModel getModel(int stateId) {
+        return this.models[stateId];
+    }
+
+    /**
+     * @return The cached quads of the block's model, or null if the quads of the model need to be queried for each block
+     */
+    public CachedModelQuads getModelQuads(int stateId) {
+        return this.modelQuads[stateId];
+    }
+
+    /**
+     * @return True if the block at the given position is an opaque full cube
+     */
+    public boolean isOpaqueFullCube(int stateId, BlockState state, BlockView world, BlockPos pos) {
+        int flags = this.flags[stateId];
+
+        if ((flags & FLAG_DYNAMIC_SHAPE) != 0) {
+            return state.isOpaqueFullCube(world, pos);
+        }
+
+        return (flags & FLAG_OPAQUE_FULL_CUBE) != 0;
+    }
+}
@@ -1,13 +1,13 @@
 package me.jellysquid.mods.sodium.client.render.chunk.compile;
 
-import me.jellysquid.mods.sodium.client.gl.buffer.IndexedVertexData;
+import me.jellysquid.mods.sodium.client.gl.buffer.VertexData;
 import me.jellysquid.mods.sodium.client.gl.util.ElementRange;
-import me.jellysquid.mods.sodium.client.model.IndexBufferBuilder;
 import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadFacing;
 import me.jellysquid.mods.sodium.client.model.vertex.buffer.VertexBufferBuilder;
 import me.jellysquid.mods.sodium.client.model.vertex.type.ChunkVertexType;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.buffers.BakedChunkModelBuilder;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.buffers.ChunkModelBuilder;
+import me.jellysquid.mods.sodium.client.render.chunk.compile.buffers.GreedyQuadCollector;
 import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkMeshData;
 import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkRenderData;
 import me.jellysquid.mods.sodium.client.render.chunk.format.ModelVertexSink;
@@ -15,64 +15,76 @@ import me.jellysquid.mods.sodium.client.render.chunk.passes.BlockRenderPass;
 import me.jellysquid.mods.sodium.client.render.chunk.passes.BlockRenderPassManager;
 import me.jellysquid.mods.sodium.client.util.NativeBuffer;
 import net.minecraft.client.render.RenderLayer;
-
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 
 /**
  * A collection of temporary buffers for each worker thread which will be used to build chunk meshes for given render
  * passes. This makes a best-effort attempt to pick a suitable size for each scratch buffer, but will never try to
  * shrink a buffer.
+ *
+ * Each render pass has a separate vertex buffer for every quad facing, which are laid out one after another when the
+ * mesh is uploaded. Since every quad is written with the same winding order, no index data needs to be generated.
  */
 public class ChunkBuildBuffers {
     private final ChunkModelBuilder[] delegates;
 
-    private final VertexBufferBuilder[] vertexBuffers;
-    private final IndexBufferBuilder[][] indexBuffers;
+    private final VertexBufferBuilder[][] vertexBuffers;
+    private final GreedyQuadCollector[] greedyCollectors;
 
     private final ChunkVertexType vertexType;
 
     private final BlockRenderPassManager renderPassManager;
 
-    public ChunkBuildBuffers(ChunkVertexType vertexType, BlockRenderPassManager renderPassManager) {
+    public ChunkBuildBuffers(ChunkVertexType vertexType, BlockRenderPassManager renderPassManager, boolean useGreedyMeshing) {
         this.vertexType = vertexType;
         this.renderPassManager = renderPassManager;
 
         this.delegates = new ChunkModelBuilder[BlockRenderPass.COUNT];
 
-        this.vertexBuffers = new VertexBufferBuilder[BlockRenderPass.COUNT];
-        this.indexBuffers = new IndexBufferBuilder[BlockRenderPass.COUNT][ModelQuadFacing.COUNT];
+        this.vertexBuffers = new VertexBufferBuilder[BlockRenderPass.COUNT][ModelQuadFacing.COUNT];
+        this.greedyCollectors = new GreedyQuadCollector[BlockRenderPass.COUNT];
 
         for (BlockRenderPass pass : BlockRenderPass.VALUES) {
-            IndexBufferBuilder[] indexBuffers = this.indexBuffers[pass.ordinal()];
+            VertexBufferBuilder[] vertexBuffers = this.vertexBuffers[pass.ordinal()];
+
+            // The expected size covers the whole layer, so split it between each facing
+            int initialCapacity = pass.getLayer().getExpectedBufferSize() / ModelQuadFacing.COUNT;
 
             for (int facing = 0; facing < ModelQuadFacing.COUNT; facing++) {
-                indexBuffers[facing] = new IndexBufferBuilder(1024);
+                vertexBuffers[facing] = new VertexBufferBuilder(this.vertexType.getBufferVertexFormat(), initialCapacity);
             }
 
-            this.vertexBuffers[pass.ordinal()] = new VertexBufferBuilder(this.vertexType.getBufferVertexFormat(),
-                    pass.getLayer().getExpectedBufferSize());
+            if (useGreedyMeshing && GreedyQuadCollector.supports(pass)) {
+                this.greedyCollectors[pass.ordinal()] = new GreedyQuadCollector();
+            }
         }
     }
 
     public void init(ChunkRenderData.Builder renderData, int chunkId) {
-        for (VertexBufferBuilder vertexBuffer : this.vertexBuffers) {
-            vertexBuffer.start();
+        for (VertexBufferBuilder[] vertexBuffers : this.vertexBuffers) {
+            for (VertexBufferBuilder vertexBuffer : vertexBuffers) {
+                vertexBuffer.start();
+            }
         }
 
-        for (IndexBufferBuilder[] indexBuffers : this.indexBuffers) {
-            for (IndexBufferBuilder indexBuffer : indexBuffers) {
-                indexBuffer.start();
+        for (GreedyQuadCollector collector : this.greedyCollectors) {
+            if (collector != null) {
+                collector.start();
             }
         }
 
         for (int i = 0; i < this.delegates.length; i++) {
-            ModelVertexSink vertexSink = this.vertexType.createBufferWriter(this.vertexBuffers[i]);
-            IndexBufferBuilder[] indexBuffers = this.indexBuffers[i];
+            VertexBufferBuilder[] vertexBuffers = this.vertexBuffers[i];
+            ModelVertexSink[] vertexSinks = new ModelVertexSink[ModelQuadFacing.COUNT];
+
+            for (int facing = 0; facing < ModelQuadFacing.COUNT; facing++) {
+                vertexSinks[facing] = this.vertexType.createBufferWriter(vertexBuffers[facing]);
+            }
 
-            this.delegates[i] = new BakedChunkModelBuilder(indexBuffers, vertexSink, renderData, chunkId);
+            this.delegates[i] = new BakedChunkModelBuilder(vertexSinks, this.greedyCollectors[i], renderData, chunkId);
         }
     }
 
@@ -84,53 +96,82 @@ public class ChunkBuildBuffers {
         return this.delegates[this.renderPassManager.getRenderPassId(layer)];
     }
 
+    /**
+     * Return the {@link ChunkModelBuilder} for the render pass with the given id, as returned by
+     * {@link BlockRenderPassManager#getRenderPassId(RenderLayer)}.
+     */
+    public ChunkModelBuilder get(int passId) {
+        return this.delegates[passId];
+    }
+
     /**
      * Creates immutable baked chunk meshes from all non-empty scratch buffers. This is used after all blocks
-     * have been rendered to pass the finished meshes over to the graphics card. This function can be called multiple
-     * times to return multiple copies.
+     * have been rendered to pass the finished meshes over to the graphics card. The vertex data of each pass is taken
+     * out of the scratch buffers (see {@link VertexBufferBuilder#pop()}), so this function can only be called once for
+     * each pass until the buffers are initialized again.
      */
     public ChunkMeshData createMesh(BlockRenderPass pass) {
-        NativeBuffer vertexBuffer = this.vertexBuffers[pass.ordinal()].pop();
+        GreedyQuadCollector collector = this.greedyCollectors[pass.ordinal()];
 
-        if (vertexBuffer == null) {
-            return null;
+        // Merged faces are only written out once every block in the section has been visited
+        if (collector != null) {
+            collector.flush(this.delegates[pass.ordinal()]);
         }
 
-        IndexBufferBuilder.Result[] indexBuffers = Arrays.stream(this.indexBuffers[pass.ordinal()])
-                .map(IndexBufferBuilder::pop)
-                .toArray(IndexBufferBuilder.Result[]::new);
+        VertexBufferBuilder[] vertexBuffers = this.vertexBuffers[pass.ordinal()];
 
-        NativeBuffer indexBuffer = new NativeBuffer(Arrays.stream(indexBuffers)
-                .filter(Objects::nonNull)
-                .mapToInt(IndexBufferBuilder.Result::getByteSize)
-                .sum());
+        List<NativeBuffer> parts = new ArrayList<>(ModelQuadFacing.COUNT);
 
-        int indexPointer = 0;
+        int vertexPointer = 0;
 
         Map<ModelQuadFacing, ElementRange> ranges = new EnumMap<>(ModelQuadFacing.class);
 
+        // The parts of each facing are only joined when they are copied into staging memory for upload
         for (ModelQuadFacing facing : ModelQuadFacing.VALUES) {
-            IndexBufferBuilder.Result indices = indexBuffers[facing.ordinal()];
+            VertexBufferBuilder src = vertexBuffers[facing.ordinal()];
+
+            int vertexCount = src.getCount();
 
-            if (indices == null) {
+            if (vertexCount == 0) {
                 continue;
             }
 
-            ranges.put(facing,
-                    new ElementRange(indexPointer, indices.getCount(), indices.getFormat(), indices.getBaseVertex()));
+            parts.add(src.pop());
 
-            indexPointer = indices.writeTo(indexPointer, indexBuffer.getDirectBuffer());
+            ranges.put(facing, new ElementRange(vertexPointer, vertexCount));
+
+            vertexPointer += vertexCount;
+        }
+
+        if (parts.isEmpty()) {
+            return null;
         }
 
-        IndexedVertexData vertexData = new IndexedVertexData(this.vertexType.getCustomVertexFormat(),
-                vertexBuffer, indexBuffer);
+        VertexData vertexData = new VertexData(this.vertexType.getCustomVertexFormat(), parts);
 
         return new ChunkMeshData(vertexData, ranges);
     }
 
+    /**
+     * @return The number of vertices which were saved by merging faces since these buffers were last initialized
+     */
+    public int getSavedVertexCount() {
+        int count = 0;
+
+        for (GreedyQuadCollector collector : this.greedyCollectors) {
+            if (collector != null) {
+                count += collector.getSavedVertexCount();
+            }
+        }
+
+        return count;
+    }
+
     public void destroy() {
-        for (VertexBufferBuilder builder : this.vertexBuffers) {
-            builder.destroy();
+        for (VertexBufferBuilder[] vertexBuffers : this.vertexBuffers) {
+            for (VertexBufferBuilder builder : vertexBuffers) {
+                builder.destroy();
+            }
         }
     }
 }
@@ -1,5 +1,6 @@
 package me.jellysquid.mods.sodium.client.render.chunk.compile;
 
+import me.jellysquid.mods.sodium.client.gl.buffer.VertexData;
 import me.jellysquid.mods.sodium.client.render.chunk.RenderSection;
 import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkMeshData;
 import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkRenderData;
@@ -29,6 +30,21 @@ public class ChunkBuildResult {
         return this.meshes.get(pass);
     }
 
+    /**
+     * @return The total number of bytes of geometry held by this result's meshes
+     */
+    public long getMeshByteSize() {
+        long size = 0L;
+
+        for (ChunkMeshData data : this.meshes.values()) {
+            VertexData vertexData = data.getVertexData();
+
+            size += vertexData.getLength();
+        }
+
+        return size;
+    }
+
     public void delete() {
         for (ChunkMeshData data : this.meshes.values()) {
             data.getVertexData()
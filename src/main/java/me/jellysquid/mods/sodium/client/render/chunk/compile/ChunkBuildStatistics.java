@@ -0,0 +1,110 @@
+package me.jellysquid.mods.sodium.client.render.chunk.compile;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks the throughput of the chunk meshing pipeline across all worker threads. Counters are updated by the workers
+ * after each completed build and read by the main thread when producing debug information, so all fields are
+ * contention-free adders rather than locked state.
+ */
+public class ChunkBuildStatistics {
+    private final LongAdder sectionsBuilt = new LongAdder();
+    private final LongAdder buildTimeNanos = new LongAdder();
+    private final LongAdder meshBytes = new LongAdder();
+    private final LongAdder mergedVertices = new LongAdder();
+
+    private final LongAdder tasksStarted = new LongAdder();
+    private final LongAdder waitTimeNanos = new LongAdder();
+    private final LongAdder tasksDropped = new LongAdder();
+
+    public void onSectionBuilt(long elapsedNanos, long bytes, long mergedVertices) {
+        this.sectionsBuilt.increment();
+        this.buildTimeNanos.add(elapsedNanos);
+        this.meshBytes.add(bytes);
+        this.mergedVertices.add(mergedVertices);
+    }
+
+    /**
+     * Called when a worker takes a task from the build queue.
+     *
+     * @param waitNanos The time the task spent in the queue since it was submitted
+     */
+    public void onTaskStarted(long waitNanos) {
+        this.tasksStarted.increment();
+        this.waitTimeNanos.add(waitNanos);
+    }
+
+    /**
+     * Called when a task is discarded without being built because it was cancelled while still queued.
+     */
+    public void onTaskDropped() {
+        this.tasksDropped.increment();
+    }
+
+    public long getSectionsBuilt() {
+        return this.sectionsBuilt.sum();
+    }
+
+    /**
+     * @return The average time spent by a single worker to build one section, in microseconds
+     */
+    public double getAverageBuildTimeMicros() {
+        long count = this.sectionsBuilt.sum();
+
+        if (count == 0) {
+            return 0.0D;
+        }
+
+        return (this.buildTimeNanos.sum() / (double) count) / 1000.0D;
+    }
+
+    /**
+     * @return The average number of bytes of geometry produced for each built section
+     */
+    public long getAverageMeshBytes() {
+        long count = this.sectionsBuilt.sum();
+
+        if (count == 0) {
+            return 0L;
+        }
+
+        return this.meshBytes.sum() / count;
+    }
+
+    /**
+     * @return The total number of vertices which were not emitted because their faces were merged with a neighbor
+     */
+    public long getMergedVertices() {
+        return this.mergedVertices.sum();
+    }
+
+    /**
+     * @return The average time a task spends in the build queue before a worker starts on it, in milliseconds
+     */
+    public double getAverageWaitTimeMillis() {
+        long count = this.tasksStarted.sum();
+
+        if (count == 0) {
+            return 0.0D;
+        }
+
+        return (this.waitTimeNanos.sum() / (double) count) / 1_000_000.0D;
+    }
+
+    /**
+     * @return The total number of tasks which were cancelled before they could be built
+     */
+    public long getTasksDropped() {
+        return this.tasksDropped.sum();
+    }
+
+    public void reset() {
+        this.sectionsBuilt.reset();
+        this.buildTimeNanos.reset();
+        this.meshBytes.reset();
+        this.mergedVertices.reset();
+        this.tasksStarted.reset();
+        this.waitTimeNanos.reset();
+        this.tasksDropped.reset();
+    }
+}
@@ -3,10 +3,16 @@ package me.jellysquid.mods.sodium.client.render.chunk.compile;
 import me.jellysquid.mods.sodium.client.SodiumClientMod;
 import me.jellysquid.mods.sodium.client.gl.compile.ChunkBuildContext;
 import me.jellysquid.mods.sodium.client.model.vertex.type.ChunkVertexType;
+import me.jellysquid.mods.sodium.client.render.chunk.ChunkUpdateType;
+import me.jellysquid.mods.sodium.client.render.chunk.RenderSection;
 import me.jellysquid.mods.sodium.client.render.chunk.passes.BlockRenderPassManager;
 import me.jellysquid.mods.sodium.client.render.chunk.tasks.ChunkRenderBuildTask;
+import me.jellysquid.mods.sodium.client.render.chunk.tasks.ChunkRenderEmptyBuildTask;
+import me.jellysquid.mods.sodium.client.util.NativeBuffer;
 import me.jellysquid.mods.sodium.client.util.task.CancellationSource;
 import me.jellysquid.mods.sodium.common.util.collections.QueueDrainingIterator;
+import me.jellysquid.mods.sodium.common.util.collections.WorkStealingPriorityQueue;
+import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.world.ClientWorld;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.world.World;
@@ -17,29 +23,53 @@ import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.ToDoubleFunction;
 
 public class ChunkBuilder {
     private static final Logger LOGGER = LogManager.getLogger("ChunkBuilder");
 
-    private final Deque<WrappedTask> buildQueue = new ConcurrentLinkedDeque<>();
+    /**
+     * The order in which queued tasks are handed to workers. Tasks are first ordered by the type of update they
+     * perform, then by the priority given by the scheduler (typically the distance to the camera), and finally by
+     * the order in which they were submitted so that tasks of equal priority are processed fairly.
+     */
+    private static final Comparator<WrappedTask> TASK_URGENCY = Comparator.comparingInt(job -> job.type.getPriority());
+    private static final Comparator<WrappedTask> TASK_ORDER = TASK_URGENCY
+            .thenComparingDouble(job -> job.priority)
+            .thenComparingLong(job -> job.sequence);
 
-    private final Object jobNotifier = new Object();
+    /**
+     * Each worker thread has its own lane in the build queue, and only steals tasks from the lanes of other workers
+     * once its own lane is empty, or when another lane holds a task with a more important type of update.
+     */
+    private final WorkStealingPriorityQueue<WrappedTask> buildQueue;
+    private final AtomicLong nextSequence = new AtomicLong();
+    private int nextLane;
 
     private final AtomicBoolean running = new AtomicBoolean(false);
     private final List<Thread> threads = new ArrayList<>();
+    private final List<WorkerRunnable> workers = new ArrayList<>();
 
     private World world;
     private BlockRenderPassManager renderPassManager;
+    private BlockRenderTable blockRenderTable;
 
     private final int limitThreads;
     private final ChunkVertexType vertexType;
+    private final boolean useGreedyMeshing;
 
     private final Queue<ChunkBuildResult> deferredResultQueue = new ConcurrentLinkedDeque<>();
     private final ThreadLocal<ChunkBuildContext> localContexts = new ThreadLocal<>();
 
+    private final ChunkBuildStatistics statistics = new ChunkBuildStatistics();
+
     public ChunkBuilder(ChunkVertexType vertexType) {
         this.vertexType = vertexType;
         this.limitThreads = getThreadCount();
+        this.buildQueue = new WorkStealingPriorityQueue<>(this.limitThreads, TASK_ORDER, TASK_URGENCY);
+        this.useGreedyMeshing = SodiumClientMod.options().performance.useGreedyMeshing && vertexType.hasVertexFlags();
     }
 
     /**
@@ -64,14 +94,20 @@ public class ChunkBuilder {
         }
 
         for (int i = 0; i < this.limitThreads; i++) {
-            ChunkBuildContext context = new ChunkBuildContext(this.world, this.vertexType, this.renderPassManager);
-            WorkerRunnable worker = new WorkerRunnable(context);
+            ChunkBuildContext context = new ChunkBuildContext(this.world, this.vertexType, this.renderPassManager, this.blockRenderTable, this.useGreedyMeshing);
+            WorkerRunnable worker = new WorkerRunnable(context, i);
 
             Thread thread = new Thread(worker, "Chunk Render Task Executor #" + i);
             thread.setPriority(Math.max(0, Thread.NORM_PRIORITY - 2));
-            thread.start();
+
+            worker.thread = thread;
 
             this.threads.add(thread);
+            this.workers.add(worker);
+        }
+
+        for (Thread thread : this.threads) {
+            thread.start();
         }
 
         LOGGER.info("Started {} worker threads", this.threads.size());
@@ -94,8 +130,8 @@ public class ChunkBuilder {
         LOGGER.info("Stopping worker threads");
 
         // Notify all worker threads to wake up, where they will then terminate
-        synchronized (this.jobNotifier) {
-            this.jobNotifier.notifyAll();
+        for (Thread thread : this.threads) {
+            LockSupport.unpark(thread);
         }
 
         // Wait for every remaining thread to terminate
@@ -107,9 +143,13 @@ public class ChunkBuilder {
         }
 
         this.threads.clear();
+        this.workers.clear();
+
+        List<WrappedTask> jobs = new ArrayList<>();
+        this.buildQueue.drainTo(jobs);
 
         // Delete any queued tasks and resources attached to them
-        for (WrappedTask job : this.buildQueue) {
+        for (WrappedTask job : jobs) {
             job.future.cancel(true);
         }
 
@@ -119,25 +159,101 @@ public class ChunkBuilder {
                     .delete();
         }
 
-        this.buildQueue.clear();
-
         this.world = null;
     }
 
-    public CompletableFuture<ChunkBuildResult> schedule(ChunkRenderBuildTask task) {
+    /**
+     * Submits a task to the build queue.
+     *
+     * @param task The task to execute
+     * @param type The type of update performed by the task
+     * @param priority The priority of the task relative to other tasks with the same update type, where lower values
+     *                 are processed first
+     */
+    public CompletableFuture<ChunkBuildResult> schedule(ChunkRenderBuildTask task, ChunkUpdateType type, double priority) {
         if (!this.running.get()) {
             throw new IllegalStateException("Executor is stopped");
         }
 
-        WrappedTask job = new WrappedTask(task);
+        WrappedTask job = new WrappedTask(task, type, priority, this.nextSequence.getAndIncrement());
+
+        this.enqueue(job);
+
+        return job.future;
+    }
+
+    /**
+     * Adds a task to the lane of an idle worker if there is one, so that it can start on the task immediately without
+     * needing to steal it. Otherwise, tasks are spread across the lanes of all workers in turn.
+     */
+    private void enqueue(WrappedTask job) {
+        int laneCount = this.buildQueue.getLaneCount();
+        int start = this.nextLane;
+
+        this.nextLane = (start + 1) % laneCount;
+
+        WorkerRunnable target = null;
+
+        for (int i = 0; i < laneCount; i++) {
+            WorkerRunnable worker = this.workers.get((start + i) % laneCount);
+
+            if (worker.idle) {
+                target = worker;
+                break;
+            }
+        }
+
+        if (target == null) {
+            target = this.workers.get(start);
+        }
 
-        this.buildQueue.add(job);
+        this.buildQueue.add(target.lane, job);
 
-        synchronized (this.jobNotifier) {
-            this.jobNotifier.notify();
+        // The worker marks itself as idle before checking the queue a final time, so it will either see this task
+        // or be unparked here
+        if (target.idle) {
+            LockSupport.unpark(target.thread);
         }
+    }
 
-        return job.future;
+    /**
+     * Re-calculates the priority of every task still waiting in the build queue, such as after the camera has moved.
+     * Tasks which have been cancelled since they were submitted are dropped from the queue instead.
+     *
+     * @param prioritizer The function which returns the new priority of a task's section
+     */
+    public void reprioritize(ToDoubleFunction<RenderSection> prioritizer) {
+        if (this.buildQueue.isEmpty()) {
+            return;
+        }
+
+        List<WrappedTask> jobs = new ArrayList<>(this.buildQueue.size());
+        this.buildQueue.drainTo(jobs);
+
+        for (WrappedTask job : jobs) {
+            if (job.isCancelled()) {
+                this.statistics.onTaskDropped();
+                continue;
+            }
+
+            job.priority = prioritizer.applyAsDouble(job.task.getRender());
+
+            this.enqueue(job);
+        }
+    }
+
+    /**
+     * @return The number of tasks which are waiting to be picked up by a worker
+     */
+    public int getQueueDepth() {
+        return this.buildQueue.size();
+    }
+
+    /**
+     * @return The meshing throughput statistics collected from all threads which have processed tasks
+     */
+    public ChunkBuildStatistics getStatistics() {
+        return this.statistics;
     }
 
     /**
@@ -163,6 +279,7 @@ public class ChunkBuilder {
 
         this.world = world;
         this.renderPassManager = renderPassManager;
+        this.blockRenderTable = BlockRenderTable.create(renderPassManager, MinecraftClient.getInstance().getBakedModelManager().getBlockModels()::getModel);
 
         this.startWorkers();
     }
@@ -184,9 +301,30 @@ public class ChunkBuilder {
         return Runtime.getRuntime().availableProcessors();
     }
 
-    public CompletableFuture<Void> scheduleDeferred(ChunkRenderBuildTask task) {
-        return this.schedule(task)
-                .thenAccept(this.deferredResultQueue::add);
+    public CompletableFuture<Void> scheduleDeferred(ChunkRenderBuildTask task, ChunkUpdateType type, double priority) {
+        CompletableFuture<ChunkBuildResult> future = this.schedule(task, type, priority);
+        CompletableFuture<Void> deferred = new CompletableFuture<>();
+
+        future.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                deferred.completeExceptionally(throwable);
+            } else if (deferred.complete(null)) {
+                this.deferredResultQueue.add(result);
+            } else {
+                // The returned future was cancelled after the task had already been built, so nothing will be around
+                // to consume the result
+                result.delete();
+            }
+        });
+
+        // Cancelling the returned future would otherwise leave the task in the queue, where it would still be built
+        deferred.whenComplete((result, throwable) -> {
+            if (deferred.isCancelled()) {
+                future.cancel(false);
+            }
+        });
+
+        return deferred;
     }
 
     public Iterator<ChunkBuildResult> createDeferredBuildResultDrain() {
@@ -201,7 +339,7 @@ public class ChunkBuilder {
      * @return True if it was able to steal a task, otherwise false
      */
     public boolean stealTask() {
-        WrappedTask task = this.getNextJob(false);
+        WrappedTask task = this.getNextJob(this.buildQueue.poll());
 
         if (task == null) {
             return false;
@@ -210,11 +348,11 @@ public class ChunkBuilder {
         ChunkBuildContext context = this.localContexts.get();
 
         if (context == null) {
-            this.localContexts.set(context = new ChunkBuildContext(this.world, this.vertexType, this.renderPassManager));
+            this.localContexts.set(context = new ChunkBuildContext(this.world, this.vertexType, this.renderPassManager, this.blockRenderTable, this.useGreedyMeshing));
         }
 
         try {
-            processJob(task, context);
+            this.processJob(task, context);
         } finally {
             context.release();
         }
@@ -223,35 +361,35 @@ public class ChunkBuilder {
     }
 
     /**
-     * Returns the next task which this worker can work on or blocks until one becomes available. If no tasks are
-     * currently available and {@param block} is true, it will wait on the {@link ChunkBuilder#jobNotifier} field
-     * until it is notified of an incoming task.
+     * Records the time a task spent waiting in the queue once it has been taken by a thread.
      */
-    private WrappedTask getNextJob(boolean block) {
-        WrappedTask job = ChunkBuilder.this.buildQueue.poll();
-
-        if (job == null && block) {
-            synchronized (ChunkBuilder.this.jobNotifier) {
-                try {
-                    ChunkBuilder.this.jobNotifier.wait();
-                } catch (InterruptedException ignored) {
-                }
-            }
+    private WrappedTask getNextJob(WrappedTask job) {
+        if (job != null) {
+            this.statistics.onTaskStarted(System.nanoTime() - job.submitTime);
         }
 
         return job;
     }
 
-    private static void processJob(WrappedTask job, ChunkBuildContext context) {
+    private void processJob(WrappedTask job, ChunkBuildContext context) {
         if (job.isCancelled()) {
+            this.statistics.onTaskDropped();
             return;
         }
 
         ChunkBuildResult result;
 
         try {
+            long start = System.nanoTime();
+
             // Perform the build task with this worker's local resources and obtain the result
             result = job.task.performBuild(context, job);
+
+            // Empty sections are trivially built and would only skew the averages
+            if (result != null && !(job.task instanceof ChunkRenderEmptyBuildTask)) {
+                this.statistics.onSectionBuilt(System.nanoTime() - start, result.getMeshByteSize(),
+                        context.buffers.getSavedVertexCount());
+            }
         } catch (Exception e) {
             // Propagate any exception from chunk building
             job.future.completeExceptionally(e);
@@ -261,8 +399,11 @@ public class ChunkBuilder {
 
         // The result can be null if the task is cancelled
         if (result != null) {
-            // Notify the future that the result is now available
-            job.future.complete(result);
+            // Notify the future that the result is now available, or release the result if the task was cancelled
+            // while it was being built, as nothing will be around to consume it
+            if (!job.future.complete(result)) {
+                result.delete();
+            }
         } else if (!job.isCancelled()) {
             // If the job wasn't cancelled and no result was produced, we've hit a bug
             job.future.completeExceptionally(new RuntimeException("No result was produced by the task"));
@@ -275,27 +416,63 @@ public class ChunkBuilder {
         // Making this thread-local provides a small boost to performance by avoiding the overhead in synchronizing
         // caches between different CPU cores
         private final ChunkBuildContext context;
+        private final int lane;
 
-        public WorkerRunnable(ChunkBuildContext context) {
+        private Thread thread;
+
+        // True while the worker has run out of tasks and may be parked
+        private volatile boolean idle;
+
+        public WorkerRunnable(ChunkBuildContext context, int lane) {
             this.context = context;
+            this.lane = lane;
         }
 
         @Override
         public void run() {
             // Run until the chunk builder shuts down
             while (this.running.get()) {
-                WrappedTask job = ChunkBuilder.this.getNextJob(true);
+                WrappedTask job = ChunkBuilder.this.getNextJob(this.pollJob());
 
                 if (job == null) {
                     continue;
                 }
 
                 try {
-                    processJob(job, this.context);
+                    ChunkBuilder.this.processJob(job, this.context);
                 } finally {
                     this.context.release();
                 }
             }
+
+            // Any memory blocks cached by this thread would otherwise be lost once it exits
+            NativeBuffer.releaseThreadCache();
+        }
+
+        /**
+         * Takes the next task from this worker's lane or steals one from another worker. If no tasks are available,
+         * the worker parks until it is given a task or the builder shuts down.
+         */
+        private WrappedTask pollJob() {
+            WrappedTask job = ChunkBuilder.this.buildQueue.poll(this.lane);
+
+            if (job != null) {
+                return job;
+            }
+
+            this.idle = true;
+
+            // Check the queue again after becoming idle, as a task may have been added to it in the meantime without
+            // the scheduler knowing that this worker needs to be unparked
+            job = ChunkBuilder.this.buildQueue.poll(this.lane);
+
+            if (job == null && this.running.get()) {
+                LockSupport.park(this);
+            }
+
+            this.idle = false;
+
+            return job;
         }
     }
 
@@ -303,9 +480,20 @@ public class ChunkBuilder {
         private final ChunkRenderBuildTask task;
         private final CompletableFuture<ChunkBuildResult> future;
 
-        private WrappedTask(ChunkRenderBuildTask task) {
+        private final ChunkUpdateType type;
+        private final long sequence;
+        private final long submitTime;
+
+        // Only modified while the task is not in the build queue, as the queue's ordering would otherwise be broken
+        private double priority;
+
+        private WrappedTask(ChunkRenderBuildTask task, ChunkUpdateType type, double priority, long sequence) {
             this.task = task;
             this.future = new CompletableFuture<>();
+            this.type = type;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.submitTime = System.nanoTime();
         }
 
         @Override
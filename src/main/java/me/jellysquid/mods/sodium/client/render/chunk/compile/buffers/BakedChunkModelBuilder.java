@@ -1,37 +1,31 @@
 package me.jellysquid.mods.sodium.client.render.chunk.compile.buffers;
 
-import me.jellysquid.mods.sodium.client.model.IndexBufferBuilder;
 import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadFacing;
 import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkRenderData;
 import me.jellysquid.mods.sodium.client.render.chunk.format.ModelVertexSink;
 import net.minecraft.client.texture.Sprite;
 
 public class BakedChunkModelBuilder implements ChunkModelBuilder {
-    private final ModelVertexSink vertexSink;
-    private final IndexBufferBuilder[] indexBufferBuilders;
+    private final ModelVertexSink[] vertexSinks;
+    private final GreedyQuadCollector greedyCollector;
 
     private final ChunkRenderData.Builder renderData;
     private final int id;
 
-    public BakedChunkModelBuilder(IndexBufferBuilder[] indexBufferBuilders,
-                                  ModelVertexSink vertexSink,
+    public BakedChunkModelBuilder(ModelVertexSink[] vertexSinks,
+                                  GreedyQuadCollector greedyCollector,
                                   ChunkRenderData.Builder renderData,
                                   int chunkId) {
-        this.indexBufferBuilders = indexBufferBuilders;
-        this.vertexSink = vertexSink;
+        this.vertexSinks = vertexSinks;
+        this.greedyCollector = greedyCollector;
 
         this.renderData = renderData;
         this.id = chunkId;
     }
 
     @Override
-    public ModelVertexSink getVertexSink() {
-        return this.vertexSink;
-    }
-
-    @Override
-    public IndexBufferBuilder getIndexBufferBuilder(ModelQuadFacing facing) {
-        return this.indexBufferBuilders[facing.ordinal()];
+    public ModelVertexSink getVertexSink(ModelQuadFacing facing) {
+        return this.vertexSinks[facing.ordinal()];
     }
 
     @Override
@@ -43,4 +37,9 @@ public class BakedChunkModelBuilder implements ChunkModelBuilder {
     public int getChunkId() {
         return this.id;
     }
+
+    @Override
+    public GreedyQuadCollector getGreedyCollector() {
+        return this.greedyCollector;
+    }
 }
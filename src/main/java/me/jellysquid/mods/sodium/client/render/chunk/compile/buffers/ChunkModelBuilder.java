@@ -1,16 +1,23 @@
 package me.jellysquid.mods.sodium.client.render.chunk.compile.buffers;
 
-import me.jellysquid.mods.sodium.client.model.IndexBufferBuilder;
 import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadFacing;
 import me.jellysquid.mods.sodium.client.render.chunk.format.ModelVertexSink;
 import net.minecraft.client.texture.Sprite;
 
 public interface ChunkModelBuilder {
-    ModelVertexSink getVertexSink();
-
-    IndexBufferBuilder getIndexBufferBuilder(ModelQuadFacing facing);
+    /**
+     * Returns the vertex sink which quads with the given facing are written into. Every four vertices written to a
+     * sink make up one quad, with the vertices given in clockwise order.
+     */
+    ModelVertexSink getVertexSink(ModelQuadFacing facing);
 
     void addSprite(Sprite sprite);
 
     int getChunkId();
+
+    /**
+     * @return The collector which full block faces can be added to for merging, or null if faces cannot be merged
+     * for this model
+     */
+    GreedyQuadCollector getGreedyCollector();
 }
@@ -0,0 +1,303 @@
+package me.jellysquid.mods.sodium.client.render.chunk.compile.buffers;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadFacing;
+import me.jellysquid.mods.sodium.client.render.chunk.format.ModelVertexSink;
+import me.jellysquid.mods.sodium.client.render.chunk.passes.BlockRenderPass;
+import net.minecraft.client.texture.Sprite;
+
+import java.util.Arrays;
+
+/**
+ * Collects full, axis-aligned block faces during a chunk build and merges neighboring faces which share the same
+ * material (sprite, color and light) into larger quads once the section has been fully visited.
+ *
+ * Merged quads carry the minimum texture coordinate of their sprite instead of per-vertex texture coordinates, along
+ * with a set of flags packed into the upper byte of the chunk ID. The shader uses these to repeat the sprite once for
+ * every block the quad covers.
+ */
+public class GreedyQuadCollector {
+    /**
+     * Set on every vertex of a merged quad.
+     */
+    public static final int FLAG_GREEDY = 0b1;
+
+    private static final int FLAG_FACING_SHIFT = 1;
+    private static final int FLAG_SPRITE_SIZE_SHIFT = 4;
+
+    // Sprite IDs are packed into 16 bits of the material key
+    private static final int MAX_SPRITES = 1 << 16;
+
+    private static final int SLICE_SIZE = 16 * 16;
+    private static final int GRID_SIZE = 16 * SLICE_SIZE;
+
+    /**
+     * The corners of each face, in the same order which baked quads use. Each corner is encoded as a bit for whether
+     * the X, Y and Z coordinates (from the least significant bit) are at the maximum of the face's bounds.
+     */
+    private static final int[][] FACE_CORNERS = new int[ModelQuadFacing.COUNT][];
+
+    static {
+        FACE_CORNERS[ModelQuadFacing.UP.ordinal()] = new int[] { 0b010, 0b110, 0b111, 0b011 };
+        FACE_CORNERS[ModelQuadFacing.DOWN.ordinal()] = new int[] { 0b100, 0b000, 0b001, 0b101 };
+        FACE_CORNERS[ModelQuadFacing.EAST.ordinal()] = new int[] { 0b111, 0b101, 0b001, 0b011 };
+        FACE_CORNERS[ModelQuadFacing.WEST.ordinal()] = new int[] { 0b010, 0b000, 0b100, 0b110 };
+        FACE_CORNERS[ModelQuadFacing.SOUTH.ordinal()] = new int[] { 0b110, 0b100, 0b101, 0b111 };
+        FACE_CORNERS[ModelQuadFacing.NORTH.ordinal()] = new int[] { 0b011, 0b001, 0b000, 0b010 };
+    }
+
+    // The material index (plus one) of the face at each position, or zero if there is no face
+    private final int[][] faces = new int[ModelQuadFacing.COUNT][GRID_SIZE];
+    private final boolean[] hasFaces = new boolean[ModelQuadFacing.COUNT];
+
+    private final Long2IntOpenHashMap materialIds = new Long2IntOpenHashMap();
+    private final Reference2IntOpenHashMap<Sprite> spriteIds = new Reference2IntOpenHashMap<>();
+
+    private final ObjectArrayList<Sprite> sprites = new ObjectArrayList<>();
+    private int[] materialSprites = new int[64];
+    private int[] materialColors = new int[64];
+    private int[] materialLights = new int[64];
+    private int materialCount;
+
+    private int collectedFaces;
+    private int emittedQuads;
+
+    /**
+     * @return True if quads rendered with the given pass can be merged, which is only the case for the solid pass, as
+     * merging faces can change the order in which translucent geometry is blended and alpha-tested geometry needs
+     * to sample the sprite's edges exactly
+     */
+    public static boolean supports(BlockRenderPass pass) {
+        return pass == BlockRenderPass.SOLID;
+    }
+
+    public GreedyQuadCollector() {
+        this.materialIds.defaultReturnValue(-1);
+        this.spriteIds.defaultReturnValue(-1);
+    }
+
+    public void start() {
+        for (int facing = 0; facing < ModelQuadFacing.COUNT; facing++) {
+            if (this.hasFaces[facing]) {
+                Arrays.fill(this.faces[facing], 0);
+                this.hasFaces[facing] = false;
+            }
+        }
+
+        this.materialIds.clear();
+        this.spriteIds.clear();
+        this.sprites.clear();
+        this.materialCount = 0;
+
+        this.collectedFaces = 0;
+        this.emittedQuads = 0;
+    }
+
+    /**
+     * Adds a full block face to the collector.
+     *
+     * @param facing The direction the face is pointing towards
+     * @param x The x-coordinate of the block within the chunk section
+     * @param y The y-coordinate of the block within the chunk section
+     * @param z The z-coordinate of the block within the chunk section
+     * @param sprite The sprite which covers the face, which must be square and have a power-of-two size
+     * @param color The ABGR-packed color of every vertex of the face
+     * @param light The packed light-map coordinates of every vertex of the face
+     * @return False if the face could not be added and must be rendered normally instead
+     */
+    public boolean add(ModelQuadFacing facing, int x, int y, int z, Sprite sprite, int color, int light) {
+        if (this.sprites.size() >= MAX_SPRITES && !this.spriteIds.containsKey(sprite)) {
+            return false;
+        }
+
+        int[] faces = this.faces[facing.ordinal()];
+        int index = getFaceIndex(facing, x, y, z);
+
+        // Models with several quads on the same side would otherwise replace each other
+        if (faces[index] != 0) {
+            return false;
+        }
+
+        faces[index] = this.getMaterialId(sprite, color, light) + 1;
+
+        this.hasFaces[facing.ordinal()] = true;
+        this.collectedFaces++;
+
+        return true;
+    }
+
+    /**
+     * @return True if the sprite's dimensions can be repeated by the shader across a merged quad
+     */
+    public static boolean canRepeatSprite(Sprite sprite) {
+        int size = sprite.getWidth();
+
+        return size == sprite.getHeight() && Integer.bitCount(size) == 1 && size <= (1 << 15);
+    }
+
+    private int getMaterialId(Sprite sprite, int color, int light) {
+        int spriteId = this.spriteIds.getInt(sprite);
+
+        if (spriteId < 0) {
+            this.spriteIds.put(sprite, spriteId = this.sprites.size());
+            this.sprites.add(sprite);
+        }
+
+        // Light-map coordinates only use the low byte of each 16-bit component, so both fit into the lower 16 bits
+        long key = ((long) color << 32) | ((long) spriteId << 16) | ((light >>> 8) & 0xFF00) | (light & 0xFF);
+
+        int id = this.materialIds.get(key);
+
+        if (id < 0) {
+            id = this.materialCount++;
+
+            if (id >= this.materialColors.length) {
+                int capacity = this.materialColors.length * 2;
+
+                this.materialSprites = Arrays.copyOf(this.materialSprites, capacity);
+                this.materialColors = Arrays.copyOf(this.materialColors, capacity);
+                this.materialLights = Arrays.copyOf(this.materialLights, capacity);
+            }
+
+            this.materialSprites[id] = spriteId;
+            this.materialColors[id] = color;
+            this.materialLights[id] = light;
+
+            this.materialIds.put(key, id);
+        }
+
+        return id;
+    }
+
+    /**
+     * Merges all collected faces and writes the resulting quads into the given model builder. The collector is left
+     * empty afterwards.
+     */
+    public void flush(ChunkModelBuilder builder) {
+        for (ModelQuadFacing facing : ModelQuadFacing.DIRECTIONS) {
+            if (this.hasFaces[facing.ordinal()]) {
+                this.flushFacing(builder, facing);
+                this.hasFaces[facing.ordinal()] = false;
+            }
+        }
+    }
+
+    private void flushFacing(ChunkModelBuilder builder, ModelQuadFacing facing) {
+        int[] faces = this.faces[facing.ordinal()];
+
+        ModelVertexSink vertices = builder.getVertexSink(facing);
+
+        for (int slice = 0; slice < 16; slice++) {
+            int base = slice * SLICE_SIZE;
+
+            for (int b = 0; b < 16; b++) {
+                for (int a = 0; a < 16; a++) {
+                    int material = faces[base + (b << 4) + a];
+
+                    if (material == 0) {
+                        continue;
+                    }
+
+                    // Extend the quad along the first axis for as long as the material matches
+                    int width = 1;
+
+                    while (a + width < 16 && faces[base + (b << 4) + a + width] == material) {
+                        width++;
+                    }
+
+                    // Then extend it along the second axis for as long as every face in the next row matches
+                    int height = 1;
+
+                    expand:
+                    while (b + height < 16) {
+                        int row = base + ((b + height) << 4);
+
+                        for (int i = a; i < a + width; i++) {
+                            if (faces[row + i] != material) {
+                                break expand;
+                            }
+                        }
+
+                        height++;
+                    }
+
+                    for (int j = b; j < b + height; j++) {
+                        Arrays.fill(faces, base + (j << 4) + a, base + (j << 4) + a + width, 0);
+                    }
+
+                    this.writeQuad(builder, vertices, facing, slice, a, b, width, height, material - 1);
+                }
+            }
+        }
+
+        vertices.flush();
+    }
+
+    private void writeQuad(ChunkModelBuilder builder, ModelVertexSink vertices, ModelQuadFacing facing,
+                           int slice, int a, int b, int width, int height, int material) {
+        Sprite sprite = this.sprites.get(this.materialSprites[material]);
+        int color = this.materialColors[material];
+        int light = this.materialLights[material];
+
+        float minX, minY, minZ, maxX, maxY, maxZ;
+
+        switch (facing) {
+            case UP, DOWN -> {
+                minX = a; maxX = a + width;
+                minZ = b; maxZ = b + height;
+                minY = maxY = facing == ModelQuadFacing.UP ? slice + 1 : slice;
+            }
+            case SOUTH, NORTH -> {
+                minX = a; maxX = a + width;
+                minY = b; maxY = b + height;
+                minZ = maxZ = facing == ModelQuadFacing.SOUTH ? slice + 1 : slice;
+            }
+            case EAST, WEST -> {
+                minZ = a; maxZ = a + width;
+                minY = b; maxY = b + height;
+                minX = maxX = facing == ModelQuadFacing.EAST ? slice + 1 : slice;
+            }
+            default -> throw new IllegalArgumentException("Unsupported facing: " + facing);
+        }
+
+        int flags = FLAG_GREEDY | (facing.ordinal() << FLAG_FACING_SHIFT) |
+                (Integer.numberOfTrailingZeros(sprite.getWidth()) << FLAG_SPRITE_SIZE_SHIFT);
+
+        int chunkId = builder.getChunkId() | (flags << 8);
+
+        vertices.ensureCapacity(4);
+
+        for (int corner : FACE_CORNERS[facing.ordinal()]) {
+            float x = (corner & 0b001) != 0 ? maxX : minX;
+            float y = (corner & 0b010) != 0 ? maxY : minY;
+            float z = (corner & 0b100) != 0 ? maxZ : minZ;
+
+            vertices.writeVertex(x, y, z, color, sprite.getMinU(), sprite.getMinV(), light, chunkId);
+        }
+
+        this.emittedQuads++;
+    }
+
+    /**
+     * Returns the position of a face within the grid for its facing. Each facing's grid is made up of 16 slices along
+     * the facing's axis, where each slice is indexed by the two remaining axes.
+     */
+    private static int getFaceIndex(ModelQuadFacing facing, int x, int y, int z) {
+        return switch (facing) {
+            case UP, DOWN -> (y * SLICE_SIZE) + (z << 4) + x;
+            case SOUTH, NORTH -> (z * SLICE_SIZE) + (y << 4) + x;
+            case EAST, WEST -> (x * SLICE_SIZE) + (y << 4) + z;
+            default -> throw new IllegalArgumentException("Unsupported facing: " + facing);
+        };
+    }
+
+    /**
+     * @return The number of vertices which were not emitted as a result of merging faces since the collector was last
+     * started
+     */
+    public int getSavedVertexCount() {
+        return (this.collectedFaces - this.emittedQuads) * 4;
+    }
+}
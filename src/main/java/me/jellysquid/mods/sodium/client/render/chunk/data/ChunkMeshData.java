@@ -1,6 +1,6 @@
 package me.jellysquid.mods.sodium.client.render.chunk.data;
 
-import me.jellysquid.mods.sodium.client.gl.buffer.IndexedVertexData;
+import me.jellysquid.mods.sodium.client.gl.buffer.VertexData;
 import me.jellysquid.mods.sodium.client.gl.util.ElementRange;
 import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadFacing;
 
@@ -8,9 +8,9 @@ import java.util.Map;
 
 public class ChunkMeshData {
     private final Map<ModelQuadFacing, ElementRange> parts;
-    private final IndexedVertexData vertexData;
+    private final VertexData vertexData;
 
-    public ChunkMeshData(IndexedVertexData vertexData, Map<ModelQuadFacing, ElementRange> parts) {
+    public ChunkMeshData(VertexData vertexData, Map<ModelQuadFacing, ElementRange> parts) {
         this.parts = parts;
         this.vertexData = vertexData;
     }
@@ -19,7 +19,7 @@ public class ChunkMeshData {
         return this.parts;
     }
 
-    public IndexedVertexData getVertexData() {
+    public VertexData getVertexData() {
         return this.vertexData;
     }
 }
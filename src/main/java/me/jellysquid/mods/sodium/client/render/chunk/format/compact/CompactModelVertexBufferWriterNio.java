@@ -0,0 +1,33 @@
+package me.jellysquid.mods.sodium.client.render.chunk.format.compact;
+
+import me.jellysquid.mods.sodium.client.model.vertex.buffer.VertexBufferView;
+import me.jellysquid.mods.sodium.client.model.vertex.buffer.VertexBufferWriterNio;
+import me.jellysquid.mods.sodium.client.render.chunk.format.ChunkModelVertexFormats;
+import me.jellysquid.mods.sodium.client.render.chunk.format.ModelVertexSink;
+import me.jellysquid.mods.sodium.client.render.chunk.region.RenderRegion;
+
+import java.nio.ByteBuffer;
+
+public class CompactModelVertexBufferWriterNio extends VertexBufferWriterNio implements ModelVertexSink {
+    public CompactModelVertexBufferWriterNio(VertexBufferView backingBuffer) {
+        super(backingBuffer, ChunkModelVertexFormats.COMPACT);
+    }
+
+    @Override
+    public void writeVertex(float posX, float posY, float posZ, int color, float u, float v, int light, int chunkId) {
+        int i = this.writeOffset;
+
+        ByteBuffer buffer = this.byteBuffer;
+        buffer.putShort(i + 0, CompactModelVertexType.encodePosition(posX, RenderRegion.getChunkIndexX(chunkId)));
+        buffer.putShort(i + 2, CompactModelVertexType.encodePosition(posY, RenderRegion.getChunkIndexY(chunkId)));
+        buffer.putShort(i + 4, CompactModelVertexType.encodePosition(posZ, RenderRegion.getChunkIndexZ(chunkId)));
+        buffer.putShort(i + 6, CompactModelVertexType.encodeLightMapTexCoord(light));
+
+        buffer.putInt(i + 8, color);
+
+        buffer.putShort(i + 12, CompactModelVertexType.encodeBlockTexture(u));
+        buffer.putShort(i + 14, CompactModelVertexType.encodeBlockTexture(v));
+
+        this.advance();
+    }
+}
@@ -0,0 +1,31 @@
+package me.jellysquid.mods.sodium.client.render.chunk.format.compact;
+
+import me.jellysquid.mods.sodium.client.model.vertex.buffer.VertexBufferView;
+import me.jellysquid.mods.sodium.client.model.vertex.buffer.VertexBufferWriterUnsafe;
+import me.jellysquid.mods.sodium.client.render.chunk.format.ChunkModelVertexFormats;
+import me.jellysquid.mods.sodium.client.render.chunk.format.ModelVertexSink;
+import me.jellysquid.mods.sodium.client.render.chunk.region.RenderRegion;
+import org.lwjgl.system.MemoryUtil;
+
+public class CompactModelVertexBufferWriterUnsafe extends VertexBufferWriterUnsafe implements ModelVertexSink {
+    public CompactModelVertexBufferWriterUnsafe(VertexBufferView backingBuffer) {
+        super(backingBuffer, ChunkModelVertexFormats.COMPACT);
+    }
+
+    @Override
+    public void writeVertex(float posX, float posY, float posZ, int color, float u, float v, int light, int chunkId) {
+        long i = this.writePointer;
+
+        MemoryUtil.memPutShort(i + 0, CompactModelVertexType.encodePosition(posX, RenderRegion.getChunkIndexX(chunkId)));
+        MemoryUtil.memPutShort(i + 2, CompactModelVertexType.encodePosition(posY, RenderRegion.getChunkIndexY(chunkId)));
+        MemoryUtil.memPutShort(i + 4, CompactModelVertexType.encodePosition(posZ, RenderRegion.getChunkIndexZ(chunkId)));
+        MemoryUtil.memPutShort(i + 6, CompactModelVertexType.encodeLightMapTexCoord(light));
+
+        MemoryUtil.memPutInt(i + 8, color);
+
+        MemoryUtil.memPutShort(i + 12, CompactModelVertexType.encodeBlockTexture(u));
+        MemoryUtil.memPutShort(i + 14, CompactModelVertexType.encodeBlockTexture(v));
+
+        this.advance();
+    }
+}
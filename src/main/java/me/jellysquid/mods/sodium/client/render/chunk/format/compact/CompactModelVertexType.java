@@ -0,0 +1,113 @@
+package me.jellysquid.mods.sodium.client.render.chunk.format.compact;
+
+import com.google.common.collect.ImmutableList;
+import me.jellysquid.mods.sodium.client.gl.attribute.GlVertexAttributeFormat;
+import me.jellysquid.mods.sodium.client.gl.attribute.GlVertexFormat;
+import me.jellysquid.mods.sodium.client.model.vertex.buffer.VertexBufferView;
+import me.jellysquid.mods.sodium.client.model.vertex.type.BlittableVertexType;
+import me.jellysquid.mods.sodium.client.model.vertex.type.ChunkVertexType;
+import me.jellysquid.mods.sodium.client.render.chunk.format.ChunkMeshAttribute;
+import me.jellysquid.mods.sodium.client.render.chunk.format.ModelVertexSink;
+import net.minecraft.client.render.VertexConsumer;
+
+import java.util.List;
+
+/**
+ * Compact vertex format which stores positions relative to the origin of the render region rather than the chunk. This
+ * removes the need for a chunk ID on each vertex, which leaves room to store the light-map coordinates as bytes within
+ * the position attribute's padding, bringing each vertex down to 16 bytes.
+ *
+ * Since the positions have to cover an entire region, they are stored at a lower precision than in the default format.
+ * The range is rounded up to a power of two so that every position on the 1/256th block grid, which includes the
+ * 1/16th grid used by block models, is represented exactly.
+ */
+public class CompactModelVertexType implements ChunkVertexType {
+    public static final GlVertexFormat<ChunkMeshAttribute> VERTEX_FORMAT = GlVertexFormat.builder(ChunkMeshAttribute.class, 16)
+            .addElement(ChunkMeshAttribute.POSITION_ID, 0, GlVertexAttributeFormat.UNSIGNED_SHORT, 3, false)
+            .addElement(ChunkMeshAttribute.LIGHT_TEXTURE, 6, GlVertexAttributeFormat.UNSIGNED_BYTE, 2, false)
+            .addElement(ChunkMeshAttribute.COLOR, 8, GlVertexAttributeFormat.UNSIGNED_BYTE, 4, true)
+            .addElement(ChunkMeshAttribute.BLOCK_TEXTURE, 12, GlVertexAttributeFormat.UNSIGNED_SHORT, 2, false)
+            .build();
+
+    private static final int POSITION_MAX_VALUE = 65536;
+    private static final int TEXTURE_MAX_VALUE = 65536;
+
+    private static final float MODEL_ORIGIN = 8.0f;
+    // The width of a region and the margin around its chunks (144 blocks), rounded up to a power of two
+    private static final float MODEL_RANGE = 256.0f;
+    private static final float MODEL_SCALE = MODEL_RANGE / POSITION_MAX_VALUE;
+
+    private static final float MODEL_SCALE_INV = POSITION_MAX_VALUE / MODEL_RANGE;
+
+    private static final float TEXTURE_SCALE = (1.0f / TEXTURE_MAX_VALUE);
+
+    @Override
+    public ModelVertexSink createFallbackWriter(VertexConsumer consumer) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ModelVertexSink createBufferWriter(VertexBufferView buffer, boolean direct) {
+        return direct ? new CompactModelVertexBufferWriterUnsafe(buffer) : new CompactModelVertexBufferWriterNio(buffer);
+    }
+
+    @Override
+    public BlittableVertexType<ModelVertexSink> asBlittable() {
+        return this;
+    }
+
+    @Override
+    public GlVertexFormat<ChunkMeshAttribute> getCustomVertexFormat() {
+        return VERTEX_FORMAT;
+    }
+
+    @Override
+    public float getTextureScale() {
+        return TEXTURE_SCALE;
+    }
+
+    @Override
+    public float getPositionScale() {
+        return MODEL_SCALE;
+    }
+
+    @Override
+    public float getPositionOffset() {
+        return -MODEL_ORIGIN;
+    }
+
+    @Override
+    public List<String> getDefines() {
+        return ImmutableList.of("VERT_REGION_RELATIVE_POSITIONS", "VERT_LIGHT_BYTES");
+    }
+
+    @Override
+    public boolean hasVertexFlags() {
+        return false;
+    }
+
+    /**
+     * Encodes a texture coordinate within the block atlas. The far edge of the atlas can't be represented, so it is
+     * clamped to the last step rather than wrapping around to the near edge.
+     */
+    static short encodeBlockTexture(float value) {
+        return (short) Math.min((int) (value * TEXTURE_MAX_VALUE), TEXTURE_MAX_VALUE - 1);
+    }
+
+    /**
+     * Encodes a chunk-relative coordinate into a region-relative position.
+     *
+     * @param v The coordinate of the vertex relative to the chunk's origin
+     * @param chunkOffset The coordinate of the chunk within its region, in chunks
+     */
+    static short encodePosition(float v, int chunkOffset) {
+        return (short) Math.round((MODEL_ORIGIN + (chunkOffset << 4) + v) * MODEL_SCALE_INV);
+    }
+
+    /**
+     * Packs the light-map coordinates into two bytes. The shader adds the half-texel offset when decoding them.
+     */
+    static short encodeLightMapTexCoord(int light) {
+        return (short) ((light & 0xFF) | ((light >>> 8) & 0xFF00));
+    }
+}
@@ -67,6 +67,11 @@ public class ModelVertexType implements ChunkVertexType {
         return -MODEL_ORIGIN;
     }
 
+    @Override
+    public boolean hasVertexFlags() {
+        return true;
+    }
+
     static short encodeBlockTexture(float value) {
         return (short) (value * TEXTURE_MAX_VALUE);
     }
@@ -1,71 +1,56 @@
 package me.jellysquid.mods.sodium.client.render.chunk.graph;
 
 import me.jellysquid.mods.sodium.client.render.chunk.RenderSection;
-import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkRenderData;
 import me.jellysquid.mods.sodium.client.util.frustum.Frustum;
-import me.jellysquid.mods.sodium.common.util.DirectionUtil;
 import net.minecraft.client.render.chunk.ChunkOcclusionData;
 import net.minecraft.util.math.Direction;
 
+/**
+ * A view of a section's state in the visibility graph. The state itself lives in the {@link ChunkGraphStorage} of the
+ * region which contains the section.
+ */
 public class ChunkGraphInfo {
-    private static final long DEFAULT_VISIBILITY_DATA = calculateVisibilityData(ChunkRenderData.EMPTY.getOcclusionData());
-
     private final RenderSection parent;
 
-    private int lastVisibleFrame = -1;
-
-    private long visibilityData;
-    private byte cullingState;
+    private final ChunkGraphStorage storage;
+    private final int index;
 
-    public ChunkGraphInfo(RenderSection parent) {
+    public ChunkGraphInfo(RenderSection parent, ChunkGraphStorage storage, int index) {
         this.parent = parent;
-        this.visibilityData = DEFAULT_VISIBILITY_DATA;
+        this.storage = storage;
+        this.index = index;
     }
 
     public void setLastVisibleFrame(int frame) {
-        this.lastVisibleFrame = frame;
+        this.storage.setLastVisibleFrame(this.index, frame);
     }
 
     public int getLastVisibleFrame() {
-        return this.lastVisibleFrame;
-    }
-
-    public void setOcclusionData(ChunkOcclusionData occlusionData) {
-        this.visibilityData = calculateVisibilityData(occlusionData);
+        return this.storage.getLastVisibleFrame(this.index);
     }
 
-    private static long calculateVisibilityData(ChunkOcclusionData occlusionData) {
-        long visibilityData = 0;
-
-        for (Direction from : DirectionUtil.ALL_DIRECTIONS) {
-            for (Direction to : DirectionUtil.ALL_DIRECTIONS) {
-                if (occlusionData == null || occlusionData.isVisibleThrough(from, to)) {
-                    visibilityData |= (1L << ((from.ordinal() << 3) + to.ordinal()));
-                }
-            }
-        }
-
-        return visibilityData;
+    public boolean setOcclusionData(ChunkOcclusionData occlusionData) {
+        return this.storage.setVisibilityData(this.index, occlusionData);
     }
 
     public boolean isVisibleThrough(Direction from, Direction to) {
-        return ((this.visibilityData & (1L << ((from.ordinal() << 3) + to.ordinal()))) != 0L);
+        return ((this.storage.getVisibilityData(this.index) & (1L << ((from.ordinal() << 3) + to.ordinal()))) != 0L);
     }
 
     public void setCullingState(byte parent, Direction dir) {
-        this.cullingState = (byte) (parent | (1 << dir.ordinal()));
+        this.storage.setCullingState(this.index, (byte) (parent | (1 << dir.ordinal())));
     }
 
     public boolean canCull(Direction dir) {
-        return (this.cullingState & 1 << dir.ordinal()) != 0;
+        return (this.storage.getCullingState(this.index) & 1 << dir.ordinal()) != 0;
     }
 
     public byte getCullingState() {
-        return this.cullingState;
+        return this.storage.getCullingState(this.index);
     }
 
     public void resetCullingState() {
-        this.cullingState = 0;
+        this.storage.setCullingState(this.index, (byte) 0);
     }
 
     public boolean isCulledByFrustum(Frustum frustum) {
@@ -0,0 +1,113 @@
+package me.jellysquid.mods.sodium.client.render.chunk.graph;
+
+import me.jellysquid.mods.sodium.client.render.chunk.RenderSection;
+import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkRenderData;
+import me.jellysquid.mods.sodium.common.util.DirectionUtil;
+import net.minecraft.client.render.chunk.ChunkOcclusionData;
+import net.minecraft.util.math.Direction;
+
+import java.util.Arrays;
+
+/**
+ * Dense storage for the visibility graph state of every section in a render region. Each section is identified by its
+ * index within the region, and its state is kept in flat arrays rather than in per-section objects, so that the graph
+ * search only needs to touch a handful of contiguous arrays for each region it walks through.
+ */
+public class ChunkGraphStorage {
+    private static final long DEFAULT_VISIBILITY_DATA = calculateVisibilityData(ChunkRenderData.EMPTY.getOcclusionData());
+
+    private final RenderSection[] sections;
+
+    private final long[] visibilityData;
+    private final byte[] cullingState;
+    private final int[] lastVisibleFrame;
+
+    private int count;
+
+    public ChunkGraphStorage(int size) {
+        this.sections = new RenderSection[size];
+
+        this.visibilityData = new long[size];
+        this.cullingState = new byte[size];
+        this.lastVisibleFrame = new int[size];
+
+        Arrays.fill(this.lastVisibleFrame, -1);
+    }
+
+    public void add(int index, RenderSection section) {
+        if (this.sections[index] != null) {
+            throw new IllegalStateException("Section " + section + " is already a member of the graph");
+        }
+
+        this.sections[index] = section;
+
+        this.visibilityData[index] = DEFAULT_VISIBILITY_DATA;
+        this.cullingState[index] = 0;
+        this.lastVisibleFrame[index] = -1;
+
+        this.count++;
+    }
+
+    public void remove(int index, RenderSection section) {
+        if (this.sections[index] != section) {
+            throw new IllegalStateException("Section " + section + " is not a member of the graph");
+        }
+
+        this.sections[index] = null;
+        this.count--;
+    }
+
+    public RenderSection getSection(int index) {
+        return this.sections[index];
+    }
+
+    public int getCount() {
+        return this.count;
+    }
+
+    public int getLastVisibleFrame(int index) {
+        return this.lastVisibleFrame[index];
+    }
+
+    public void setLastVisibleFrame(int index, int frame) {
+        this.lastVisibleFrame[index] = frame;
+    }
+
+    public long getVisibilityData(int index) {
+        return this.visibilityData[index];
+    }
+
+    /**
+     * @return True if the visibility data of the section has changed
+     */
+    public boolean setVisibilityData(int index, ChunkOcclusionData occlusionData) {
+        long prev = this.visibilityData[index];
+        long next = calculateVisibilityData(occlusionData);
+
+        this.visibilityData[index] = next;
+
+        return prev != next;
+    }
+
+    public byte getCullingState(int index) {
+        return this.cullingState[index];
+    }
+
+    public void setCullingState(int index, byte state) {
+        this.cullingState[index] = state;
+    }
+
+    private static long calculateVisibilityData(ChunkOcclusionData occlusionData) {
+        long visibilityData = 0;
+
+        for (Direction from : DirectionUtil.ALL_DIRECTIONS) {
+            for (Direction to : DirectionUtil.ALL_DIRECTIONS) {
+                if (occlusionData == null || occlusionData.isVisibleThrough(from, to)) {
+                    visibilityData |= (1L << ((from.ordinal() << 3) + to.ordinal()));
+                }
+            }
+        }
+
+        return visibilityData;
+    }
+}
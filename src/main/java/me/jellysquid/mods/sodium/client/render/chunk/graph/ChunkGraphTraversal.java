@@ -0,0 +1,277 @@
+package me.jellysquid.mods.sodium.client.render.chunk.graph;
+
+import me.jellysquid.mods.sodium.client.render.chunk.RenderSection;
+import me.jellysquid.mods.sodium.client.util.frustum.Frustum;
+import me.jellysquid.mods.sodium.common.util.DirectionUtil;
+import net.minecraft.util.math.Direction;
+
+import java.util.stream.IntStream;
+
+/**
+ * Searches the visibility graph of the loaded sections breadth-first, starting from one or more root sections. Only the
+ * graph itself is walked, so the search doesn't depend on the world or the graphics state, and anything which is done
+ * with the visited sections is left to a {@link Visitor}.
+ *
+ * A search either culls sections against a frustum, or collects every section which is reachable from the roots into
+ * the queue. In the latter case, the visitor is never called.
+ */
+public class ChunkGraphTraversal {
+    /**
+     * The minimum number of sections in a distance shell of the graph before its traversal will be split across
+     * multiple threads. Smaller shells are cheaper to process on the calling thread than to hand off.
+     */
+    public static final int PARALLEL_THRESHOLD = 512;
+
+    private final ChunkGraphIterationQueue queue = new ChunkGraphIterationQueue();
+    private RenderSection[] frontierCandidates = new RenderSection[0];
+
+    private final int renderDistance;
+    private final Visitor visitor;
+
+    private Frustum frustum;
+    private int stamp;
+
+    private boolean useOcclusionCulling;
+    private int centerChunkX, centerChunkZ;
+
+    public ChunkGraphTraversal(int renderDistance, Visitor visitor) {
+        this.renderDistance = renderDistance;
+        this.visitor = visitor;
+    }
+
+    /**
+     * Clears the queue and prepares a new search. Root sections must be added with {@link #addRoot(RenderSection)}
+     * before the search is started.
+     *
+     * @param frustum The frustum to cull sections against, or null if all reachable sections should be collected
+     * @param stamp The value to mark visited sections with, which must differ from the one used by the previous search
+     * @param useOcclusionCulling True if sections should only be visited through faces they can be seen through
+     * @param centerChunkX The X coordinate of the section the render distance is measured from
+     * @param centerChunkZ The Z coordinate of the section the render distance is measured from
+     */
+    public void begin(Frustum frustum, int stamp, boolean useOcclusionCulling, int centerChunkX, int centerChunkZ) {
+        this.frustum = frustum;
+        this.stamp = stamp;
+        this.useOcclusionCulling = useOcclusionCulling;
+        this.centerChunkX = centerChunkX;
+        this.centerChunkZ = centerChunkZ;
+
+        this.queue.clear();
+    }
+
+    /**
+     * Adds a section which the search will start from. Roots are visited in the order they are added, before any other
+     * section.
+     */
+    public void addRoot(RenderSection render) {
+        ChunkGraphInfo info = render.getGraphInfo();
+        info.resetCullingState();
+        info.setLastVisibleFrame(this.stamp);
+
+        this.addVisible(render, null);
+    }
+
+    /**
+     * Visits every section which can be reached from the roots.
+     *
+     * @param parallel True if large distance shells should be split across the common fork-join pool, which visits
+     *                 the same sections in the same order as a serial search
+     */
+    public void iterate(boolean parallel) {
+        ChunkGraphIterationQueue queue = this.queue;
+
+        // The queue is processed one distance shell at a time, where each shell is made up of every section which was
+        // enqueued while processing the previous shell. This visits sections in exactly the same order as a plain
+        // first-in-first-out traversal would.
+        int levelStart = 0;
+
+        while (levelStart < queue.size()) {
+            int levelEnd = queue.size();
+
+            if (parallel && (levelEnd - levelStart) >= PARALLEL_THRESHOLD) {
+                this.iterateLevelParallel(levelStart, levelEnd);
+            } else {
+                this.iterateLevel(levelStart, levelEnd);
+            }
+
+            levelStart = levelEnd;
+        }
+    }
+
+    /**
+     * @return The sections visited by the last search, in the order they were visited
+     */
+    public ChunkGraphIterationQueue getQueue() {
+        return this.queue;
+    }
+
+    private boolean isSearchingReachableOnly() {
+        return this.frustum == null;
+    }
+
+    private void iterateLevel(int start, int end) {
+        ChunkGraphIterationQueue queue = this.queue;
+
+        for (int i = start; i < end; i++) {
+            RenderSection section = queue.getRender(i);
+            Direction flow = queue.getDirection(i);
+
+            if (!this.isSearchingReachableOnly()) {
+                this.visitor.onSectionIterated(section);
+            }
+
+            for (Direction dir : DirectionUtil.ALL_DIRECTIONS) {
+                if (this.isCulled(section.getGraphInfo(), flow, dir)) {
+                    continue;
+                }
+
+                RenderSection adj = section.getAdjacent(dir);
+
+                if (adj != null && this.isWithinRenderDistance(adj)) {
+                    this.bfsEnqueue(section, adj, DirectionUtil.getOpposite(dir));
+                }
+            }
+        }
+    }
+
+    private void iterateLevelParallel(int start, int end) {
+        ChunkGraphIterationQueue queue = this.queue;
+
+        int count = end - start;
+        int stride = DirectionUtil.ALL_DIRECTIONS.length;
+
+        RenderSection[] candidates = this.getFrontierCandidates(count * stride);
+
+        // Determine which neighbors can be reached from each section in the shell. Nothing in the graph is modified here,
+        // so the (comparatively expensive) culling and frustum tests can be split across threads freely.
+        IntStream.range(0, count)
+                .parallel()
+                .forEach(i -> this.collectCandidates(queue.getRender(start + i), queue.getDirection(start + i), candidates, i * stride));
+
+        // Merge the results in the same order as the serial traversal, which keeps the produced lists deterministic
+        for (int i = 0; i < count; i++) {
+            RenderSection section = queue.getRender(start + i);
+
+            if (!this.isSearchingReachableOnly()) {
+                this.visitor.onSectionIterated(section);
+            }
+
+            for (Direction dir : DirectionUtil.ALL_DIRECTIONS) {
+                int index = (i * stride) + dir.ordinal();
+                RenderSection adj = candidates[index];
+
+                if (adj != null) {
+                    candidates[index] = null;
+
+                    if (adj.getGraphInfo().getLastVisibleFrame() != this.stamp) {
+                        this.markVisible(section, adj, DirectionUtil.getOpposite(dir));
+                    }
+                }
+            }
+        }
+    }
+
+    private void collectCandidates(RenderSection section, Direction flow, RenderSection[] candidates, int offset) {
+        for (Direction dir : DirectionUtil.ALL_DIRECTIONS) {
+            if (this.isCulled(section.getGraphInfo(), flow, dir)) {
+                continue;
+            }
+
+            RenderSection adj = section.getAdjacent(dir);
+
+            if (adj == null || !this.isWithinRenderDistance(adj)) {
+                continue;
+            }
+
+            // Sections visited in earlier shells can be rejected early, but sections visited in this shell will only
+            // be known once the results are merged
+            if (adj.getGraphInfo().getLastVisibleFrame() == this.stamp || !this.isReachableFrom(section, adj)) {
+                continue;
+            }
+
+            candidates[offset + dir.ordinal()] = adj;
+        }
+    }
+
+    private RenderSection[] getFrontierCandidates(int size) {
+        if (this.frontierCandidates.length < size) {
+            this.frontierCandidates = new RenderSection[Math.max(size, this.frontierCandidates.length * 2)];
+        }
+
+        return this.frontierCandidates;
+    }
+
+    private boolean isWithinRenderDistance(RenderSection adj) {
+        int x = Math.abs(adj.getChunkX() - this.centerChunkX);
+        int z = Math.abs(adj.getChunkZ() - this.centerChunkZ);
+
+        return x <= this.renderDistance && z <= this.renderDistance;
+    }
+
+    private boolean isCulled(ChunkGraphInfo node, Direction from, Direction to) {
+        if (node.canCull(to)) {
+            return true;
+        }
+
+        return this.useOcclusionCulling && from != null && !node.isVisibleThrough(from, to);
+    }
+
+    private void bfsEnqueue(RenderSection parent, RenderSection render, Direction flow) {
+        ChunkGraphInfo info = render.getGraphInfo();
+
+        if (info.getLastVisibleFrame() == this.stamp) {
+            return;
+        }
+
+        if (!this.isReachableFrom(parent, render)) {
+            return;
+        }
+
+        this.markVisible(parent, render, flow);
+    }
+
+    private boolean isReachableFrom(RenderSection parent, RenderSection render) {
+        if (this.isSearchingReachableOnly()) {
+            return true;
+        }
+
+        Frustum.Visibility parentVisibility = parent.getRegion().getVisibility();
+
+        if (parentVisibility == Frustum.Visibility.OUTSIDE) {
+            return false;
+        } else if (parentVisibility == Frustum.Visibility.INTERSECT && render.getGraphInfo().isCulledByFrustum(this.frustum)) {
+            return false;
+        }
+
+        return true;
+    }
+
+    private void markVisible(RenderSection parent, RenderSection render, Direction flow) {
+        ChunkGraphInfo info = render.getGraphInfo();
+        info.setLastVisibleFrame(this.stamp);
+        info.setCullingState(parent.getGraphInfo().getCullingState(), flow);
+
+        this.addVisible(render, flow);
+    }
+
+    private void addVisible(RenderSection render, Direction flow) {
+        this.queue.add(render, flow);
+
+        if (!this.isSearchingReachableOnly()) {
+            this.visitor.onSectionVisible(render);
+        }
+    }
+
+    public interface Visitor {
+        /**
+         * Called once for each section when it is first found to be visible, in the order the sections are visited.
+         */
+        void onSectionVisible(RenderSection section);
+
+        /**
+         * Called once for each visible section when the search moves on from it to its neighbors. This happens on the
+         * calling thread, even if the shell is searched in parallel.
+         */
+        void onSectionIterated(RenderSection section);
+    }
+}
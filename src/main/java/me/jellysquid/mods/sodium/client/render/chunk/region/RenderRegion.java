@@ -1,6 +1,5 @@
 package me.jellysquid.mods.sodium.client.render.chunk.region;
 
-import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import me.jellysquid.mods.sodium.client.SodiumClientMod;
 import me.jellysquid.mods.sodium.client.gl.arena.AsyncBufferArena;
 import me.jellysquid.mods.sodium.client.gl.arena.GlBufferArena;
@@ -10,15 +9,17 @@ import me.jellysquid.mods.sodium.client.gl.device.CommandList;
 import me.jellysquid.mods.sodium.client.gl.tessellation.GlTessellation;
 import me.jellysquid.mods.sodium.client.util.frustum.Frustum;
 import me.jellysquid.mods.sodium.client.render.chunk.RenderSection;
-import me.jellysquid.mods.sodium.client.render.chunk.format.ChunkModelVertexFormats;
+import me.jellysquid.mods.sodium.client.model.vertex.type.ChunkVertexType;
+import me.jellysquid.mods.sodium.client.render.chunk.graph.ChunkGraphStorage;
 import me.jellysquid.mods.sodium.client.render.chunk.passes.BlockRenderPass;
 import me.jellysquid.mods.sodium.client.util.MathUtil;
+import me.jellysquid.mods.sodium.common.util.DirectionUtil;
 import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.Direction;
 import org.apache.commons.lang3.Validate;
 
 import java.util.EnumMap;
 import java.util.Map;
-import java.util.Set;
 
 public class RenderRegion {
     public static final int REGION_WIDTH = 8;
@@ -45,7 +46,9 @@ public class RenderRegion {
 
     private final RenderRegionManager manager;
 
-    private final Set<RenderSection> chunks = new ObjectOpenHashSet<>();
+    private final ChunkGraphStorage graph = new ChunkGraphStorage(REGION_SIZE);
+    private final RenderRegion[] adjacent = new RenderRegion[DirectionUtil.ALL_DIRECTIONS.length];
+
     private RenderRegionArenas arenas;
 
     private final int x, y, z;
@@ -70,7 +73,11 @@ public class RenderRegion {
 
     public void deleteResources(CommandList commandList) {
         if (this.arenas != null) {
-            this.arenas.delete(commandList);
+            // Shared arenas are owned by the region manager and outlive any single region
+            if (!this.arenas.isShared()) {
+                this.arenas.delete(commandList);
+            }
+
             this.arenas = null;
         }
     }
@@ -79,6 +86,10 @@ public class RenderRegion {
         return ChunkSectionPos.asLong(x >> REGION_WIDTH_SH, y >> REGION_HEIGHT_SH, z >> REGION_LENGTH_SH);
     }
 
+    public long getKey() {
+        return ChunkSectionPos.asLong(this.x, this.y, this.z);
+    }
+
     public int getOriginX() {
         return this.x << REGION_WIDTH_SH << 4;
     }
@@ -102,23 +113,55 @@ public class RenderRegion {
     }
 
     public void addChunk(RenderSection chunk) {
-        if (!this.chunks.add(chunk)) {
-            throw new IllegalStateException("Chunk " + chunk + " is already a member of region " + this);
-        }
+        this.graph.add(chunk.getChunkId(), chunk);
     }
 
     public void removeChunk(RenderSection chunk) {
-        if (!this.chunks.remove(chunk)) {
-            throw new IllegalStateException("Chunk " + chunk + " is not a member of region " + this);
-        }
+        this.graph.remove(chunk.getChunkId(), chunk);
     }
 
     public boolean isEmpty() {
-        return this.chunks.isEmpty();
+        return this.graph.getCount() == 0;
     }
 
     public int getChunkCount() {
-        return this.chunks.size();
+        return this.graph.getCount();
+    }
+
+    public ChunkGraphStorage getGraph() {
+        return this.graph;
+    }
+
+    public void setAdjacentRegion(Direction dir, RenderRegion region) {
+        this.adjacent[dir.ordinal()] = region;
+    }
+
+    public RenderRegion getAdjacentRegion(Direction dir) {
+        return this.adjacent[dir.ordinal()];
+    }
+
+    /**
+     * Finds the section which neighbors the section at {@param index} in the given direction. The lookup only uses the
+     * position encoded in the index, and crosses into the neighboring region when the section lies on the border.
+     *
+     * @return The adjacent section, or null if it isn't loaded
+     */
+    public RenderSection getAdjacentSection(int index, Direction dir) {
+        int x = getChunkIndexX(index) + dir.getOffsetX();
+        int y = getChunkIndexY(index) + dir.getOffsetY();
+        int z = getChunkIndexZ(index) + dir.getOffsetZ();
+
+        RenderRegion region = this;
+
+        if ((x & ~REGION_WIDTH_M) != 0 || (y & ~REGION_HEIGHT_M) != 0 || (z & ~REGION_LENGTH_M) != 0) {
+            region = this.adjacent[dir.ordinal()];
+
+            if (region == null) {
+                return null;
+            }
+        }
+
+        return region.graph.getSection(getChunkIndex(x & REGION_WIDTH_M, y & REGION_HEIGHT_M, z & REGION_LENGTH_M));
     }
 
     public void updateVisibility(Frustum frustum) {
@@ -138,28 +181,67 @@ public class RenderRegion {
     }
 
     public static int getChunkIndex(int x, int y, int z) {
-        return (x * RenderRegion.REGION_LENGTH * RenderRegion.REGION_HEIGHT) + (y * RenderRegion.REGION_LENGTH) + z;
+        return (x << (REGION_HEIGHT_SH + REGION_LENGTH_SH)) | (y << REGION_LENGTH_SH) | z;
+    }
+
+    /**
+     * @return The x-coordinate of the chunk within its region, given its index from {@link #getChunkIndex(int, int, int)}
+     */
+    public static int getChunkIndexX(int index) {
+        return (index >> (REGION_HEIGHT_SH + REGION_LENGTH_SH)) & REGION_WIDTH_M;
+    }
+
+    /**
+     * @return The y-coordinate of the chunk within its region, given its index from {@link #getChunkIndex(int, int, int)}
+     */
+    public static int getChunkIndexY(int index) {
+        return (index >> REGION_LENGTH_SH) & REGION_HEIGHT_M;
+    }
+
+    /**
+     * @return The z-coordinate of the chunk within its region, given its index from {@link #getChunkIndex(int, int, int)}
+     */
+    public static int getChunkIndexZ(int index) {
+        return index & REGION_LENGTH_M;
     }
 
     public static class RenderRegionArenas {
+        /**
+         * The number of regions which the arenas shared by every region are initially sized for.
+         */
+        public static final int SHARED_REGION_COUNT = 16;
+
+        /**
+         * The factor by which the arenas shared by every region grow. Growing by a fixed increment would re-allocate
+         * and copy the entire shared arena every time it fills up, which happens constantly while the world loads.
+         */
+        private static final float SHARED_GROWTH_FACTOR = 1.5f;
+
         public final GlBufferArena vertexBuffers;
-        public final GlBufferArena indexBuffers;
 
         public final Map<BlockRenderPass, GlTessellation> tessellations = new EnumMap<>(BlockRenderPass.class);
 
-        public RenderRegionArenas(CommandList commandList, StagingBuffer stagingBuffer) {
-            int expectedVertexCount = REGION_SIZE * 756;
-            int expectedIndexCount = (expectedVertexCount / 4) * 6;
+        private final boolean shared;
+
+        /**
+         * @param shared True if these arenas will hold the geometry of every region, rather than a single one
+         */
+        public RenderRegionArenas(CommandList commandList, StagingBuffer stagingBuffer, ChunkVertexType vertexType, boolean shared) {
+            int expectedVertexCount = REGION_SIZE * 756 * (shared ? SHARED_REGION_COUNT : 1);
+
+            this.vertexBuffers = createArena(commandList, expectedVertexCount * vertexType.getBufferVertexFormat().getStride(),
+                    shared ? SHARED_GROWTH_FACTOR : 1.0f, stagingBuffer);
+            this.shared = shared;
+        }
 
-            this.vertexBuffers = createArena(commandList, expectedVertexCount * ChunkModelVertexFormats.DEFAULT.getBufferVertexFormat().getStride(), stagingBuffer);
-            this.indexBuffers = createArena(commandList, expectedIndexCount * 4, stagingBuffer);
+        public boolean isShared() {
+            return this.shared;
         }
 
         public void delete(CommandList commandList) {
             this.deleteTessellations(commandList);
 
             this.vertexBuffers.delete(commandList);
-            this.indexBuffers.delete(commandList);
         }
 
         public void deleteTessellations(CommandList commandList) {
@@ -179,20 +261,20 @@ public class RenderRegion {
         }
 
         public boolean isEmpty() {
-            return this.vertexBuffers.isEmpty() && this.indexBuffers.isEmpty();
+            return this.vertexBuffers.isEmpty();
         }
 
         public long getDeviceUsedMemory() {
-            return this.vertexBuffers.getDeviceUsedMemory() + this.indexBuffers.getDeviceUsedMemory();
+            return this.vertexBuffers.getDeviceUsedMemory();
         }
 
         public long getDeviceAllocatedMemory() {
-            return this.vertexBuffers.getDeviceAllocatedMemory() + this.indexBuffers.getDeviceAllocatedMemory();
+            return this.vertexBuffers.getDeviceAllocatedMemory();
         }
 
-        private static GlBufferArena createArena(CommandList commandList, int initialCapacity, StagingBuffer stagingBuffer) {
+        private static GlBufferArena createArena(CommandList commandList, int initialCapacity, float growthFactor, StagingBuffer stagingBuffer) {
             return switch (SodiumClientMod.options().advanced.arenaMemoryAllocator) {
-                case ASYNC -> new AsyncBufferArena(commandList, initialCapacity, stagingBuffer);
+                case ASYNC, GLOBAL -> new AsyncBufferArena(commandList, initialCapacity, growthFactor, stagingBuffer);
                 case SWAP -> new SwapBufferArena(commandList);
             };
         }
@@ -3,29 +3,46 @@ package me.jellysquid.mods.sodium.client.render.chunk.region;
 import it.unimi.dsi.fastutil.longs.Long2ReferenceOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Reference2ObjectLinkedOpenHashMap;
 import me.jellysquid.mods.sodium.client.SodiumClientMod;
+import me.jellysquid.mods.sodium.client.gui.SodiumGameOptions;
 import me.jellysquid.mods.sodium.client.gl.arena.PendingUpload;
 import me.jellysquid.mods.sodium.client.gl.arena.staging.FallbackStagingBuffer;
 import me.jellysquid.mods.sodium.client.gl.arena.staging.MappedStagingBuffer;
 import me.jellysquid.mods.sodium.client.gl.arena.staging.StagingBuffer;
-import me.jellysquid.mods.sodium.client.gl.buffer.IndexedVertexData;
+import me.jellysquid.mods.sodium.client.gl.buffer.VertexData;
 import me.jellysquid.mods.sodium.client.gl.device.CommandList;
 import me.jellysquid.mods.sodium.client.gl.device.RenderDevice;
+import me.jellysquid.mods.sodium.client.model.vertex.type.ChunkVertexType;
 import me.jellysquid.mods.sodium.client.util.frustum.Frustum;
 import me.jellysquid.mods.sodium.client.render.chunk.ChunkGraphicsState;
 import me.jellysquid.mods.sodium.client.render.chunk.RenderSection;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkBuildResult;
 import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkMeshData;
 import me.jellysquid.mods.sodium.client.render.chunk.passes.BlockRenderPass;
+import me.jellysquid.mods.sodium.common.util.DirectionUtil;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.Direction;
 
 import java.util.*;
 
 public class RenderRegionManager {
+    /**
+     * The maximum number of bytes which can be moved by arena compaction each frame, across all regions.
+     */
+    private static final int COMPACTION_BUDGET_BYTES = 512 * 1024;
+
     private final Long2ReferenceOpenHashMap<RenderRegion> regions = new Long2ReferenceOpenHashMap<>();
 
     private final StagingBuffer stagingBuffer;
+    private final ChunkVertexType vertexType;
+
+    private long reclaimedBytes;
 
-    public RenderRegionManager(CommandList commandList) {
+    // The arenas used by every region when the global allocator is selected, otherwise null
+    private RenderRegion.RenderRegionArenas sharedArenas;
+
+    public RenderRegionManager(CommandList commandList, ChunkVertexType vertexType) {
         this.stagingBuffer = createStagingBuffer(commandList);
+        this.vertexType = vertexType;
     }
 
     public void updateVisibility(Frustum frustum) {
@@ -37,9 +54,9 @@ public class RenderRegionManager {
     }
 
     public void cleanup() {
-        this.stagingBuffer.flip();
-
         try (CommandList commandList = RenderDevice.INSTANCE.createCommandList()) {
+            this.stagingBuffer.flip(commandList);
+
             Iterator<RenderRegion> it = this.regions.values()
                     .iterator();
 
@@ -50,11 +67,91 @@ public class RenderRegionManager {
                     region.deleteResources(commandList);
 
                     it.remove();
+
+                    this.disconnectAdjacentRegions(region);
                 }
             }
         }
     }
 
+    /**
+     * Spends a small amount of time each frame moving geometry within the arenas of fragmented regions, so that they
+     * rarely need to be compacted all at once when an upload doesn't fit.
+     */
+    public void compact(CommandList commandList) {
+        int budget = COMPACTION_BUDGET_BYTES;
+
+        for (RenderRegion.RenderRegionArenas arenas : this.getAllArenas()) {
+            budget -= arenas.vertexBuffers.compact(commandList, budget);
+
+            if (budget <= 0) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Shrinks the arenas of regions which have been mostly empty for some time, such as after dense terrain has been
+     * unloaded, so that their peak allocation isn't kept forever.
+     */
+    public void trim(CommandList commandList) {
+        for (RenderRegion.RenderRegionArenas arenas : this.getAllArenas()) {
+            this.onArenaShrunk(commandList, arenas, arenas.vertexBuffers.trim(commandList));
+        }
+    }
+
+    /**
+     * Releases the free storage of those given arenas which have enough of it to be worth shrinking, such as after
+     * geometry has been evicted from them to stay within a memory budget.
+     */
+    public void shrink(CommandList commandList, Collection<RenderRegion.RenderRegionArenas> arenas) {
+        for (RenderRegion.RenderRegionArenas arena : arenas) {
+            this.onArenaShrunk(commandList, arena, arena.vertexBuffers.shrink(commandList));
+        }
+    }
+
+    private void onArenaShrunk(CommandList commandList, RenderRegion.RenderRegionArenas arenas, int reclaimed) {
+        if (reclaimed > 0) {
+            // The arena's buffer object was replaced, so the tessellations need to be re-created
+            arenas.deleteTessellations(commandList);
+
+            this.reclaimedBytes += reclaimed;
+        }
+    }
+
+    /**
+     * @return The total number of bytes of device memory which have been released by shrinking arenas
+     */
+    public long getReclaimedBytes() {
+        return this.reclaimedBytes;
+    }
+
+    /**
+     * @return The number of bytes used by the geometry of all regions in graphics memory
+     */
+    public long getDeviceUsedMemory() {
+        long used = 0;
+
+        for (RenderRegion.RenderRegionArenas arenas : this.getAllArenas()) {
+            used += arenas.getDeviceUsedMemory();
+        }
+
+        return used;
+    }
+
+    /**
+     * @return The number of bytes of graphics memory which are allocated by the arenas of all regions
+     */
+    public long getDeviceAllocatedMemory() {
+        long allocated = 0;
+
+        for (RenderRegion.RenderRegionArenas arenas : this.getAllArenas()) {
+            allocated += arenas.getDeviceAllocatedMemory();
+        }
+
+        return allocated;
+    }
+
     public void upload(CommandList commandList, Iterator<ChunkBuildResult> queue) {
         for (Map.Entry<RenderRegion, List<ChunkBuildResult>> entry : this.setupUploadBatches(queue).entrySet()) {
             RenderRegion region = entry.getKey();
@@ -86,11 +183,10 @@ public class RenderRegionManager {
                 ChunkMeshData meshData = result.getMesh(pass);
 
                 if (meshData != null) {
-                    IndexedVertexData vertexData = meshData.getVertexData();
+                    VertexData vertexData = meshData.getVertexData();
 
                     sectionUploads.add(new PendingSectionUpload(result.render, meshData, pass,
-                            new PendingUpload(vertexData.vertexBuffer()),
-                            new PendingUpload(vertexData.indexBuffer())));
+                            new PendingUpload(vertexData.vertexBuffers())));
                 }
             }
         }
@@ -103,7 +199,6 @@ public class RenderRegionManager {
         RenderRegion.RenderRegionArenas arenas = region.getOrCreateArenas(commandList);
 
         boolean bufferChanged = arenas.vertexBuffers.upload(commandList, sectionUploads.stream().map(i -> i.vertexUpload));
-        bufferChanged |= arenas.indexBuffers.upload(commandList, sectionUploads.stream().map(i -> i.indicesUpload));
 
         // If any of the buffers changed, the tessellation will need to be updated
         // Once invalidated the tessellation will be re-created on the next attempted use
@@ -113,7 +208,7 @@ public class RenderRegionManager {
 
         // Collect the upload results
         for (PendingSectionUpload upload : sectionUploads) {
-            upload.section.setGraphicsState(upload.pass, new ChunkGraphicsState(upload.vertexUpload.getResult(), upload.indicesUpload.getResult(), upload.meshData));
+            upload.section.setGraphicsState(upload.pass, new ChunkGraphicsState(upload.vertexUpload.getResult(), upload.meshData));
         }
     }
 
@@ -152,17 +247,47 @@ public class RenderRegionManager {
 
         if (region == null) {
             this.regions.put(key, region = RenderRegion.createRegionForChunk(this, x, y, z));
+
+            this.connectAdjacentRegions(region);
         }
 
         return region;
     }
 
+    private void connectAdjacentRegions(RenderRegion region) {
+        for (Direction dir : DirectionUtil.ALL_DIRECTIONS) {
+            RenderRegion adj = this.regions.get(ChunkSectionPos.offset(region.getKey(), dir));
+
+            if (adj != null) {
+                adj.setAdjacentRegion(DirectionUtil.getOpposite(dir), region);
+                region.setAdjacentRegion(dir, adj);
+            }
+        }
+    }
+
+    private void disconnectAdjacentRegions(RenderRegion region) {
+        for (Direction dir : DirectionUtil.ALL_DIRECTIONS) {
+            RenderRegion adj = region.getAdjacentRegion(dir);
+
+            if (adj != null) {
+                adj.setAdjacentRegion(DirectionUtil.getOpposite(dir), null);
+                region.setAdjacentRegion(dir, null);
+            }
+        }
+    }
+
     public void delete(CommandList commandList) {
         for (RenderRegion region : this.regions.values()) {
             region.deleteResources(commandList);
         }
 
         this.regions.clear();
+
+        if (this.sharedArenas != null) {
+            this.sharedArenas.delete(commandList);
+            this.sharedArenas = null;
+        }
+
         this.stagingBuffer.delete(commandList);
     }
 
@@ -170,12 +295,42 @@ public class RenderRegionManager {
         return this.regions.values();
     }
 
+    /**
+     * @return Every distinct set of arenas which is currently allocated, which is only the shared arenas if the global
+     * allocator is used
+     */
+    public Collection<RenderRegion.RenderRegionArenas> getAllArenas() {
+        if (this.sharedArenas != null) {
+            return List.of(this.sharedArenas);
+        }
+
+        List<RenderRegion.RenderRegionArenas> list = new ArrayList<>();
+
+        for (RenderRegion region : this.regions.values()) {
+            RenderRegion.RenderRegionArenas arenas = region.getArenas();
+
+            if (arenas != null) {
+                list.add(arenas);
+            }
+        }
+
+        return list;
+    }
+
     public StagingBuffer getStagingBuffer() {
         return this.stagingBuffer;
     }
 
     protected RenderRegion.RenderRegionArenas createRegionArenas(CommandList commandList) {
-        return new RenderRegion.RenderRegionArenas(commandList, this.stagingBuffer);
+        if (SodiumClientMod.options().advanced.arenaMemoryAllocator == SodiumGameOptions.ArenaMemoryAllocator.GLOBAL) {
+            if (this.sharedArenas == null) {
+                this.sharedArenas = new RenderRegion.RenderRegionArenas(commandList, this.stagingBuffer, this.vertexType, true);
+            }
+
+            return this.sharedArenas;
+        }
+
+        return new RenderRegion.RenderRegionArenas(commandList, this.stagingBuffer, this.vertexType, false);
     }
 
     private static StagingBuffer createStagingBuffer(CommandList commandList) {
@@ -187,6 +342,6 @@ public class RenderRegionManager {
     }
 
     private record PendingSectionUpload(RenderSection section, ChunkMeshData meshData, BlockRenderPass pass,
-                                        PendingUpload vertexUpload, PendingUpload indicesUpload) {
+                                        PendingUpload vertexUpload) {
     }
 }
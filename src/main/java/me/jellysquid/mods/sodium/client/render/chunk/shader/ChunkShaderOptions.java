@@ -4,7 +4,7 @@ import me.jellysquid.mods.sodium.client.gl.shader.ShaderConstants;
 import me.jellysquid.mods.sodium.client.model.vertex.type.ChunkVertexType;
 import me.jellysquid.mods.sodium.client.render.chunk.passes.BlockRenderPass;
 
-public record ChunkShaderOptions(ChunkFogMode fog, BlockRenderPass pass, ChunkVertexType vertexType) {
+public record ChunkShaderOptions(ChunkFogMode fog, BlockRenderPass pass, ChunkVertexType vertexType, boolean greedyMeshing) {
     public ShaderConstants constants() {
         ShaderConstants.Builder constants = ShaderConstants.builder();
         constants.addAll(this.fog.getDefines());
@@ -17,6 +17,11 @@ public record ChunkShaderOptions(ChunkFogMode fog, BlockRenderPass pass, ChunkVe
         constants.add("VERT_POS_SCALE", String.valueOf(this.vertexType.getPositionScale()));
         constants.add("VERT_POS_OFFSET", String.valueOf(this.vertexType.getPositionOffset()));
         constants.add("VERT_TEX_SCALE", String.valueOf(this.vertexType.getTextureScale()));
+        constants.addAll(this.vertexType.getDefines());
+
+        if (this.greedyMeshing) {
+            constants.add("USE_GREEDY_MESHING");
+        }
 
         return constants.build();
     }
@@ -1,6 +1,7 @@
 package me.jellysquid.mods.sodium.client.render.chunk.tasks;
 
 import me.jellysquid.mods.sodium.client.gl.compile.ChunkBuildContext;
+import me.jellysquid.mods.sodium.client.render.chunk.RenderSection;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkBuildResult;
 import me.jellysquid.mods.sodium.client.util.task.CancellationSource;
 
@@ -15,6 +16,19 @@ import me.jellysquid.mods.sodium.client.util.task.CancellationSource;
  * on the main thread.
  */
 public abstract class ChunkRenderBuildTask {
+    protected final RenderSection render;
+
+    protected ChunkRenderBuildTask(RenderSection render) {
+        this.render = render;
+    }
+
+    /**
+     * @return The section which this task is building
+     */
+    public RenderSection getRender() {
+        return this.render;
+    }
+
     /**
      * Executes the given build task asynchronously from the calling thread. The implementation should be careful not
      * to access or modify global mutable state.
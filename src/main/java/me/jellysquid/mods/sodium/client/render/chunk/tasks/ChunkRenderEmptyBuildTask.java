@@ -15,11 +15,11 @@ import java.util.Collections;
  * synchronously update the render's data to an empty state to speed things along.
  */
 public class ChunkRenderEmptyBuildTask extends ChunkRenderBuildTask {
-    private final RenderSection render;
     private final int frame;
 
     public ChunkRenderEmptyBuildTask(RenderSection render, int frame) {
-        this.render = render;
+        super(render);
+
         this.frame = frame;
     }
 
@@ -2,22 +2,21 @@ package me.jellysquid.mods.sodium.client.render.chunk.tasks;
 
 import me.jellysquid.mods.sodium.client.gl.compile.ChunkBuildContext;
 import me.jellysquid.mods.sodium.client.render.chunk.RenderSection;
+import me.jellysquid.mods.sodium.client.render.chunk.compile.BlockRenderTable;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkBuildBuffers;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkBuildResult;
 import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkMeshData;
 import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkRenderBounds;
 import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkRenderData;
 import me.jellysquid.mods.sodium.client.render.chunk.passes.BlockRenderPass;
+import me.jellysquid.mods.sodium.client.render.occlusion.SectionOcclusionMask;
 import me.jellysquid.mods.sodium.client.render.pipeline.context.ChunkRenderCacheLocal;
 import me.jellysquid.mods.sodium.client.util.task.CancellationSource;
 import me.jellysquid.mods.sodium.client.world.WorldSlice;
 import me.jellysquid.mods.sodium.client.world.cloned.ChunkRenderContext;
-import net.minecraft.block.BlockRenderType;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.client.MinecraftClient;
-import net.minecraft.client.render.RenderLayer;
-import net.minecraft.client.render.RenderLayers;
 import net.minecraft.client.render.block.entity.BlockEntityRenderer;
 import net.minecraft.client.render.chunk.ChunkOcclusionDataBuilder;
 import net.minecraft.client.render.model.BakedModel;
@@ -35,12 +34,12 @@ import java.util.Map;
  * array allocations, they are pooled to ensure that the garbage collector doesn't become overloaded.
  */
 public class ChunkRenderRebuildTask extends ChunkRenderBuildTask {
-    private final RenderSection render;
     private final ChunkRenderContext renderContext;
     private final int frame;
 
     public ChunkRenderRebuildTask(RenderSection render, ChunkRenderContext renderContext, int frame) {
-        this.render = render;
+        super(render);
+
         this.renderContext = renderContext;
         this.frame = frame;
     }
@@ -70,16 +69,28 @@ public class ChunkRenderRebuildTask extends ChunkRenderBuildTask {
         BlockPos.Mutable blockPos = new BlockPos.Mutable();
         BlockPos.Mutable offset = new BlockPos.Mutable();
 
+        // Classify the blocks of the section up-front, so that faces between opaque blocks can be culled without
+        // comparing their shapes, and blocks which are completely buried don't need their models to be rendered at all
+        BlockRenderTable table = buildContext.blockRenderTable;
+
+        SectionOcclusionMask occlusionMask = cache.getOcclusionMask();
+        occlusionMask.init(slice, table, minX, minY, minZ);
+
         for (int y = minY; y < maxY; y++) {
             if (cancellationSource.isCancelled()) {
                 return null;
             }
 
             for (int z = minZ; z < maxZ; z++) {
+                int buried = occlusionMask.getBuriedBlocks(y & 15, z & 15);
+
                 for (int x = minX; x < maxX; x++) {
                     BlockState blockState = slice.getBlockState(x, y, z);
 
-                    if (blockState.isAir()) {
+                    int stateId = table.getStateId(blockState);
+                    int flags = table.getFlags(stateId);
+
+                    if ((flags & BlockRenderTable.FLAG_AIR) != 0) {
                         continue;
                     }
 
@@ -87,31 +98,42 @@ public class ChunkRenderRebuildTask extends ChunkRenderBuildTask {
                     offset.set(x & 15, y & 15, z & 15);
 
                     boolean rendered = false;
+                    boolean opaque = occlusionMask.isOpaque(x & 15, y & 15, z & 15);
+
+                    int blockPass = table.getBlockPass(stateId);
+                    int fluidPass = table.getFluidPass(stateId);
 
-                    if (blockState.getRenderType() == BlockRenderType.MODEL) {
-                        RenderLayer layer = RenderLayers.getBlockLayer(blockState);
+                    if ((buried & (1 << (x & 15))) != 0 && (flags & BlockRenderTable.FLAG_HAS_BLOCK_ENTITY) == 0 && fluidPass < 0) {
+                        // None of the faces of the block can be seen, so only its occlusion needs to be recorded
+                        occluder.markClosed(blockPos);
+
+                        continue;
+                    }
 
-                        BakedModel model = cache.getBlockModels()
-                                .getModel(blockState);
+                    if (blockPass >= 0) {
+                        BakedModel model = table.getModel(stateId);
 
                         long seed = blockState.getRenderingSeed(blockPos);
 
-                        if (cache.getBlockRenderer().renderModel(slice, blockState, blockPos, offset, model, buffers.get(layer), true, seed)) {
+                        // Faces between two opaque full cubes are always hidden, and faces next to air are always visible
+                        int hiddenFaces = opaque ? occlusionMask.getOpaqueNeighbors(x & 15, y & 15, z & 15) : 0;
+                        int visibleFaces = occlusionMask.getAirNeighbors(x & 15, y & 15, z & 15);
+
+                        if (cache.getBlockRenderer().renderModel(slice, blockState, blockPos, offset, model, buffers.get(blockPass), true, seed,
+                                table.getModelQuads(stateId), hiddenFaces, visibleFaces)) {
                             rendered = true;
                         }
                     }
 
-                    FluidState fluidState = blockState.getFluidState();
-
-                    if (!fluidState.isEmpty()) {
-                        RenderLayer layer = RenderLayers.getFluidLayer(fluidState);
+                    if (fluidPass >= 0) {
+                        FluidState fluidState = blockState.getFluidState();
 
-                        if (cache.getFluidRenderer().render(slice, fluidState, blockPos, offset, buffers.get(layer))) {
+                        if (cache.getFluidRenderer().render(slice, fluidState, blockPos, offset, buffers.get(fluidPass))) {
                             rendered = true;
                         }
                     }
 
-                    if (blockState.hasBlockEntity()) {
+                    if ((flags & BlockRenderTable.FLAG_HAS_BLOCK_ENTITY) != 0) {
                         BlockEntity entity = slice.getBlockEntity(blockPos);
 
                         if (entity != null) {
@@ -124,7 +146,7 @@ public class ChunkRenderRebuildTask extends ChunkRenderBuildTask {
                         }
                     }
 
-                    if (blockState.isOpaqueFullCube(slice, blockPos)) {
+                    if (opaque || table.isOpaqueFullCube(stateId, blockState, slice, blockPos)) {
                         occluder.markClosed(blockPos);
                     }
 
@@ -1,9 +1,7 @@
 package me.jellysquid.mods.sodium.client.render.occlusion;
 
-import it.unimi.dsi.fastutil.objects.Object2ByteLinkedOpenHashMap;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.SideShapeType;
-import net.minecraft.util.function.BooleanBiFunction;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
 import net.minecraft.util.shape.VoxelShape;
@@ -11,15 +9,15 @@ import net.minecraft.util.shape.VoxelShapes;
 import net.minecraft.world.BlockView;
 
 public class BlockOcclusionCache {
-    private static final byte UNCACHED_VALUE = (byte) 127;
-
-    private final Object2ByteLinkedOpenHashMap<CachedOcclusionShapeTest> map;
-    private final CachedOcclusionShapeTest cachedTest = new CachedOcclusionShapeTest();
+    private final OcclusionShapeCache shapeCache;
     private final BlockPos.Mutable cpos = new BlockPos.Mutable();
 
     public BlockOcclusionCache() {
-        this.map = new Object2ByteLinkedOpenHashMap<>(2048, 0.5F);
-        this.map.defaultReturnValue(UNCACHED_VALUE);
+        this(OcclusionShapeCache.INSTANCE);
+    }
+
+    public BlockOcclusionCache(OcclusionShapeCache shapeCache) {
+        this.shapeCache = shapeCache;
     }
 
     /**
@@ -54,73 +52,9 @@ public class BlockOcclusionCache {
                 }
             }
 
-            return this.calculate(selfShape, adjShape);
+            return this.shapeCache.isFaceVisible(selfShape, adjShape);
         } else {
             return true;
         }
     }
-
-    private boolean calculate(VoxelShape selfShape, VoxelShape adjShape) {
-        CachedOcclusionShapeTest cache = this.cachedTest;
-        cache.a = selfShape;
-        cache.b = adjShape;
-        cache.updateHash();
-
-        byte cached = this.map.getByte(cache);
-
-        if (cached != UNCACHED_VALUE) {
-            return cached == 1;
-        }
-
-        boolean ret = VoxelShapes.matchesAnywhere(selfShape, adjShape, BooleanBiFunction.ONLY_FIRST);
-
-        this.map.put(cache.copy(), (byte) (ret ? 1 : 0));
-
-        if (this.map.size() > 2048) {
-            this.map.removeLastByte();
-        }
-
-        return ret;
-    }
-
-    private static final class CachedOcclusionShapeTest {
-        private VoxelShape a, b;
-        private int hashCode;
-
-        private CachedOcclusionShapeTest() {
-
-        }
-
-        private CachedOcclusionShapeTest(VoxelShape a, VoxelShape b, int hashCode) {
-            this.a = a;
-            this.b = b;
-            this.hashCode = hashCode;
-        }
-
-        public void updateHash() {
-            int result = System.identityHashCode(this.a);
-            result = 31 * result + System.identityHashCode(this.b);
-
-            this.hashCode = result;
-        }
-
-        public CachedOcclusionShapeTest copy() {
-            return new CachedOcclusionShapeTest(this.a, this.b, this.hashCode);
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (o instanceof CachedOcclusionShapeTest that) {
-                return this.a == that.a &&
-                        this.b == that.b;
-            }
-
-            return false;
-        }
-
-        @Override
-        public int hashCode() {
-            return this.hashCode;
-        }
-    }
 }
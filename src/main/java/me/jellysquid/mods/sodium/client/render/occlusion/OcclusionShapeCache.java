@@ -0,0 +1,123 @@
+package me.jellysquid.mods.sodium.client.render.occlusion;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import net.minecraft.util.function.BooleanBiFunction;
+import net.minecraft.util.shape.VoxelShape;
+import net.minecraft.util.shape.VoxelShapes;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size cache of face occlusion tests between pairs of shapes, which is shared by all chunk builder threads so
+ * that each result only needs to be computed once. Shapes are compared by identity, as the shapes of each block state
+ * are created once and re-used.
+ *
+ * Every slot holds an immutable entry, so lookups never need to lock. Two threads which compute the same result at
+ * once will both store it, and colliding entries simply replace each other, which bounds the memory used by the cache
+ * regardless of how many different shapes exist.
+ */
+public class OcclusionShapeCache {
+    public static final OcclusionShapeCache INSTANCE = new OcclusionShapeCache(16384);
+
+    private final AtomicReferenceArray<Entry> entries;
+    private final int mask;
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public OcclusionShapeCache(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two");
+        }
+
+        this.entries = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @return True if any part of the face of {@param selfShape} is not covered by {@param adjShape}
+     */
+    public boolean isFaceVisible(VoxelShape selfShape, VoxelShape adjShape) {
+        int hash = HashCommon.mix((31 * System.identityHashCode(selfShape)) + System.identityHashCode(adjShape));
+
+        // Each key can be stored in one of two neighboring slots, which makes collisions between common pairs rarer
+        int slot = hash & this.mask;
+        int altSlot = slot ^ 1;
+
+        Entry entry = this.entries.getAcquire(slot);
+
+        if (entry == null || !entry.matches(selfShape, adjShape)) {
+            Entry alt = this.entries.getAcquire(altSlot);
+
+            if (alt != null && alt.matches(selfShape, adjShape)) {
+                entry = alt;
+            } else {
+                entry = null;
+            }
+        }
+
+        if (entry != null) {
+            this.hits.increment();
+
+            return entry.visible;
+        }
+
+        this.misses.increment();
+
+        boolean visible = VoxelShapes.matchesAnywhere(selfShape, adjShape, BooleanBiFunction.ONLY_FIRST);
+        this.store(slot, altSlot, new Entry(selfShape, adjShape, visible));
+
+        return visible;
+    }
+
+    private void store(int slot, int altSlot, Entry entry) {
+        // Prefer an empty slot, and otherwise replace the entry in the primary slot
+        if (this.entries.compareAndSet(slot, null, entry) || this.entries.compareAndSet(altSlot, null, entry)) {
+            this.size.incrementAndGet();
+        } else {
+            this.entries.setRelease(slot, entry);
+        }
+    }
+
+    /**
+     * Removes every entry from the cache and resets its statistics. This should be called when the shapes of block
+     * states may have been replaced, such as after resources have been reloaded.
+     */
+    public void clear() {
+        for (int i = 0; i < this.entries.length(); i++) {
+            this.entries.set(i, null);
+        }
+
+        this.size.set(0);
+
+        this.hits.reset();
+        this.misses.reset();
+    }
+
+    /**
+     * @return The number of entries in the cache
+     */
+    public int size() {
+        return this.size.get();
+    }
+
+    /**
+     * @return The fraction of lookups which were answered by the cache since it was last cleared
+     */
+    public double getHitRate() {
+        long hits = this.hits.sum();
+        long total = hits + this.misses.sum();
+
+        return total == 0 ? 0.0D : (double) hits / (double) total;
+    }
+
+    private record Entry(VoxelShape selfShape, VoxelShape adjShape, boolean visible) {
+        private boolean matches(VoxelShape selfShape, VoxelShape adjShape) {
+            return this.selfShape == selfShape && this.adjShape == adjShape;
+        }
+    }
+}
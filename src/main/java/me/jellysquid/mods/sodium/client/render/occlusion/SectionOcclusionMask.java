@@ -0,0 +1,116 @@
+package me.jellysquid.mods.sodium.client.render.occlusion;
+
+import me.jellysquid.mods.sodium.client.render.chunk.compile.BlockRenderTable;
+import me.jellysquid.mods.sodium.client.world.WorldSlice;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+
+import java.util.Arrays;
+
+/**
+ * Classifies every block of a chunk section and its direct neighbors as either air, an opaque full cube, or anything
+ * else. Each row of blocks along the x-axis is stored as the bits of a long, which allows the faces of a block that are
+ * trivially hidden or exposed to be found with a handful of bit operations instead of comparing the shapes of each
+ * neighbor.
+ *
+ * Positions are relative to the origin of the section, and range from -1 to 16 on every axis.
+ */
+public class SectionOcclusionMask {
+    private static final int SIZE = 18;
+
+    private final long[] opaque = new long[SIZE * SIZE];
+    private final long[] air = new long[SIZE * SIZE];
+
+    private final BlockPos.Mutable pos = new BlockPos.Mutable();
+
+    public void init(WorldSlice slice, BlockRenderTable table, int originX, int originY, int originZ) {
+        Arrays.fill(this.opaque, 0L);
+        Arrays.fill(this.air, 0L);
+
+        BlockPos.Mutable pos = this.pos;
+
+        for (int y = -1; y <= 16; y++) {
+            for (int z = -1; z <= 16; z++) {
+                int row = getRowIndex(y, z);
+
+                long opaque = 0L;
+                long air = 0L;
+
+                for (int x = -1; x <= 16; x++) {
+                    BlockState state = slice.getBlockState(originX + x, originY + y, originZ + z);
+
+                    int id = table.getStateId(state);
+                    int flags = table.getFlags(id);
+
+                    if ((flags & BlockRenderTable.FLAG_AIR) != 0) {
+                        air |= 1L << (x + 1);
+                    } else if ((flags & BlockRenderTable.FLAG_OPAQUE) != 0 &&
+                            table.isOpaqueFullCube(id, state, slice, pos.set(originX + x, originY + y, originZ + z))) {
+                        opaque |= 1L << (x + 1);
+                    }
+                }
+
+                this.opaque[row] = opaque;
+                this.air[row] = air;
+            }
+        }
+    }
+
+    /**
+     * @return True if the block at the given position is an opaque full cube
+     */
+    public boolean isOpaque(int x, int y, int z) {
+        return (this.opaque[getRowIndex(y, z)] & (1L << (x + 1))) != 0L;
+    }
+
+    /**
+     * Returns the blocks in a row of the section which are opaque full cubes and are surrounded by opaque full cubes on
+     * every side, meaning that none of their faces can be seen.
+     *
+     * @return A bit mask where bit {@code x} is set if the block at that position is buried, for {@code x} from 0 to 15
+     */
+    public int getBuriedBlocks(int y, int z) {
+        int row = getRowIndex(y, z);
+        long self = this.opaque[row];
+
+        long mask = self & (self << 1) & (self >>> 1) &
+                this.opaque[row + SIZE] & this.opaque[row - SIZE] &
+                this.opaque[row + 1] & this.opaque[row - 1];
+
+        return (int) (mask >>> 1) & 0xFFFF;
+    }
+
+    /**
+     * @return A bit mask of the directions (by ordinal) in which the neighbor of the given block is an opaque full cube
+     */
+    public int getOpaqueNeighbors(int x, int y, int z) {
+        return getNeighbors(this.opaque, x, y, z);
+    }
+
+    /**
+     * @return A bit mask of the directions (by ordinal) in which the neighbor of the given block is air
+     */
+    public int getAirNeighbors(int x, int y, int z) {
+        return getNeighbors(this.air, x, y, z);
+    }
+
+    private static int getNeighbors(long[] rows, int x, int y, int z) {
+        int row = getRowIndex(y, z);
+        int bit = x + 1;
+
+        int mask = 0;
+        mask |= (int) ((rows[row - SIZE] >>> bit) & 1L) << Direction.DOWN.ordinal();
+        mask |= (int) ((rows[row + SIZE] >>> bit) & 1L) << Direction.UP.ordinal();
+        mask |= (int) ((rows[row - 1] >>> bit) & 1L) << Direction.NORTH.ordinal();
+        mask |= (int) ((rows[row + 1] >>> bit) & 1L) << Direction.SOUTH.ordinal();
+        mask |= (int) ((rows[row] >>> (bit - 1)) & 1L) << Direction.WEST.ordinal();
+        mask |= (int) ((rows[row] >>> (bit + 1)) & 1L) << Direction.EAST.ordinal();
+
+        return mask;
+    }
+
+    private static int getRowIndex(int y, int z) {
+        return ((y + 1) * SIZE) + (z + 1);
+    }
+}
@@ -1,6 +1,5 @@
 package me.jellysquid.mods.sodium.client.render.pipeline;
 
-import me.jellysquid.mods.sodium.client.model.IndexBufferBuilder;
 import me.jellysquid.mods.sodium.client.model.light.LightMode;
 import me.jellysquid.mods.sodium.client.model.light.LightPipeline;
 import me.jellysquid.mods.sodium.client.model.light.LightPipelineProvider;
@@ -8,10 +7,11 @@ import me.jellysquid.mods.sodium.client.model.light.data.QuadLightData;
 import me.jellysquid.mods.sodium.client.model.quad.ModelQuadView;
 import me.jellysquid.mods.sodium.client.model.quad.blender.ColorBlender;
 import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadFacing;
+import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadFlags;
 import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadOrientation;
-import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadWinding;
 import me.jellysquid.mods.sodium.client.model.quad.blender.ColorSampler;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.buffers.ChunkModelBuilder;
+import me.jellysquid.mods.sodium.client.render.chunk.compile.buffers.GreedyQuadCollector;
 import me.jellysquid.mods.sodium.client.render.chunk.format.ModelVertexSink;
 import me.jellysquid.mods.sodium.client.render.occlusion.BlockOcclusionCache;
 import me.jellysquid.mods.sodium.client.util.color.ColorABGR;
@@ -45,40 +45,79 @@ public class BlockRenderer {
     private final boolean useAmbientOcclusion;
 
     public BlockRenderer(MinecraftClient client, LightPipelineProvider lighters, ColorBlender colorBlender) {
-        this.blockColors = (BlockColorsExtended) client.getBlockColors();
+        this((BlockColorsExtended) client.getBlockColors(), lighters, colorBlender, MinecraftClient.isAmbientOcclusionEnabled());
+    }
+
+    public BlockRenderer(BlockColorsExtended blockColors, LightPipelineProvider lighters, ColorBlender colorBlender, boolean useAmbientOcclusion) {
+        this.blockColors = blockColors;
         this.colorBlender = colorBlender;
 
         this.lighters = lighters;
 
         this.occlusionCache = new BlockOcclusionCache();
-        this.useAmbientOcclusion = MinecraftClient.isAmbientOcclusionEnabled();
+        this.useAmbientOcclusion = useAmbientOcclusion;
     }
 
     public boolean renderModel(BlockRenderView world, BlockState state, BlockPos pos, BlockPos origin, BakedModel model, ChunkModelBuilder buffers, boolean cull, long seed) {
+        return this.renderModel(world, state, pos, origin, model, buffers, cull, seed, null, 0, 0);
+    }
+
+    /**
+     * Renders the model of a block, where the visibility of some of its faces is already known to the caller. Only the
+     * faces in neither mask need their occlusion to be tested against the neighboring block.
+     *
+     * @param cachedQuads The cached quads of the model, or null if the model needs to be queried for its quads
+     * @param hiddenFaces A bit mask of the directions (by ordinal) in which the faces are known to be occluded
+     * @param visibleFaces A bit mask of the directions (by ordinal) in which the faces are known to be visible
+     */
+    public boolean renderModel(BlockRenderView world, BlockState state, BlockPos pos, BlockPos origin, BakedModel model, ChunkModelBuilder buffers, boolean cull, long seed,
+                               CachedModelQuads cachedQuads, int hiddenFaces, int visibleFaces) {
         LightPipeline lighter = this.lighters.getLighter(this.getLightingMode(state, model));
         Vec3d offset = state.getModelOffset(world, pos);
 
         boolean rendered = false;
 
         for (Direction dir : DirectionUtil.ALL_DIRECTIONS) {
-            this.random.setSeed(seed);
-
-            List<BakedQuad> sided = model.getQuads(state, dir, this.random);
+            int face = 1 << dir.ordinal();
 
-            if (sided.isEmpty()) {
+            if (cull && (hiddenFaces & face) != 0) {
                 continue;
             }
 
-            if (!cull || this.occlusionCache.shouldDrawSide(state, world, pos, dir)) {
+            List<BakedQuad> sided;
+
+            if (cachedQuads != null) {
+                if (!cachedQuads.hasQuads(dir)) {
+                    continue;
+                }
+
+                sided = cachedQuads.getQuads(dir);
+            } else {
+                this.random.setSeed(seed);
+
+                sided = model.getQuads(state, dir, this.random);
+
+                if (sided.isEmpty()) {
+                    continue;
+                }
+            }
+
+            if (!cull || (visibleFaces & face) != 0 || this.occlusionCache.shouldDrawSide(state, world, pos, dir)) {
                 this.renderQuadList(world, state, pos, origin, lighter, offset, buffers, sided, ModelQuadFacing.fromDirection(dir));
 
                 rendered = true;
             }
         }
 
-        this.random.setSeed(seed);
+        List<BakedQuad> all;
 
-        List<BakedQuad> all = model.getQuads(state, null, this.random);
+        if (cachedQuads != null) {
+            all = cachedQuads.getUnassignedQuads();
+        } else {
+            this.random.setSeed(seed);
+
+            all = model.getQuads(state, null, this.random);
+        }
 
         if (!all.isEmpty()) {
             this.renderQuadList(world, state, pos, origin, lighter, offset, buffers, all, ModelQuadFacing.UNASSIGNED);
@@ -93,11 +132,9 @@ public class BlockRenderer {
                                 ChunkModelBuilder buffers, List<BakedQuad> quads, ModelQuadFacing facing) {
         ColorSampler<BlockState> colorizer = null;
 
-        ModelVertexSink vertices = buffers.getVertexSink();
+        ModelVertexSink vertices = buffers.getVertexSink(facing);
         vertices.ensureCapacity(quads.size() * 4);
 
-        IndexBufferBuilder indices = buffers.getIndexBufferBuilder(facing);
-
         // This is a very hot allocation, iterate over it manually
         // noinspection ForLoopReplaceableByForEach
         for (int i = 0, quadsSize = quads.size(); i < quadsSize; i++) {
@@ -110,14 +147,14 @@ public class BlockRenderer {
                 colorizer = this.blockColors.getColorProvider(state);
             }
 
-            this.renderQuad(world, state, pos, origin, vertices, indices, offset, colorizer, quad, light, buffers);
+            this.renderQuad(world, state, pos, origin, vertices, offset, colorizer, quad, light, buffers, facing);
         }
 
         vertices.flush();
     }
 
-    private void renderQuad(BlockRenderView world, BlockState state, BlockPos pos, BlockPos origin, ModelVertexSink vertices, IndexBufferBuilder indices, Vec3d blockOffset,
-                            ColorSampler<BlockState> colorSampler, BakedQuad bakedQuad, QuadLightData light, ChunkModelBuilder model) {
+    private void renderQuad(BlockRenderView world, BlockState state, BlockPos pos, BlockPos origin, ModelVertexSink vertices, Vec3d blockOffset,
+                            ColorSampler<BlockState> colorSampler, BakedQuad bakedQuad, QuadLightData light, ChunkModelBuilder model, ModelQuadFacing facing) {
         ModelQuadView src = (ModelQuadView) bakedQuad;
         ModelQuadOrientation orientation = ModelQuadOrientation.orientByBrightness(light.br);
 
@@ -127,7 +164,14 @@ public class BlockRenderer {
             colors = this.colorBlender.getColors(world, pos, src, colorSampler, state);
         }
 
-        int vertexStart = vertices.getVertexCount();
+        GreedyQuadCollector collector = model.getGreedyCollector();
+
+        // Full faces are merged with their neighbors once the section has been built, so they aren't written here
+        if (collector != null && blockOffset == Vec3d.ZERO && this.tryCollectFace(collector, src, bakedQuad, facing, origin, colors, light)) {
+            model.addSprite(src.getSprite());
+
+            return;
+        }
 
         for (int i = 0; i < 4; i++) {
             int j = orientation.getVertexIndex(i);
@@ -146,8 +190,6 @@ public class BlockRenderer {
             vertices.writeVertex(origin, x, y, z, color, u, v, lm, model.getChunkId());
         }
 
-        indices.add(vertexStart, ModelQuadWinding.CLOCKWISE);
-
         Sprite sprite = src.getSprite();
 
         if (sprite != null) {
@@ -155,6 +197,79 @@ public class BlockRenderer {
         }
     }
 
+    /**
+     * Adds the quad to the collector if it is a full block face which can be merged with its neighbors. This requires
+     * the face to cover the whole side of the block, to use the whole sprite in its default orientation, and to have
+     * the same color and light values at every vertex.
+     *
+     * @return True if the quad was added to the collector, otherwise false
+     */
+    private boolean tryCollectFace(GreedyQuadCollector collector, ModelQuadView src, BakedQuad bakedQuad, ModelQuadFacing facing,
+                                   BlockPos origin, int[] colors, QuadLightData light) {
+        if (facing == ModelQuadFacing.UNASSIGNED || ModelQuadFacing.fromDirection(bakedQuad.getFace()) != facing) {
+            return false;
+        }
+
+        if ((src.getFlags() & (ModelQuadFlags.IS_ALIGNED | ModelQuadFlags.IS_PARTIAL)) != ModelQuadFlags.IS_ALIGNED) {
+            return false;
+        }
+
+        Sprite sprite = src.getSprite();
+
+        if (sprite == null || !GreedyQuadCollector.canRepeatSprite(sprite)) {
+            return false;
+        }
+
+        int color = ColorABGR.mul(colors != null ? colors[0] : 0xFFFFFFFF, light.br[0]);
+        int lm = light.lm[0];
+
+        float spriteWidth = sprite.getMaxU() - sprite.getMinU();
+        float spriteHeight = sprite.getMaxV() - sprite.getMinV();
+
+        for (int i = 0; i < 4; i++) {
+            if (i != 0 && (light.lm[i] != lm || ColorABGR.mul(colors != null ? colors[i] : 0xFFFFFFFF, light.br[i]) != color)) {
+                return false;
+            }
+
+            float x = src.getX(i);
+            float y = src.getY(i);
+            float z = src.getZ(i);
+
+            if (!isBlockCorner(x) || !isBlockCorner(y) || !isBlockCorner(z)) {
+                return false;
+            }
+
+            float u = (src.getTexU(i) - sprite.getMinU()) / spriteWidth;
+            float v = (src.getTexV(i) - sprite.getMinV()) / spriteHeight;
+
+            // The shader derives the texture coordinates of merged faces from their position, so only faces which
+            // use the default texture mapping of a cube can be merged
+            boolean matches = switch (facing) {
+                case UP -> isNear(u, x) && isNear(v, z);
+                case DOWN -> isNear(u, x) && isNear(v, 1.0f - z);
+                case NORTH -> isNear(u, 1.0f - x) && isNear(v, 1.0f - y);
+                case SOUTH -> isNear(u, x) && isNear(v, 1.0f - y);
+                case WEST -> isNear(u, z) && isNear(v, 1.0f - y);
+                case EAST -> isNear(u, 1.0f - z) && isNear(v, 1.0f - y);
+                default -> false;
+            };
+
+            if (!matches) {
+                return false;
+            }
+        }
+
+        return collector.add(facing, origin.getX(), origin.getY(), origin.getZ(), sprite, color, lm);
+    }
+
+    private static boolean isBlockCorner(float value) {
+        return isNear(value, 0.0f) || isNear(value, 1.0f);
+    }
+
+    private static boolean isNear(float a, float b) {
+        return Math.abs(a - b) < 1.0E-3f;
+    }
+
     private LightMode getLightingMode(BlockState state, BakedModel model) {
         if (this.useAmbientOcclusion && model.useAmbientOcclusion() && state.getLuminance() == 0) {
             return LightMode.SMOOTH;
@@ -0,0 +1,83 @@
+package me.jellysquid.mods.sodium.client.render.pipeline;
+
+import me.jellysquid.mods.sodium.client.util.rand.XoRoShiRoRandom;
+import me.jellysquid.mods.sodium.common.util.DirectionUtil;
+import net.minecraft.block.BlockState;
+import net.minecraft.client.render.model.BakedModel;
+import net.minecraft.client.render.model.BakedQuad;
+import net.minecraft.client.render.model.BasicBakedModel;
+import net.minecraft.util.math.Direction;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The quads of a model whose geometry never depends on the random passed to {@link BakedModel#getQuads}, stored by
+ * the face they are culled against. This allows the quads to be fetched without re-seeding the random and calling into
+ * the model once for each face.
+ *
+ * Only vanilla's {@link BasicBakedModel} is known to ignore the random. Every other model, such as weighted or multipart
+ * models and any models added by mods, needs to be queried as usual.
+ */
+public final class CachedModelQuads {
+    private static final int UNASSIGNED = DirectionUtil.ALL_DIRECTIONS.length;
+
+    private final List<BakedQuad>[] quads;
+
+    // A bit mask of the faces (by direction ordinal) which have any quads
+    private final int faces;
+
+    @SuppressWarnings("unchecked")
+    private CachedModelQuads(BakedModel model, BlockState state) {
+        Random random = new XoRoShiRoRandom();
+
+        this.quads = new List[UNASSIGNED + 1];
+
+        int faces = 0;
+
+        for (Direction dir : DirectionUtil.ALL_DIRECTIONS) {
+            List<BakedQuad> quads = model.getQuads(state, dir, random);
+
+            if (!quads.isEmpty()) {
+                faces |= 1 << dir.ordinal();
+            }
+
+            this.quads[dir.ordinal()] = quads;
+        }
+
+        this.quads[UNASSIGNED] = model.getQuads(state, null, random);
+        this.faces = faces;
+    }
+
+    /**
+     * @return The cached quads of the model, or null if the quads of the model may depend on the random
+     */
+    public static CachedModelQuads create(BakedModel model, BlockState state) {
+        if (model == null || model.getClass() != BasicBakedModel.class) {
+            return null;
+        }
+
+        return new CachedModelQuads(model, state);
+    }
+
+    /**
+     * @return The quads which are culled against the given face
+     */
+    public List<BakedQuad> getQuads(Direction dir) {
+        return this.quads[dir.ordinal()];
+    }
+
+    /**
+     * @return The quads which are not culled against any face
+     */
+    public List<BakedQuad> getUnassignedQuads() {
+        return this.quads[UNASSIGNED];
+    }
+
+    /**
+     * @return True if any quads are culled against the given face
+     */
+    public boolean hasQuads(Direction dir) {
+        return (this.faces & (1 << dir.ordinal())) != 0;
+    }
+}
@@ -6,7 +6,7 @@ import me.jellysquid.mods.sodium.client.model.quad.blender.LinearColorBlender;
 import net.minecraft.client.MinecraftClient;
 
 public class ChunkRenderCache {
-    protected ColorBlender createBiomeColorBlender() {
+    protected static ColorBlender createBiomeColorBlender() {
         return MinecraftClient.getInstance().options.biomeBlendRadius <= 0 ? new FlatColorBlender() : new LinearColorBlender();
     }
 }
@@ -11,7 +11,6 @@ import me.jellysquid.mods.sodium.client.model.quad.ModelQuadViewMutable;
 import me.jellysquid.mods.sodium.client.model.quad.blender.ColorBlender;
 import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadFacing;
 import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadFlags;
-import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadWinding;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.buffers.ChunkModelBuilder;
 import me.jellysquid.mods.sodium.client.render.chunk.format.ModelVertexSink;
 import me.jellysquid.mods.sodium.client.util.Norm3b;
@@ -56,8 +55,15 @@ public class FluidRenderer {
     private final QuadLightData quadLightData = new QuadLightData();
     private final int[] quadColors = new int[4];
 
+    private final boolean useAmbientOcclusion;
+
     public FluidRenderer(LightPipelineProvider lighters, ColorBlender colorBlender) {
-        this.waterOverlaySprite = ModelLoader.WATER_OVERLAY.getSprite();
+        this(lighters, colorBlender, ModelLoader.WATER_OVERLAY.getSprite(), MinecraftClient.isAmbientOcclusionEnabled());
+    }
+
+    public FluidRenderer(LightPipelineProvider lighters, ColorBlender colorBlender, Sprite waterOverlaySprite, boolean useAmbientOcclusion) {
+        this.waterOverlaySprite = waterOverlaySprite;
+        this.useAmbientOcclusion = useAmbientOcclusion;
 
         int normal = Norm3b.pack(0.0f, 1.0f, 0.0f);
 
@@ -141,7 +147,7 @@ public class FluidRenderer {
 
         final ModelQuadViewMutable quad = this.quad;
 
-        LightMode lightMode = isWater && MinecraftClient.isAmbientOcclusionEnabled() ? LightMode.SMOOTH : LightMode.FLAT;
+        LightMode lightMode = isWater && this.useAmbientOcclusion ? LightMode.SMOOTH : LightMode.FLAT;
         LightPipeline lighter = this.lighters.getLighter(lightMode);
 
         quad.setFlags(0);
@@ -210,14 +216,10 @@ public class FluidRenderer {
 
             this.calculateQuadColors(quad, world, pos, lighter, Direction.UP, 1.0F, colorizer, fluidState);
 
-            int vertexStart = this.writeVertices(buffers, offset, quad);
-
-            buffers.getIndexBufferBuilder(facing)
-                    .add(vertexStart, ModelQuadWinding.CLOCKWISE);
+            this.writeQuad(buffers, facing, offset, quad, false);
 
             if (fluidState.method_15756(world, this.scratchPos.set(posX, posY + 1, posZ))) {
-                buffers.getIndexBufferBuilder(ModelQuadFacing.DOWN)
-                        .add(vertexStart, ModelQuadWinding.COUNTERCLOCKWISE);
+                this.writeQuad(buffers, ModelQuadFacing.DOWN, offset, quad, true);
             }
 
             rendered = true;
@@ -239,10 +241,7 @@ public class FluidRenderer {
 
             this.calculateQuadColors(quad, world, pos, lighter, Direction.DOWN, 1.0F, colorizer, fluidState);
 
-            int vertexStart = this.writeVertices(buffers, offset, quad);
-
-            buffers.getIndexBufferBuilder(ModelQuadFacing.DOWN)
-                    .add(vertexStart, ModelQuadWinding.CLOCKWISE);
+            this.writeQuad(buffers, ModelQuadFacing.DOWN, offset, quad, false);
 
             rendered = true;
         }
@@ -347,14 +346,10 @@ public class FluidRenderer {
 
                 this.calculateQuadColors(quad, world, pos, lighter, dir, br, colorizer, fluidState);
 
-                int vertexStart = this.writeVertices(buffers, offset, quad);
-
-                buffers.getIndexBufferBuilder(facing)
-                        .add(vertexStart, ModelQuadWinding.CLOCKWISE);
+                this.writeQuad(buffers, facing, offset, quad, false);
 
                 if (sprite != this.waterOverlaySprite) {
-                    buffers.getIndexBufferBuilder(facing.getOpposite())
-                            .add(vertexStart, ModelQuadWinding.COUNTERCLOCKWISE);
+                    this.writeQuad(buffers, facing.getOpposite(), offset, quad, true);
                 }
 
                 rendered = true;
@@ -383,13 +378,19 @@ public class FluidRenderer {
         }
     }
 
-    private int writeVertices(ChunkModelBuilder builder, BlockPos offset, ModelQuadView quad) {
-        ModelVertexSink vertices = builder.getVertexSink();
+    /**
+     * Writes the quad into the vertex sink for the given facing.
+     *
+     * @param flip True if the vertices should be written in the reverse winding order, so that the back side of the
+     *             quad is visible instead
+     */
+    private void writeQuad(ChunkModelBuilder builder, ModelQuadFacing facing, BlockPos offset, ModelQuadView quad, boolean flip) {
+        ModelVertexSink vertices = builder.getVertexSink(facing);
         vertices.ensureCapacity(4);
 
-        int vertexStart = vertices.getVertexCount();
+        for (int j = 0; j < 4; j++) {
+            int i = flip ? (4 - j) & 3 : j;
 
-        for (int i = 0; i < 4; i++) {
             float x = quad.getX(i);
             float y = quad.getY(i);
             float z = quad.getZ(i);
@@ -411,8 +412,6 @@ public class FluidRenderer {
         if (sprite != null) {
             builder.addSprite(sprite);
         }
-
-        return vertexStart;
     }
 
     private void setVertex(ModelQuadViewMutable quad, int i, float x, float y, float z, float u, float v) {
@@ -6,10 +6,13 @@ import me.jellysquid.mods.sodium.client.model.quad.blender.ColorBlender;
 import me.jellysquid.mods.sodium.client.render.pipeline.BlockRenderer;
 import me.jellysquid.mods.sodium.client.render.pipeline.ChunkRenderCache;
 import me.jellysquid.mods.sodium.client.render.pipeline.FluidRenderer;
+import me.jellysquid.mods.sodium.client.render.occlusion.SectionOcclusionMask;
 import me.jellysquid.mods.sodium.client.world.WorldSlice;
+import me.jellysquid.mods.sodium.client.world.biome.BlockColorsExtended;
 import me.jellysquid.mods.sodium.client.world.cloned.ChunkRenderContext;
 import net.minecraft.client.MinecraftClient;
-import net.minecraft.client.render.block.BlockModels;
+import net.minecraft.client.render.model.ModelLoader;
+import net.minecraft.client.texture.Sprite;
 import net.minecraft.world.World;
 
 public class ChunkRenderCacheLocal extends ChunkRenderCache {
@@ -18,24 +21,27 @@ public class ChunkRenderCacheLocal extends ChunkRenderCache {
     private final BlockRenderer blockRenderer;
     private final FluidRenderer fluidRenderer;
 
-    private final BlockModels blockModels;
     private final WorldSlice worldSlice;
+    private final SectionOcclusionMask occlusionMask = new SectionOcclusionMask();
 
     public ChunkRenderCacheLocal(MinecraftClient client, World world) {
-        this.worldSlice = new WorldSlice(world);
+        this(new WorldSlice(world), (BlockColorsExtended) client.getBlockColors(), createBiomeColorBlender(),
+                ModelLoader.WATER_OVERLAY.getSprite(), MinecraftClient.isAmbientOcclusionEnabled());
+    }
+
+    /**
+     * Creates a cache which doesn't depend on the state of the client, so that chunk meshes can also be built outside
+     * the game, such as by the benchmarks.
+     */
+    public ChunkRenderCacheLocal(WorldSlice worldSlice, BlockColorsExtended blockColors, ColorBlender colorBlender,
+                                 Sprite waterOverlaySprite, boolean useAmbientOcclusion) {
+        this.worldSlice = worldSlice;
         this.lightDataCache = new ArrayLightDataCache(this.worldSlice);
 
         LightPipelineProvider lightPipelineProvider = new LightPipelineProvider(this.lightDataCache);
-        ColorBlender colorBlender = this.createBiomeColorBlender();
 
-        this.blockRenderer = new BlockRenderer(client, lightPipelineProvider, colorBlender);
-        this.fluidRenderer = new FluidRenderer(lightPipelineProvider, colorBlender);
-
-        this.blockModels = client.getBakedModelManager().getBlockModels();
-    }
-
-    public BlockModels getBlockModels() {
-        return this.blockModels;
+        this.blockRenderer = new BlockRenderer(blockColors, lightPipelineProvider, colorBlender, useAmbientOcclusion);
+        this.fluidRenderer = new FluidRenderer(lightPipelineProvider, colorBlender, waterOverlaySprite, useAmbientOcclusion);
     }
 
     public BlockRenderer getBlockRenderer() {
@@ -54,4 +60,8 @@ public class ChunkRenderCacheLocal extends ChunkRenderCache {
     public WorldSlice getWorldSlice() {
         return this.worldSlice;
     }
+
+    public SectionOcclusionMask getOcclusionMask() {
+        return this.occlusionMask;
+    }
 }
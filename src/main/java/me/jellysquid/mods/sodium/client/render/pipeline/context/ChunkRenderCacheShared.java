@@ -22,7 +22,7 @@ public class ChunkRenderCacheShared extends ChunkRenderCache {
 
         this.lightCache = new HashLightDataCache(world);
 
-        ColorBlender colorBlender = this.createBiomeColorBlender();
+        ColorBlender colorBlender = createBiomeColorBlender();
         LightPipelineProvider lightPipelineProvider = new LightPipelineProvider(this.lightCache);
 
         this.blockRenderer = new BlockRenderer(client, lightPipelineProvider, colorBlender);
@@ -13,8 +13,18 @@ import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
+/**
+ * A block of native memory with an explicit lifetime. The memory is taken from {@link NativeBufferPool} and returned
+ * to it once the buffer is freed.
+ *
+ * If memory tracing is enabled, every buffer is also tracked with a phantom reference so that buffers which are never
+ * freed can be reclaimed and reported along with their allocation site. Leaked buffers used to be reclaimed regardless,
+ * but tracking every buffer was too expensive for the allocation rates of chunk meshing. When memory tracing is
+ * disabled, the memory of a buffer which is never freed stays allocated until the game exits.
+ */
 public class NativeBuffer {
     private static final Logger LOGGER = LogManager.getLogger(NativeBuffer.class);
 
@@ -22,14 +32,16 @@ public class NativeBuffer {
     private static final Reference2ReferenceMap<Reference<NativeBuffer>, BufferReference> ACTIVE_BUFFERS =
             Reference2ReferenceMaps.synchronize(new Reference2ReferenceOpenHashMap<>());
 
-    private static long ALLOCATED = 0L;
+    private static final AtomicLong ALLOCATED = new AtomicLong();
 
     private final BufferReference ref;
 
     public NativeBuffer(int capacity) {
         this.ref = allocate(capacity);
 
-        ACTIVE_BUFFERS.put(new PhantomReference<>(this, RECLAIM_QUEUE), this.ref);
+        if (this.ref.allocationSite != null) {
+            ACTIVE_BUFFERS.put(new PhantomReference<>(this, RECLAIM_QUEUE), this.ref);
+        }
     }
 
     public static NativeBuffer copy(ByteBuffer src) {
@@ -52,6 +64,27 @@ public class NativeBuffer {
         return this.ref.length;
     }
 
+    /**
+     * @return The number of bytes of native memory held by this buffer, which can be larger than its length
+     */
+    public int getBlockSize() {
+        return this.ref.blockSize;
+    }
+
+    /**
+     * Reduces the length of this buffer without re-allocating it, such as once the final size of its contents is
+     * known.
+     */
+    public void truncate(int length) {
+        this.ref.checkFreed();
+
+        if (length < 0 || length > this.ref.length) {
+            throw new IllegalArgumentException("Length must be between 0 and the current length of the buffer");
+        }
+
+        this.ref.length = length;
+    }
+
     public static void reclaim(boolean forceGc) {
         if (forceGc) {
             System.gc();
@@ -74,15 +107,31 @@ public class NativeBuffer {
                         Arrays.stream(buf.allocationSite)
                                 .map(StackTraceElement::toString)
                                 .collect(Collectors.joining("\n")));
-            } else {
-                LOGGER.warn("Reclaimed {} bytes at address {} that were leaked from an unknown location (logging is disabled)",
-                        buf.length, buf.address);
             }
         }
     }
 
+    /**
+     * @return The number of bytes of native memory currently allocated for buffers, including blocks which are waiting
+     * in the pool to be re-used
+     */
     public static long getTotalAllocated() {
-        return ALLOCATED;
+        return ALLOCATED.get();
+    }
+
+    /**
+     * @return The number of bytes of native memory which are waiting in the pool to be re-used
+     */
+    public static long getTotalPooled() {
+        return NativeBufferPool.getPooledBytes();
+    }
+
+    /**
+     * Returns the blocks cached by the calling thread to the shared pool. Threads which allocate or free buffers should
+     * call this before they exit.
+     */
+    public static void releaseThreadCache() {
+        ALLOCATED.addAndGet(-NativeBufferPool.releaseThreadCache());
     }
 
     private static StackTraceElement[] getStackTrace() {
@@ -93,6 +142,18 @@ public class NativeBuffer {
     private static final int MAX_ALLOCATION_ATTEMPTS = 3;
 
     private static BufferReference allocate(int bytes) {
+        int blockSize = NativeBufferPool.getBlockSize(bytes);
+
+        long address = NativeBufferPool.take(blockSize);
+
+        if (address == MemoryUtil.NULL) {
+            address = allocateBlock(blockSize);
+        }
+
+        return new BufferReference(address, bytes, blockSize, getStackTrace());
+    }
+
+    private static long allocateBlock(int bytes) {
         long address = 0;
         int attempts = 0;
 
@@ -106,7 +167,8 @@ public class NativeBuffer {
             LOGGER.error("EMERGENCY: Tried to allocate {} bytes but the allocator reports failure", bytes);
             LOGGER.error("EMERGENCY: ... Attempting to force a garbage collection cycle (attempt {}/{})", attempts, MAX_ALLOCATION_ATTEMPTS);
 
-            // If memory allocation fails, force a garbage collection
+            // If memory allocation fails, release any pooled memory and force a garbage collection
+            ALLOCATED.addAndGet(-NativeBufferPool.clear());
             reclaim(true);
         }
 
@@ -114,34 +176,37 @@ public class NativeBuffer {
             throw new OutOfMemoryError("Couldn't allocate %s bytes after %s attempts".formatted(bytes, attempts));
         }
 
-        StackTraceElement[] stackTrace = getStackTrace();
-
-        BufferReference ref = new BufferReference(address, bytes, stackTrace);
-        ALLOCATED += ref.length;
+        ALLOCATED.addAndGet(bytes);
 
-        return ref;
+        return address;
     }
 
     private static void deallocate(BufferReference ref) {
         ref.checkFreed();
         ref.freed = true;
 
-        MemoryUtil.nmemFree(ref.address);
+        if (!NativeBufferPool.release(ref.address, ref.blockSize)) {
+            MemoryUtil.nmemFree(ref.address);
 
-        ALLOCATED -= ref.length;
+            ALLOCATED.addAndGet(-ref.blockSize);
+        }
     }
 
     private static class BufferReference {
         public final long address;
-        public final int length;
+        public final int blockSize;
+
+        public int length;
 
         public final StackTraceElement[] allocationSite;
 
-        public boolean freed;
+        // Buffers can be freed by a different thread than the one which allocated them
+        public volatile boolean freed;
 
-        private BufferReference(long address, int length, StackTraceElement[] allocationSite) {
+        private BufferReference(long address, int length, int blockSize, StackTraceElement[] allocationSite) {
             this.address = address;
             this.length = length;
+            this.blockSize = blockSize;
             this.allocationSite = allocationSite;
         }
 
@@ -0,0 +1,216 @@
+package me.jellysquid.mods.sodium.client.util;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.lwjgl.system.MemoryUtil;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pool of native memory blocks which back {@link NativeBuffer}s. Blocks are grouped into power-of-two size classes,
+ * so that a freed block can be re-used by any later buffer of a similar size without going through the system
+ * allocator. Each thread keeps a few blocks of every size class to itself before returning them to the shared pool,
+ * which avoids contention when the same thread repeatedly allocates and frees buffers.
+ *
+ * Allocations larger than the largest size class are never pooled.
+ */
+final class NativeBufferPool {
+    private static final int MIN_CLASS_SHIFT = 12; // 4 KiB
+    private static final int MAX_CLASS_SHIFT = 22; // 4 MiB
+
+    private static final int CLASS_COUNT = MAX_CLASS_SHIFT - MIN_CLASS_SHIFT + 1;
+
+    private static final int THREAD_CACHE_BLOCKS = 4;
+
+    // The shared pool of each size class will hold at most this many bytes, and frees any further blocks returned to it
+    private static final long MAX_SHARED_BYTES_PER_CLASS = 16L * 1024L * 1024L;
+
+    private static final LongArrayList[] SHARED_BLOCKS = new LongArrayList[CLASS_COUNT];
+    private static final ThreadLocal<LongArrayList[]> THREAD_BLOCKS = ThreadLocal.withInitial(NativeBufferPool::createBlockLists);
+
+    private static final AtomicLong POOLED_BYTES = new AtomicLong();
+
+    static {
+        for (int i = 0; i < CLASS_COUNT; i++) {
+            SHARED_BLOCKS[i] = new LongArrayList();
+        }
+    }
+
+    private NativeBufferPool() {
+
+    }
+
+    /**
+     * @return The size of the block which will be allocated to hold the given number of bytes
+     */
+    static int getBlockSize(int bytes) {
+        if (bytes > (1 << MAX_CLASS_SHIFT)) {
+            return bytes;
+        }
+
+        return Math.max(1 << MIN_CLASS_SHIFT, Integer.highestOneBit(Math.max(1, bytes - 1)) << 1);
+    }
+
+    /**
+     * Takes a block of the given size from the pool.
+     *
+     * @param blockSize The size of the block, as returned by {@link NativeBufferPool#getBlockSize(int)}
+     * @return The address of the block, or {@link MemoryUtil#NULL} if no block is available
+     */
+    static long take(int blockSize) {
+        int sizeClass = getSizeClass(blockSize);
+
+        if (sizeClass < 0) {
+            return MemoryUtil.NULL;
+        }
+
+        LongArrayList local = THREAD_BLOCKS.get()[sizeClass];
+        long address;
+
+        if (!local.isEmpty()) {
+            address = local.popLong();
+        } else {
+            LongArrayList shared = SHARED_BLOCKS[sizeClass];
+
+            synchronized (shared) {
+                if (shared.isEmpty()) {
+                    return MemoryUtil.NULL;
+                }
+
+                address = shared.popLong();
+            }
+        }
+
+        POOLED_BYTES.addAndGet(-blockSize);
+
+        return address;
+    }
+
+    /**
+     * Returns a block to the pool.
+     *
+     * @return False if the pool is full and the block needs to be freed by the caller instead
+     */
+    static boolean release(long address, int blockSize) {
+        int sizeClass = getSizeClass(blockSize);
+
+        if (sizeClass < 0) {
+            return false;
+        }
+
+        LongArrayList local = THREAD_BLOCKS.get()[sizeClass];
+
+        if (local.size() < THREAD_CACHE_BLOCKS) {
+            local.add(address);
+        } else if (!releaseShared(address, blockSize, sizeClass)) {
+            return false;
+        }
+
+        POOLED_BYTES.addAndGet(blockSize);
+
+        return true;
+    }
+
+    /**
+     * Adds a block to the shared pool of its size class, bypassing the cache of the calling thread.
+     *
+     * @return False if the shared pool is full and the block needs to be freed by the caller instead
+     */
+    private static boolean releaseShared(long address, int blockSize, int sizeClass) {
+        LongArrayList shared = SHARED_BLOCKS[sizeClass];
+
+        synchronized (shared) {
+            if ((long) (shared.size() + 1) * blockSize > MAX_SHARED_BYTES_PER_CLASS) {
+                return false;
+            }
+
+            shared.add(address);
+        }
+
+        return true;
+    }
+
+    /**
+     * Moves every block cached by the calling thread into the shared pool. This should be called before a thread
+     * which has used native buffers exits, as its blocks would otherwise never be re-used or freed.
+     *
+     * @return The number of bytes which were freed because the shared pool was full
+     */
+    static long releaseThreadCache() {
+        LongArrayList[] lists = THREAD_BLOCKS.get();
+        long freed = 0;
+
+        for (int sizeClass = 0; sizeClass < CLASS_COUNT; sizeClass++) {
+            LongArrayList local = lists[sizeClass];
+            int blockSize = 1 << (sizeClass + MIN_CLASS_SHIFT);
+
+            // Blocks must go straight to the shared pool, as releasing them normally would put them back into the
+            // cache of this thread
+            while (!local.isEmpty()) {
+                long address = local.popLong();
+
+                if (!releaseShared(address, blockSize, sizeClass)) {
+                    MemoryUtil.nmemFree(address);
+                    POOLED_BYTES.addAndGet(-blockSize);
+
+                    freed += blockSize;
+                }
+            }
+        }
+
+        THREAD_BLOCKS.remove();
+
+        return freed;
+    }
+
+    /**
+     * Frees every block in the shared pool, such as when the system allocator is running out of memory.
+     *
+     * @return The number of bytes which were freed
+     */
+    static long clear() {
+        long freed = 0;
+
+        for (int sizeClass = 0; sizeClass < CLASS_COUNT; sizeClass++) {
+            LongArrayList shared = SHARED_BLOCKS[sizeClass];
+            int blockSize = 1 << (sizeClass + MIN_CLASS_SHIFT);
+
+            synchronized (shared) {
+                for (int i = 0; i < shared.size(); i++) {
+                    MemoryUtil.nmemFree(shared.getLong(i));
+                }
+
+                freed += (long) shared.size() * blockSize;
+                shared.clear();
+            }
+        }
+
+        POOLED_BYTES.addAndGet(-freed);
+
+        return freed;
+    }
+
+    /**
+     * @return The number of bytes held by blocks which are waiting in the pool to be re-used
+     */
+    static long getPooledBytes() {
+        return POOLED_BYTES.get();
+    }
+
+    private static int getSizeClass(int blockSize) {
+        if (blockSize > (1 << MAX_CLASS_SHIFT) || !MathUtil.isPowerOfTwo(blockSize)) {
+            return -1;
+        }
+
+        return Integer.numberOfTrailingZeros(blockSize) - MIN_CLASS_SHIFT;
+    }
+
+    private static LongArrayList[] createBlockLists() {
+        LongArrayList[] lists = new LongArrayList[CLASS_COUNT];
+
+        for (int i = 0; i < CLASS_COUNT; i++) {
+            lists[i] = new LongArrayList(THREAD_CACHE_BLOCKS);
+        }
+
+        return lists;
+    }
+}
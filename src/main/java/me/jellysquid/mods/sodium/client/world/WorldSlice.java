@@ -133,9 +133,18 @@ public class WorldSlice implements BlockRenderView, RenderAttachedBlockView {
     }
 
     public WorldSlice(World world) {
+        this(world, ((BiomeSeedProvider) world).getBiomeSeed());
+    }
+
+    /**
+     * Creates a slice which samples biomes with the given seed instead of the seed of the world. Subclasses which are
+     * not backed by a client world, such as the fixtures used by the benchmarks, need to override the methods below
+     * which are delegated to the world.
+     */
+    protected WorldSlice(World world, long biomeSeed) {
         this.world = world;
 
-        this.biomeAccess = new BiomeAccess(this::getStoredBiome, ((BiomeSeedProvider) this.world).getBiomeSeed());
+        this.biomeAccess = new BiomeAccess(this::getStoredBiome, biomeSeed);
 
         this.sections = new ClonedChunkSection[SECTION_TABLE_ARRAY_SIZE];
         this.blockStatesArrays = new BlockState[SECTION_TABLE_ARRAY_SIZE][SECTION_BLOCK_COUNT];
@@ -161,7 +170,11 @@ public class WorldSlice implements BlockRenderView, RenderAttachedBlockView {
             }
         }
 
-        this.biomeColors = new BlockColorCache(this, MinecraftClient.getInstance().options.biomeBlendRadius);
+        this.biomeColors = new BlockColorCache(this, this.getBiomeBlendRadius());
+    }
+
+    protected int getBiomeBlendRadius() {
+        return MinecraftClient.getInstance().options.biomeBlendRadius;
     }
 
     private void unpackBlockData(BlockState[] states, ClonedChunkSection section, BlockBox box) {
@@ -0,0 +1,211 @@
+package me.jellysquid.mods.sodium.common.util.collections;
+
+import it.unimi.dsi.fastutil.objects.ObjectHeapPriorityQueue;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A concurrent priority queue which is split into a number of lanes, typically one for each consumer thread. Elements
+ * are added to a specific lane, and consumers take elements from their own lane unless another lane holds a more
+ * urgent element, in which case they steal the highest-priority element from any lane. Since each lane is guarded by
+ * its own lock, consumers rarely contend with each other.
+ *
+ * Urgency is decided by a separate, coarser ordering than the full priority. Elements of equal urgency are only ordered
+ * within each lane, so they may be taken slightly out of order across lanes, but an element is never taken while a
+ * more urgent element is waiting in another lane.
+ */
+public class WorkStealingPriorityQueue<T> {
+    private final Lane<T>[] lanes;
+    private final Comparator<? super T> comparator;
+    private final Comparator<? super T> urgency;
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Creates a queue where every element is strictly ordered across all lanes.
+     */
+    public WorkStealingPriorityQueue(int laneCount, Comparator<? super T> comparator) {
+        this(laneCount, comparator, comparator);
+    }
+
+    /**
+     * @param comparator The order in which elements are taken
+     * @param urgency A coarser order than {@code comparator}, which decides whether an element in another lane must be
+     *                taken before the elements of a consumer's own lane
+     */
+    @SuppressWarnings("unchecked")
+    public WorkStealingPriorityQueue(int laneCount, Comparator<? super T> comparator, Comparator<? super T> urgency) {
+        if (laneCount <= 0) {
+            throw new IllegalArgumentException("Lane count must be positive");
+        }
+
+        this.lanes = new Lane[laneCount];
+        this.comparator = comparator;
+        this.urgency = urgency;
+
+        for (int i = 0; i < laneCount; i++) {
+            this.lanes[i] = new Lane<>(comparator);
+        }
+    }
+
+    public int getLaneCount() {
+        return this.lanes.length;
+    }
+
+    public void add(int lane, T element) {
+        // Counted before the element becomes visible, so that the size never drops below zero
+        this.size.incrementAndGet();
+
+        this.lanes[lane].add(element);
+    }
+
+    /**
+     * Takes the next element from the given lane, or steals one from another lane if it is empty or if another lane
+     * holds a more urgent element.
+     *
+     * @return The next element, or null if every lane is empty
+     */
+    public T poll(int lane) {
+        Lane<T> local = this.lanes[lane];
+        T element = local.peek();
+
+        // If the head of the local lane was taken by another consumer in the meantime, fall back to a full search
+        if (element != null && !this.hasMoreUrgentElement(local, element) && local.pollIfFirst(element)) {
+            this.size.decrementAndGet();
+
+            return element;
+        }
+
+        return this.pollBest();
+    }
+
+    private boolean hasMoreUrgentElement(Lane<T> local, T element) {
+        for (Lane<T> lane : this.lanes) {
+            if (lane == local) {
+                continue;
+            }
+
+            T head = lane.peek();
+
+            if (head != null && this.urgency.compare(head, element) < 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Takes the element with the highest priority out of the heads of all lanes.
+     *
+     * @return The next element, or null if every lane is empty
+     */
+    public T poll() {
+        return this.pollBest();
+    }
+
+    private T pollBest() {
+        while (this.size.get() > 0) {
+            Lane<T> best = null;
+            T bestElement = null;
+
+            for (Lane<T> lane : this.lanes) {
+                T element = lane.peek();
+
+                if (element != null && (bestElement == null || this.comparator.compare(element, bestElement) < 0)) {
+                    best = lane;
+                    bestElement = element;
+                }
+            }
+
+            if (best == null) {
+                return null;
+            }
+
+            // Another consumer may have taken the element in the meantime, in which case the search is repeated
+            if (best.pollIfFirst(bestElement)) {
+                this.size.decrementAndGet();
+
+                return bestElement;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Removes every element from all lanes and adds them to the given collection.
+     */
+    public void drainTo(Collection<? super T> collection) {
+        for (Lane<T> lane : this.lanes) {
+            lane.lock.lock();
+
+            try {
+                while (!lane.elements.isEmpty()) {
+                    collection.add(lane.elements.dequeue());
+                    this.size.decrementAndGet();
+                }
+
+                lane.head = null;
+            } finally {
+                lane.lock.unlock();
+            }
+        }
+    }
+
+    public int size() {
+        return this.size.get();
+    }
+
+    public boolean isEmpty() {
+        return this.size.get() <= 0;
+    }
+
+    private static class Lane<T> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ObjectHeapPriorityQueue<T> elements;
+
+        // The first element of the heap, which is published after every change so that consumers can compare the
+        // heads of all lanes without taking each lane's lock
+        private volatile T head;
+
+        private Lane(Comparator<? super T> comparator) {
+            this.elements = new ObjectHeapPriorityQueue<>(comparator);
+        }
+
+        private void add(T element) {
+            this.lock.lock();
+
+            try {
+                this.elements.enqueue(element);
+                this.head = this.elements.first();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        private T peek() {
+            return this.head;
+        }
+
+        private boolean pollIfFirst(T element) {
+            this.lock.lock();
+
+            try {
+                if (this.elements.isEmpty() || this.elements.first() != element) {
+                    return false;
+                }
+
+                this.elements.dequeue();
+                this.head = this.elements.isEmpty() ? null : this.elements.first();
+
+                return true;
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package me.jellysquid.mods.sodium.mixin.features.model;
 
-import it.unimi.dsi.fastutil.objects.Reference2ReferenceOpenHashMap;
+import me.jellysquid.mods.sodium.client.model.MultipartModelCache;
 import net.minecraft.block.BlockState;
 import net.minecraft.client.render.model.BakedModel;
 import net.minecraft.client.render.model.BakedQuad;
@@ -11,18 +11,28 @@ import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Overwrite;
 import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
 import java.util.*;
 import java.util.function.Predicate;
 
 @Mixin(MultipartBakedModel.class)
 public class MixinMultipartBakedModel {
-    private final Map<BlockState, List<BakedModel>> stateCacheFast = new Reference2ReferenceOpenHashMap<>();
-
     @Shadow
     @Final
     private List<Pair<Predicate<BlockState>, BakedModel>> components;
 
+    @Unique
+    private MultipartModelCache modelCache;
+
+    @Inject(method = "<init>", at = @At("RETURN"))
+    private void createModelCache(List<Pair<Predicate<BlockState>, BakedModel>> components, CallbackInfo ci) {
+        this.modelCache = new MultipartModelCache(this.components);
+    }
+
     /**
      * @author JellySquid
      * @reason Avoid expensive allocations and replace bitfield indirection
@@ -33,25 +43,7 @@ public class MixinMultipartBakedModel {
             return Collections.emptyList();
         }
 
-        List<BakedModel> models;
-
-        // FIXME: Synchronization-hack because getQuads must be thread-safe
-        // Vanilla is actually affected by the exact same issue safety issue, but crashes seem rare in practice
-        synchronized (this.stateCacheFast) {
-            models = this.stateCacheFast.get(state);
-
-            if (models == null) {
-                models = new ArrayList<>(this.components.size());
-
-                for (Pair<Predicate<BlockState>, BakedModel> pair : this.components) {
-                    if ((pair.getLeft()).test(state)) {
-                        models.add(pair.getRight());
-                    }
-                }
-
-                this.stateCacheFast.put(state, models);
-            }
-        }
+        BakedModel[] models = this.modelCache.getModels(state);
 
         List<BakedQuad> list = new ArrayList<>();
 
@@ -65,5 +57,4 @@ public class MixinMultipartBakedModel {
 
         return list;
     }
-
 }
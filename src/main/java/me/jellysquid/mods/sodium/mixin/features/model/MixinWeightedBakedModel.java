@@ -1,5 +1,6 @@
 package me.jellysquid.mods.sodium.mixin.features.model;
 
+import me.jellysquid.mods.sodium.client.model.WeightedModelTable;
 import net.minecraft.block.BlockState;
 import net.minecraft.client.render.model.BakedModel;
 import net.minecraft.client.render.model.BakedQuad;
@@ -11,6 +12,10 @@ import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Overwrite;
 import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
 import java.util.*;
 
@@ -24,37 +29,26 @@ public class MixinWeightedBakedModel {
     @Final
     private int totalWeight;
 
+    @Unique
+    private WeightedModelTable table;
+
+    @Inject(method = "<init>", at = @At("RETURN"))
+    private void buildLookupTable(List<Weighted.Present<BakedModel>> models, CallbackInfo ci) {
+        this.table = new WeightedModelTable(this.models);
+    }
+
     /**
      * @author JellySquid
-     * @reason Avoid excessive object allocations
+     * @reason Avoid excessive object allocations, select the model with a table lookup instead of a linear scan
      */
     @Overwrite
     public List<BakedQuad> getQuads(@Nullable BlockState state, @Nullable Direction face, Random random) {
-        Weighted.Present<BakedModel> quad = getAt(this.models, Math.abs((int) random.nextLong()) % this.totalWeight);
+        BakedModel model = this.table.get(Math.abs((int) random.nextLong()) % this.totalWeight);
 
-        if (quad != null) {
-            return quad.getData()
-                    .getQuads(state, face, random);
+        if (model != null) {
+            return model.getQuads(state, face, random);
         }
 
         return Collections.emptyList();
     }
-
-    private static <T extends Weighted> T getAt(List<T> pool, int totalWeight) {
-        int i = 0;
-        int len = pool.size();
-
-        T weighted;
-
-        do {
-            if (i >= len) {
-                return null;
-            }
-
-            weighted = pool.get(i++);
-            totalWeight -= weighted.getWeight().getValue();
-        } while (totalWeight >= 0);
-
-        return weighted;
-    }
 }
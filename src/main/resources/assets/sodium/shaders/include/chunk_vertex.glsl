@@ -13,6 +13,9 @@ vec4 _vert_color;
 // The index of the draw command which this vertex belongs to
 uint _draw_id;
 
+// The flags of the vertex, which are packed into the upper byte of the draw index
+uint _vert_flags;
+
 #ifdef USE_VERTEX_COMPRESSION
 in vec4 a_PosId;
 in vec4 a_Color;
@@ -30,10 +33,25 @@ in vec2 a_LightCoord;
 void _vert_init() {
     _vert_position = (a_PosId.xyz * VERT_POS_SCALE + VERT_POS_OFFSET);
     _vert_tex_diffuse_coord = (a_TexCoord * VERT_TEX_SCALE);
-    _vert_tex_light_coord = a_LightCoord;
     _vert_color = a_Color;
 
-    _draw_id = uint(a_PosId.w);
+#ifdef VERT_LIGHT_BYTES
+    // Scale the coordinates from the range of 0..255 and sample from the center of each texel
+    _vert_tex_light_coord = (a_LightCoord + 8.0) / 256.0;
+#else
+    _vert_tex_light_coord = a_LightCoord;
+#endif
+
+#ifdef VERT_REGION_RELATIVE_POSITIONS
+    // The position already includes the chunk's offset within the region, so the draw index is not needed
+    _draw_id = 0u;
+    _vert_flags = 0u;
+#else
+    uint packedId = uint(a_PosId.w);
+
+    _draw_id = packedId & 0xFFu;
+    _vert_flags = packedId >> 8u;
+#endif
 }
 
 #else
@@ -41,4 +59,8 @@ void _vert_init() {
 #endif
 
 // The translation vector of the current draw command
-#define _draw_translation Chunks[_draw_id].offset.xyz
\ No newline at end of file
+#ifdef VERT_REGION_RELATIVE_POSITIONS
+#define _draw_translation vec3(0.0)
+#else
+#define _draw_translation Chunks[_draw_id].offset.xyz
+#endif
\ No newline at end of file
@@ -0,0 +1,148 @@
+package me.jellysquid.mods.sodium.client.gl.arena;
+
+import me.jellysquid.mods.sodium.client.SodiumClientMod;
+import me.jellysquid.mods.sodium.client.gl.arena.staging.MappedStagingBuffer;
+import me.jellysquid.mods.sodium.client.gl.device.CommandList;
+import me.jellysquid.mods.sodium.client.gl.device.RecordingRenderDevice;
+import me.jellysquid.mods.sodium.client.util.NativeBuffer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives an arena through a long random sequence of uploads, frees, compactions and resizes, checking the consistency
+ * of its segment list after every step and that the contents of every live segment survive each of them.
+ */
+class AsyncBufferArenaRandomizedTest {
+    private static final int STEPS = 5000;
+    private static final int STRIDE = 16;
+
+    @BeforeAll
+    static void setupOptions() {
+        SodiumClientMod.useDefaultOptions();
+    }
+
+    @Test
+    void checkAssertionsAreEnabled() {
+        assertTrue(AsyncBufferArena.CHECK_ASSERTIONS, "The test task must set sodium.checkArenaAssertions");
+    }
+
+    @Test
+    void randomOperationsKeepArenaConsistent() {
+        for (long seed = 0; seed < 4; seed++) {
+            this.run(new Random(seed));
+        }
+    }
+
+    private void run(Random random) {
+        RecordingRenderDevice device = new RecordingRenderDevice();
+        device.makeActive();
+
+        CommandList commandList = device.createCommandList();
+
+        MappedStagingBuffer stagingBuffer = new MappedStagingBuffer(commandList, 16 * 1024, 256 * 1024);
+        AsyncBufferArena arena = new AsyncBufferArena(commandList, 64 * 1024, stagingBuffer);
+
+        List<Allocation> live = new ArrayList<>();
+        int nextValue = 1;
+
+        for (int step = 0; step < STEPS; step++) {
+            int op = random.nextInt(100);
+
+            if (op < 45 || live.isEmpty()) {
+                int count = 1 + random.nextInt(3);
+
+                List<PendingUpload> uploads = new ArrayList<>();
+                List<Allocation> allocations = new ArrayList<>();
+
+                for (int i = 0; i < count; i++) {
+                    int value = nextValue++ & 0xFF;
+
+                    PendingUpload upload = createUpload((1 + random.nextInt(128)) * STRIDE, value);
+
+                    uploads.add(upload);
+                    allocations.add(new Allocation(upload, value));
+                }
+
+                arena.upload(commandList, uploads.stream());
+
+                for (PendingUpload upload : uploads) {
+                    upload.getDataBuffers().forEach(NativeBuffer::free);
+                }
+
+                live.addAll(allocations);
+            } else if (op < 80) {
+                Allocation allocation = live.remove(random.nextInt(live.size()));
+                arena.free(allocation.segment());
+            } else if (op < 92) {
+                arena.compact(commandList, random.nextInt(16 * 1024));
+            } else if (op < 96) {
+                arena.shrink(commandList);
+            } else {
+                arena.trim(commandList);
+            }
+
+            arena.checkAssertions0();
+
+            assertEquals(live.stream().mapToInt(allocation -> allocation.segment().getLength()).sum(),
+                    arena.getDeviceUsedMemory(), "used memory at step " + step);
+
+            if (step % 100 == 0) {
+                assertContents(device, arena, live);
+            }
+
+            // Fences are signaled immediately, so the log is the only thing which would keep growing
+            device.clearCommands();
+        }
+
+        assertContents(device, arena, live);
+
+        for (Allocation allocation : live) {
+            arena.free(allocation.segment());
+        }
+
+        assertTrue(arena.isEmpty());
+
+        arena.delete(commandList);
+        stagingBuffer.delete(commandList);
+
+        device.makeInactive();
+    }
+
+    private static void assertContents(RecordingRenderDevice device, AsyncBufferArena arena, List<Allocation> live) {
+        ByteBuffer contents = device.getBufferContents(arena.getBufferObject());
+
+        for (Allocation allocation : live) {
+            GlBufferSegment segment = allocation.segment();
+
+            for (int i = segment.getOffset(); i < segment.getEnd(); i++) {
+                if (contents.get(i) != (byte) allocation.value()) {
+                    fail("Segment at offset " + segment.getOffset() + " was corrupted at byte " + i);
+                }
+            }
+        }
+    }
+
+    private static PendingUpload createUpload(int length, int value) {
+        NativeBuffer buffer = new NativeBuffer(length);
+        ByteBuffer data = buffer.getDirectBuffer();
+
+        for (int i = 0; i < length; i++) {
+            data.put(i, (byte) value);
+        }
+
+        return new PendingUpload(List.of(buffer));
+    }
+
+    private record Allocation(PendingUpload upload, int value) {
+        GlBufferSegment segment() {
+            return this.upload.getResult();
+        }
+    }
+}
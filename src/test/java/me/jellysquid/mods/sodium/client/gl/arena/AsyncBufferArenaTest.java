@@ -0,0 +1,242 @@
+package me.jellysquid.mods.sodium.client.gl.arena;
+
+import me.jellysquid.mods.sodium.client.SodiumClientMod;
+import me.jellysquid.mods.sodium.client.gl.arena.staging.MappedStagingBuffer;
+import me.jellysquid.mods.sodium.client.gl.device.CommandList;
+import me.jellysquid.mods.sodium.client.gl.device.RecordedCommand;
+import me.jellysquid.mods.sodium.client.gl.device.RecordingRenderDevice;
+import me.jellysquid.mods.sodium.client.util.NativeBuffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncBufferArenaTest {
+    private RecordingRenderDevice device;
+    private CommandList commandList;
+
+    private MappedStagingBuffer stagingBuffer;
+
+    private final List<NativeBuffer> buffers = new ArrayList<>();
+
+    @BeforeAll
+    static void setupOptions() {
+        SodiumClientMod.useDefaultOptions();
+    }
+
+    @BeforeEach
+    void setup() {
+        this.device = new RecordingRenderDevice();
+        this.device.makeActive();
+
+        this.commandList = this.device.createCommandList();
+        this.stagingBuffer = new MappedStagingBuffer(this.commandList, 4096, 64 * 1024);
+    }
+
+    @AfterEach
+    void cleanup() {
+        this.buffers.forEach(NativeBuffer::free);
+        this.buffers.clear();
+
+        this.stagingBuffer.delete(this.commandList);
+        this.device.makeInactive();
+    }
+
+    @Test
+    void uploadsAreCopiedThroughStagingBuffer() {
+        AsyncBufferArena arena = new AsyncBufferArena(this.commandList, 1024, this.stagingBuffer);
+
+        PendingUpload a = createUpload(100, 1);
+        PendingUpload b = createUpload(200, 2);
+
+        this.device.clearCommands();
+
+        assertFalse(arena.upload(this.commandList, Stream.of(a, b)), "arena buffer was re-allocated");
+
+        // The data is written into the mapped staging ring, and only reaches the arena through device copies
+        assertTrue(this.device.countCommands(RecordedCommand.FlushMappedRange.class) > 0);
+        assertTrue(this.device.countCommands(RecordedCommand.CopyBufferSubData.class) > 0);
+        assertEquals(1, this.device.countCommands(RecordedCommand.CreateFence.class));
+
+        assertSegmentContents(arena, a.getResult(), 1);
+        assertSegmentContents(arena, b.getResult(), 2);
+
+        assertFalse(overlaps(a.getResult(), b.getResult()));
+        assertEquals(300, arena.getDeviceUsedMemory());
+
+        arena.free(a.getResult());
+        arena.free(b.getResult());
+
+        assertTrue(arena.isEmpty());
+
+        arena.delete(this.commandList);
+    }
+
+    @Test
+    void growingArenaKeepsContents() {
+        AsyncBufferArena arena = new AsyncBufferArena(this.commandList, 256, this.stagingBuffer);
+
+        PendingUpload a = createUpload(200, 1);
+        assertFalse(arena.upload(this.commandList, Stream.of(a)));
+
+        // The second upload doesn't fit, so the arena must move its contents into a larger buffer
+        PendingUpload b = createUpload(200, 2);
+        assertTrue(arena.upload(this.commandList, Stream.of(b)), "arena buffer was not re-allocated");
+
+        assertTrue(arena.getDeviceAllocatedMemory() >= 400);
+
+        assertSegmentContents(arena, a.getResult(), 1);
+        assertSegmentContents(arena, b.getResult(), 2);
+
+        arena.delete(this.commandList);
+    }
+
+    @Test
+    void arenaGrowsByIncrement() {
+        AsyncBufferArena arena = new AsyncBufferArena(this.commandList, 1024, this.stagingBuffer);
+
+        arena.upload(this.commandList, Stream.of(createUpload(1024, 1)));
+        arena.upload(this.commandList, Stream.of(createUpload(16, 2)));
+
+        assertEquals(1024 + (1024 / 16), arena.getDeviceAllocatedMemory());
+
+        arena.delete(this.commandList);
+    }
+
+    @Test
+    void arenaGrowsGeometrically() {
+        AsyncBufferArena arena = new AsyncBufferArena(this.commandList, 1024, 2.0f, this.stagingBuffer);
+
+        arena.upload(this.commandList, Stream.of(createUpload(1024, 1)));
+        arena.upload(this.commandList, Stream.of(createUpload(16, 2)));
+
+        assertEquals(2048, arena.getDeviceAllocatedMemory());
+
+        // Allocations larger than the growth are still satisfied in a single resize
+        arena.upload(this.commandList, Stream.of(createUpload(1024, 3), createUpload(4096, 4)));
+
+        assertEquals(2048 + 4096 + 16, arena.getDeviceAllocatedMemory());
+
+        arena.delete(this.commandList);
+    }
+
+    @Test
+    void compactionSkipsSegmentsLargerThanBudget() {
+        AsyncBufferArena arena = new AsyncBufferArena(this.commandList, 8192, this.stagingBuffer);
+
+        // Segments are allocated from the end of the arena, so the last upload becomes the first segment
+        List<PendingUpload> uploads = new ArrayList<>();
+
+        int[] lengths = { 1024, 512, 256, 512, 256, 512, 1024, 2048, 2048 };
+
+        for (int i = 0; i < lengths.length; i++) {
+            uploads.add(createUpload(lengths[i], i + 1));
+        }
+
+        arena.upload(this.commandList, uploads.stream());
+
+        GlBufferSegment head = uploads.get(uploads.size() - 1).getResult();
+        assertEquals(0, head.getOffset());
+
+        // Leaves three free segments of 512 bytes between the smaller segments at the end of the arena
+        for (int i = 1; i <= 5; i += 2) {
+            arena.free(uploads.get(i).getResult());
+        }
+
+        int budget = 1024;
+        int copied = arena.compact(this.commandList, budget);
+
+        // The first two segments are each larger than the budget, but the segments after them can still be moved
+        assertTrue(copied > 0, "nothing was compacted");
+        assertTrue(copied <= budget, "compaction exceeded its budget");
+
+        assertEquals(0, head.getOffset());
+
+        arena.checkAssertions0();
+
+        for (int i = 0; i < uploads.size(); i++) {
+            if (i == 1 || i == 3 || i == 5) {
+                continue;
+            }
+
+            assertSegmentContents(arena, uploads.get(i).getResult(), i + 1);
+        }
+
+        arena.delete(this.commandList);
+    }
+
+    @Test
+    void shrinkingKeepsArenasWithLittleFreeSpace() {
+        AsyncBufferArena arena = new AsyncBufferArena(this.commandList, 1024, this.stagingBuffer);
+
+        List<PendingUpload> uploads = new ArrayList<>();
+
+        for (int i = 0; i < 8; i++) {
+            uploads.add(createUpload(1024, i + 1));
+        }
+
+        arena.upload(this.commandList, uploads.stream());
+
+        int capacity = arena.getDeviceAllocatedMemory();
+
+        // Only an eighth of the arena is free, which isn't worth copying the whole arena for
+        arena.free(uploads.get(0).getResult());
+
+        assertEquals(0, arena.shrink(this.commandList));
+        assertEquals(capacity, arena.getDeviceAllocatedMemory());
+
+        for (int i = 1; i < 4; i++) {
+            arena.free(uploads.get(i).getResult());
+        }
+
+        // Once half of the arena is free it is shrunk, but still keeps some space for the next allocations
+        int reclaimed = arena.shrink(this.commandList);
+
+        assertTrue(reclaimed > 0, "arena was not shrunk");
+        assertEquals(capacity - reclaimed, arena.getDeviceAllocatedMemory());
+        assertTrue(arena.getDeviceAllocatedMemory() > arena.getDeviceUsedMemory() + 64, "arena kept no free space");
+
+        // The space which was kept free doesn't make the arena shrink again
+        assertEquals(0, arena.shrink(this.commandList));
+
+        arena.checkAssertions0();
+
+        for (int i = 4; i < uploads.size(); i++) {
+            assertSegmentContents(arena, uploads.get(i).getResult(), i + 1);
+        }
+
+        arena.delete(this.commandList);
+    }
+
+    private PendingUpload createUpload(int length, int value) {
+        NativeBuffer buffer = new NativeBuffer(length);
+        this.buffers.add(buffer);
+
+        ByteBuffer data = buffer.getDirectBuffer();
+
+        for (int i = 0; i < length; i++) {
+            data.put(i, (byte) value);
+        }
+
+        return new PendingUpload(List.of(buffer));
+    }
+
+    private void assertSegmentContents(GlBufferArena arena, GlBufferSegment segment, int value) {
+        ByteBuffer contents = this.device.getBufferContents(arena.getBufferObject());
+
+        for (int i = segment.getOffset(); i < segment.getEnd(); i++) {
+            assertEquals((byte) value, contents.get(i), "byte at offset " + i);
+        }
+    }
+
+    private static boolean overlaps(GlBufferSegment a, GlBufferSegment b) {
+        return a.getOffset() < b.getEnd() && b.getOffset() < a.getEnd();
+    }
+}
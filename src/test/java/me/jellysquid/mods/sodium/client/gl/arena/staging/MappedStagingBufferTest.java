@@ -0,0 +1,219 @@
+package me.jellysquid.mods.sodium.client.gl.arena.staging;
+
+import me.jellysquid.mods.sodium.client.gl.buffer.GlBufferUsage;
+import me.jellysquid.mods.sodium.client.gl.buffer.GlMutableBuffer;
+import me.jellysquid.mods.sodium.client.gl.device.CommandList;
+import me.jellysquid.mods.sodium.client.gl.device.RecordedCommand;
+import me.jellysquid.mods.sodium.client.gl.device.RecordingRenderDevice;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedStagingBufferTest {
+    private static final int RING_CAPACITY = 1024;
+
+    private RecordingRenderDevice device;
+    private CommandList commandList;
+
+    private GlMutableBuffer dst;
+
+    @BeforeEach
+    void setup() {
+        this.device = new RecordingRenderDevice();
+        this.device.makeActive();
+
+        this.commandList = this.device.createCommandList();
+
+        this.dst = this.commandList.createMutableBuffer();
+        this.commandList.allocateStorage(this.dst, 16 * 1024, GlBufferUsage.STATIC_DRAW);
+    }
+
+    @AfterEach
+    void cleanup() {
+        this.commandList.deleteBuffer(this.dst);
+        this.device.makeInactive();
+    }
+
+    @Test
+    void consecutiveUploadsAreCopiedTogether() {
+        MappedStagingBuffer staging = new MappedStagingBuffer(this.commandList, RING_CAPACITY, RING_CAPACITY);
+
+        this.device.clearCommands();
+
+        staging.enqueueCopy(this.commandList, createData(100, 1), this.dst, 0);
+        staging.enqueueCopy(this.commandList, createData(200, 2), this.dst, 100);
+        staging.flush(this.commandList);
+
+        assertEquals(1, this.device.countCommands(RecordedCommand.CopyBufferSubData.class));
+        assertEquals(1, this.device.countCommands(RecordedCommand.FlushMappedRange.class));
+        assertEquals(1, this.device.countCommands(RecordedCommand.CreateFence.class));
+
+        this.assertContents(0, 100, 1);
+        this.assertContents(100, 200, 2);
+
+        staging.delete(this.commandList);
+    }
+
+    @Test
+    void uploadsWrapAroundRing() {
+        MappedStagingBuffer staging = new MappedStagingBuffer(this.commandList, RING_CAPACITY, RING_CAPACITY);
+
+        staging.enqueueCopy(this.commandList, createData(600, 1), this.dst, 0);
+        staging.flush(this.commandList);
+        staging.flip(this.commandList);
+
+        int ring = this.getLastMappedHandle();
+        this.device.clearCommands();
+
+        // Only 424 bytes are left at the end of the ring, so the upload is split across the end and the start
+        staging.enqueueCopy(this.commandList, createData(600, 2), this.dst, 1000);
+        staging.flush(this.commandList);
+
+        List<RecordedCommand> commands = this.device.getCommands();
+
+        assertTrue(commands.contains(new RecordedCommand.FlushMappedRange(ring, 600, 424)));
+        assertTrue(commands.contains(new RecordedCommand.FlushMappedRange(ring, 0, 176)));
+        assertEquals(2, this.device.countCommands(RecordedCommand.CopyBufferSubData.class));
+
+        this.assertContents(0, 600, 1);
+        this.assertContents(1000, 600, 2);
+
+        assertEquals(0, staging.getFallbackCount());
+
+        staging.delete(this.commandList);
+    }
+
+    @Test
+    void memoryIsOnlyReusedOnceFenceIsSignaled() {
+        MappedStagingBuffer staging = new MappedStagingBuffer(this.commandList, RING_CAPACITY, RING_CAPACITY);
+
+        this.device.setSignalFences(false);
+
+        staging.enqueueCopy(this.commandList, createData(768, 1), this.dst, 0);
+        staging.flush(this.commandList);
+        staging.flip(this.commandList);
+
+        // The device may still be reading the first upload, and the ring can't grow, so this has to fall back
+        staging.enqueueCopy(this.commandList, createData(512, 2), this.dst, 1024);
+        staging.flush(this.commandList);
+        staging.flip(this.commandList);
+
+        assertEquals(1, staging.getFallbackCount());
+
+        this.device.setSignalFences(true);
+        staging.flip(this.commandList);
+
+        staging.enqueueCopy(this.commandList, createData(512, 3), this.dst, 2048);
+        staging.flush(this.commandList);
+
+        assertEquals(1, staging.getFallbackCount());
+
+        this.assertContents(0, 768, 1);
+        this.assertContents(1024, 512, 2);
+        this.assertContents(2048, 512, 3);
+
+        staging.delete(this.commandList);
+    }
+
+    @Test
+    void ringsAreAddedUpToMaxCapacity() {
+        MappedStagingBuffer staging = new MappedStagingBuffer(this.commandList, RING_CAPACITY, RING_CAPACITY * 4);
+
+        this.device.setSignalFences(false);
+        this.device.clearCommands();
+
+        staging.enqueueCopy(this.commandList, createData(1024, 1), this.dst, 0);
+        staging.enqueueCopy(this.commandList, createData(1024, 2), this.dst, 1024);
+
+        // Larger uploads get a ring which is large enough to hold them
+        staging.enqueueCopy(this.commandList, createData(2048, 3), this.dst, 2048);
+
+        assertEquals(2, this.device.countCommands(RecordedCommand.MapBuffer.class));
+        assertTrue(this.device.getCommands().contains(new RecordedCommand.MapBuffer(this.getLastMappedHandle(), 0, 2048)));
+
+        // The rings now add up to the maximum capacity
+        staging.enqueueCopy(this.commandList, createData(16, 4), this.dst, 4096);
+
+        assertEquals(2, this.device.countCommands(RecordedCommand.MapBuffer.class));
+        assertEquals(1, staging.getFallbackCount());
+
+        staging.flush(this.commandList);
+
+        this.assertContents(0, 1024, 1);
+        this.assertContents(1024, 1024, 2);
+        this.assertContents(2048, 2048, 3);
+        this.assertContents(4096, 16, 4);
+
+        staging.delete(this.commandList);
+    }
+
+    @Test
+    void idleRingsAreReleased() {
+        MappedStagingBuffer staging = new MappedStagingBuffer(this.commandList, RING_CAPACITY, RING_CAPACITY * 4);
+
+        this.device.setSignalFences(false);
+
+        staging.enqueueCopy(this.commandList, createData(1024, 1), this.dst, 0);
+        staging.enqueueCopy(this.commandList, createData(1024, 2), this.dst, 1024);
+        staging.flush(this.commandList);
+
+        this.device.setSignalFences(true);
+        this.device.clearCommands();
+
+        // The first flip retires the fences, and also counts as the first idle frame
+        for (int i = 0; i < MappedStagingBuffer.IDLE_RING_FRAMES - 1; i++) {
+            staging.flip(this.commandList);
+        }
+
+        assertEquals(0, this.device.countCommands(RecordedCommand.UnmapBuffer.class));
+
+        staging.flip(this.commandList);
+
+        // Only the added ring is released, as the first ring is always kept
+        assertEquals(1, this.device.countCommands(RecordedCommand.UnmapBuffer.class));
+        assertEquals(1, this.device.countCommands(RecordedCommand.DeleteBuffer.class));
+
+        for (int i = 0; i < MappedStagingBuffer.IDLE_RING_FRAMES * 2; i++) {
+            staging.flip(this.commandList);
+        }
+
+        assertEquals(1, this.device.countCommands(RecordedCommand.UnmapBuffer.class));
+
+        staging.delete(this.commandList);
+    }
+
+    private int getLastMappedHandle() {
+        int handle = -1;
+
+        for (RecordedCommand command : this.device.getCommands()) {
+            if (command instanceof RecordedCommand.MapBuffer map) {
+                handle = map.buffer();
+            }
+        }
+
+        return handle;
+    }
+
+    private void assertContents(int offset, int length, int value) {
+        ByteBuffer contents = this.device.getBufferContents(this.dst);
+
+        for (int i = offset; i < offset + length; i++) {
+            assertEquals((byte) value, contents.get(i), "byte at offset " + i);
+        }
+    }
+
+    private static ByteBuffer createData(int length, int value) {
+        ByteBuffer data = ByteBuffer.allocateDirect(length);
+
+        for (int i = 0; i < length; i++) {
+            data.put(i, (byte) value);
+        }
+
+        return data;
+    }
+}
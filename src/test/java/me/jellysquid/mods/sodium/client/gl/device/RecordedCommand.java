@@ -0,0 +1,64 @@
+package me.jellysquid.mods.sodium.client.gl.device;
+
+import me.jellysquid.mods.sodium.client.gl.buffer.GlBufferTarget;
+import me.jellysquid.mods.sodium.client.gl.tessellation.GlIndexType;
+import me.jellysquid.mods.sodium.client.gl.tessellation.GlPrimitiveType;
+
+/**
+ * A command which was issued to a {@link RecordingRenderDevice}. Buffers are identified by their handles, which are
+ * unique for the lifetime of the device.
+ */
+public interface RecordedCommand {
+    record CreateBuffer(int buffer, long size) implements RecordedCommand {
+
+    }
+
+    record AllocateStorage(int buffer, long size) implements RecordedCommand {
+
+    }
+
+    record UploadData(int buffer, long bytes) implements RecordedCommand {
+
+    }
+
+    record CopyBufferSubData(int src, int dst, long readOffset, long writeOffset, long bytes) implements RecordedCommand {
+
+    }
+
+    record BindBuffer(GlBufferTarget target, int buffer) implements RecordedCommand {
+
+    }
+
+    record DeleteBuffer(int buffer) implements RecordedCommand {
+
+    }
+
+    record MapBuffer(int buffer, long offset, long length) implements RecordedCommand {
+
+    }
+
+    record UnmapBuffer(int buffer) implements RecordedCommand {
+
+    }
+
+    record FlushMappedRange(int buffer, int offset, int length) implements RecordedCommand {
+
+    }
+
+    record CreateFence() implements RecordedCommand {
+
+    }
+
+    record BindTessellation(GlPrimitiveType primitiveType) implements RecordedCommand {
+
+    }
+
+    /**
+     * @param drawCount The number of draws in the batch
+     * @param elementCount The total number of elements drawn by all draws in the batch
+     */
+    record MultiDrawElementsBaseVertex(GlPrimitiveType primitiveType, GlIndexType indexType, int drawCount,
+                                       long elementCount) implements RecordedCommand {
+
+    }
+}
@@ -0,0 +1,435 @@
+package me.jellysquid.mods.sodium.client.gl.device;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import me.jellysquid.mods.sodium.client.gl.array.GlVertexArray;
+import me.jellysquid.mods.sodium.client.gl.buffer.*;
+import me.jellysquid.mods.sodium.client.gl.functions.BufferStorageFunctions;
+import me.jellysquid.mods.sodium.client.gl.functions.DeviceFunctions;
+import me.jellysquid.mods.sodium.client.gl.sync.GlFence;
+import me.jellysquid.mods.sodium.client.gl.tessellation.*;
+import me.jellysquid.mods.sodium.client.gl.util.EnumBitField;
+import org.lwjgl.PointerBuffer;
+import org.lwjgl.opengl.GLCapabilities;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A render device which does not require an OpenGL context. The contents of every buffer are kept in system memory,
+ * so that copies and mappings behave as they would on a real device, and every command is recorded so that it can be
+ * inspected afterwards. This allows the buffer management code to be exercised and measured on machines without a
+ * graphics card.
+ *
+ * Code which talks to OpenGL directly, such as shader programs or vertex arrays, is not supported by this device.
+ */
+public class RecordingRenderDevice implements RenderDevice {
+    private final Int2ObjectMap<BufferStorage> storage = new Int2ObjectOpenHashMap<>();
+    private final List<RecordedCommand> commands = new ArrayList<>();
+
+    private final CommandList commandList = new RecordingCommandList();
+    private final DrawCommandList drawCommandList = new RecordingDrawCommandList();
+
+    // The recording device never calls into the buffer storage functions, but reports them as available so that
+    // callers will pick the same code paths as on a modern driver
+    private final DeviceFunctions functions = new DeviceFunctions(BufferStorageFunctions.CORE);
+
+    private int nextHandle = 1;
+
+    private boolean isActive;
+    private boolean signalFences = true;
+
+    private GlTessellation activeTessellation;
+
+    @Override
+    public CommandList createCommandList() {
+        this.checkDeviceActive();
+
+        return this.commandList;
+    }
+
+    @Override
+    public void makeActive() {
+        this.isActive = true;
+    }
+
+    @Override
+    public void makeInactive() {
+        this.isActive = false;
+    }
+
+    /**
+     * @return Always null, as there is no OpenGL context
+     */
+    @Override
+    public GLCapabilities getCapabilities() {
+        return null;
+    }
+
+    @Override
+    public DeviceFunctions getDeviceFunctions() {
+        return this.functions;
+    }
+
+    /**
+     * Controls whether fences report their commands as completed. Fences which are not signaled can be used to simulate
+     * a device which is still busy with earlier work.
+     */
+    public void setSignalFences(boolean signalFences) {
+        this.signalFences = signalFences;
+    }
+
+    /**
+     * @return The commands which have been issued since the device was created or the log was last cleared
+     */
+    public List<RecordedCommand> getCommands() {
+        return Collections.unmodifiableList(this.commands);
+    }
+
+    public void clearCommands() {
+        this.commands.clear();
+    }
+
+    /**
+     * @return The number of recorded commands of the given type
+     */
+    public int countCommands(Class<? extends RecordedCommand> type) {
+        int count = 0;
+
+        for (RecordedCommand command : this.commands) {
+            if (type.isInstance(command)) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * @return The contents of the given buffer, which remain valid until the buffer's storage is re-allocated or the
+     * buffer is deleted
+     */
+    public ByteBuffer getBufferContents(GlBuffer buffer) {
+        return this.getStorage(buffer).asByteBuffer();
+    }
+
+    /**
+     * @return The number of bytes allocated for all buffers which have not been deleted
+     */
+    public long getAllocatedBytes() {
+        long bytes = 0;
+
+        for (BufferStorage storage : this.storage.values()) {
+            bytes += storage.size();
+        }
+
+        return bytes;
+    }
+
+    private BufferStorage getStorage(GlBuffer buffer) {
+        BufferStorage storage = this.storage.get(buffer.handle());
+
+        if (storage == null) {
+            throw new IllegalStateException("Buffer has no storage");
+        }
+
+        return storage;
+    }
+
+    private void setStorage(GlBuffer buffer, long size) {
+        BufferStorage prev = this.storage.put(buffer.handle(), BufferStorage.allocate(size));
+
+        if (prev != null) {
+            prev.free();
+        }
+    }
+
+    private void checkDeviceActive() {
+        if (!this.isActive) {
+            throw new IllegalStateException("Tried to access device from unmanaged context");
+        }
+    }
+
+    private record BufferStorage(long address, long size) {
+        private static BufferStorage allocate(long size) {
+            long address = MemoryUtil.nmemCalloc(1, Math.max(1L, size));
+
+            if (address == MemoryUtil.NULL) {
+                throw new OutOfMemoryError("Failed to allocate " + size + " bytes of buffer storage");
+            }
+
+            return new BufferStorage(address, size);
+        }
+
+        private ByteBuffer asByteBuffer() {
+            return MemoryUtil.memByteBuffer(this.address, (int) this.size);
+        }
+
+        private void checkRange(long offset, long length) {
+            if (offset < 0 || length < 0 || offset + length > this.size) {
+                throw new IndexOutOfBoundsException("Range [%d, %d) is outside of buffer storage with size %d"
+                        .formatted(offset, offset + length, this.size));
+            }
+        }
+
+        private void free() {
+            MemoryUtil.nmemFree(this.address);
+        }
+    }
+
+    private class RecordingCommandList implements CommandList {
+        @Override
+        public GlMutableBuffer createMutableBuffer() {
+            GlMutableBuffer buffer = new GlMutableBuffer(RecordingRenderDevice.this.nextHandle++);
+            RecordingRenderDevice.this.setStorage(buffer, 0L);
+
+            RecordingRenderDevice.this.commands.add(new RecordedCommand.CreateBuffer(buffer.handle(), 0L));
+
+            return buffer;
+        }
+
+        @Override
+        public GlImmutableBuffer createImmutableBuffer(long bufferSize, EnumBitField<GlBufferStorageFlags> flags) {
+            GlImmutableBuffer buffer = new GlImmutableBuffer(RecordingRenderDevice.this.nextHandle++, flags);
+            RecordingRenderDevice.this.setStorage(buffer, bufferSize);
+
+            RecordingRenderDevice.this.commands.add(new RecordedCommand.CreateBuffer(buffer.handle(), bufferSize));
+
+            return buffer;
+        }
+
+        @Override
+        public GlTessellation createTessellation(GlPrimitiveType primitiveType, TessellationBinding[] bindings) {
+            return new RecordedTessellation(primitiveType, bindings);
+        }
+
+        @Override
+        public void bindVertexArray(GlVertexArray array) {
+            // Vertex arrays can't be created without an OpenGL context, so there is nothing to bind
+        }
+
+        @Override
+        public void uploadData(GlMutableBuffer glBuffer, ByteBuffer byteBuffer, GlBufferUsage usage) {
+            RecordingRenderDevice.this.setStorage(glBuffer, byteBuffer.remaining());
+
+            MemoryUtil.memCopy(MemoryUtil.memAddress(byteBuffer), RecordingRenderDevice.this.getStorage(glBuffer).address(),
+                    byteBuffer.remaining());
+
+            glBuffer.setSize(byteBuffer.remaining());
+
+            RecordingRenderDevice.this.commands.add(new RecordedCommand.UploadData(glBuffer.handle(), byteBuffer.remaining()));
+        }
+
+        @Override
+        public void copyBufferSubData(GlBuffer src, GlBuffer dst, long readOffset, long writeOffset, long bytes) {
+            BufferStorage srcStorage = RecordingRenderDevice.this.getStorage(src);
+            BufferStorage dstStorage = RecordingRenderDevice.this.getStorage(dst);
+
+            srcStorage.checkRange(readOffset, bytes);
+            dstStorage.checkRange(writeOffset, bytes);
+
+            MemoryUtil.memCopy(srcStorage.address() + readOffset, dstStorage.address() + writeOffset, bytes);
+
+            RecordingRenderDevice.this.commands.add(new RecordedCommand.CopyBufferSubData(src.handle(), dst.handle(),
+                    readOffset, writeOffset, bytes));
+        }
+
+        @Override
+        public void bindBuffer(GlBufferTarget target, GlBuffer buffer) {
+            RecordingRenderDevice.this.commands.add(new RecordedCommand.BindBuffer(target, buffer.handle()));
+        }
+
+        @Override
+        public void unbindVertexArray() {
+
+        }
+
+        @Override
+        public void allocateStorage(GlMutableBuffer buffer, long bufferSize, GlBufferUsage usage) {
+            RecordingRenderDevice.this.setStorage(buffer, bufferSize);
+            buffer.setSize(bufferSize);
+
+            RecordingRenderDevice.this.commands.add(new RecordedCommand.AllocateStorage(buffer.handle(), bufferSize));
+        }
+
+        @Override
+        public void deleteBuffer(GlBuffer buffer) {
+            if (buffer.getActiveMapping() != null) {
+                this.unmap(buffer.getActiveMapping());
+            }
+
+            int handle = buffer.handle();
+            buffer.invalidateHandle();
+
+            BufferStorage storage = RecordingRenderDevice.this.storage.remove(handle);
+
+            if (storage != null) {
+                storage.free();
+            }
+
+            RecordingRenderDevice.this.commands.add(new RecordedCommand.DeleteBuffer(handle));
+        }
+
+        @Override
+        public void deleteVertexArray(GlVertexArray vertexArray) {
+            vertexArray.invalidateHandle();
+        }
+
+        @Override
+        public void flush() {
+            // NO-OP
+        }
+
+        @Override
+        public DrawCommandList beginTessellating(GlTessellation tessellation) {
+            RecordingRenderDevice.this.activeTessellation = tessellation;
+            RecordingRenderDevice.this.activeTessellation.bind(this);
+
+            return RecordingRenderDevice.this.drawCommandList;
+        }
+
+        @Override
+        public void deleteTessellation(GlTessellation tessellation) {
+            tessellation.delete(this);
+        }
+
+        @Override
+        public GlBufferMapping mapBuffer(GlBuffer buffer, long offset, long length, EnumBitField<GlBufferMapFlags> flags) {
+            if (buffer.getActiveMapping() != null) {
+                throw new IllegalStateException("Buffer is already mapped");
+            }
+
+            if (flags.contains(GlBufferMapFlags.PERSISTENT) && !(buffer instanceof GlImmutableBuffer)) {
+                throw new IllegalStateException("Tried to map mutable buffer as persistent");
+            }
+
+            BufferStorage storage = RecordingRenderDevice.this.getStorage(buffer);
+            storage.checkRange(offset, length);
+
+            // Writes to the mapping go directly into the buffer's storage, as they would with a coherent mapping
+            GlBufferMapping mapping = new GlBufferMapping(buffer, MemoryUtil.memByteBuffer(storage.address() + offset, (int) length));
+            buffer.setActiveMapping(mapping);
+
+            RecordingRenderDevice.this.commands.add(new RecordedCommand.MapBuffer(buffer.handle(), offset, length));
+
+            return mapping;
+        }
+
+        @Override
+        public void unmap(GlBufferMapping map) {
+            checkMapDisposed(map);
+
+            GlBuffer buffer = map.getBufferObject();
+            buffer.setActiveMapping(null);
+
+            map.dispose();
+
+            RecordingRenderDevice.this.commands.add(new RecordedCommand.UnmapBuffer(buffer.handle()));
+        }
+
+        @Override
+        public void flushMappedRange(GlBufferMapping map, int offset, int length) {
+            checkMapDisposed(map);
+
+            RecordingRenderDevice.this.commands.add(new RecordedCommand.FlushMappedRange(map.getBufferObject().handle(), offset, length));
+        }
+
+        @Override
+        public GlFence createFence() {
+            RecordingRenderDevice.this.commands.add(new RecordedCommand.CreateFence());
+
+            return new RecordedFence();
+        }
+
+        private void checkMapDisposed(GlBufferMapping map) {
+            if (map.isDisposed()) {
+                throw new IllegalStateException("Buffer mapping is already disposed");
+            }
+        }
+    }
+
+    private class RecordingDrawCommandList implements DrawCommandList {
+        @Override
+        public void multiDrawElementsBaseVertex(PointerBuffer pointer, IntBuffer count, IntBuffer baseVertex, GlIndexType indexType) {
+            long elementCount = 0;
+
+            for (int i = count.position(); i < count.limit(); i++) {
+                elementCount += count.get(i);
+            }
+
+            RecordingRenderDevice.this.commands.add(new RecordedCommand.MultiDrawElementsBaseVertex(
+                    RecordingRenderDevice.this.activeTessellation.getPrimitiveType(), indexType, count.remaining(), elementCount));
+        }
+
+        @Override
+        public void endTessellating() {
+            RecordingRenderDevice.this.activeTessellation.unbind(RecordingRenderDevice.this.commandList);
+            RecordingRenderDevice.this.activeTessellation = null;
+        }
+
+        @Override
+        public void flush() {
+            if (RecordingRenderDevice.this.activeTessellation != null) {
+                this.endTessellating();
+            }
+        }
+    }
+
+    private static class RecordedTessellation extends GlAbstractTessellation {
+        private RecordedTessellation(GlPrimitiveType primitiveType, TessellationBinding[] bindings) {
+            super(primitiveType, bindings);
+        }
+
+        @Override
+        public void delete(CommandList commandList) {
+
+        }
+
+        @Override
+        public void bind(CommandList commandList) {
+            for (TessellationBinding binding : this.bindings) {
+                commandList.bindBuffer(binding.target(), binding.buffer());
+            }
+        }
+
+        @Override
+        public void unbind(CommandList commandList) {
+
+        }
+    }
+
+    private class RecordedFence extends GlFence {
+        private boolean disposed;
+
+        private RecordedFence() {
+            super(MemoryUtil.NULL);
+        }
+
+        @Override
+        public boolean isCompleted() {
+            this.checkDisposed();
+
+            return RecordingRenderDevice.this.signalFences;
+        }
+
+        @Override
+        public void sync(long timeout) {
+            this.checkDisposed();
+        }
+
+        @Override
+        public void delete() {
+            this.disposed = true;
+        }
+
+        private void checkDisposed() {
+            if (this.disposed) {
+                throw new IllegalStateException("Fence object has been disposed");
+            }
+        }
+    }
+}
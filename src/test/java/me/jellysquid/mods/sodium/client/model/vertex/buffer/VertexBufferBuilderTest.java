@@ -0,0 +1,100 @@
+package me.jellysquid.mods.sodium.client.model.vertex.buffer;
+
+import me.jellysquid.mods.sodium.client.SodiumClientMod;
+import me.jellysquid.mods.sodium.client.gl.attribute.BufferVertexFormat;
+import me.jellysquid.mods.sodium.client.util.NativeBuffer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VertexBufferBuilderTest {
+    private static final BufferVertexFormat FORMAT = () -> 16;
+
+    private static final int CAPACITY = 512 * 1024;
+
+    @BeforeAll
+    static void setupOptions() {
+        SodiumClientMod.useDefaultOptions();
+    }
+
+    @Test
+    void smallMeshesAreCopied() {
+        VertexBufferBuilder builder = new VertexBufferBuilder(FORMAT, CAPACITY);
+        builder.start();
+
+        ByteBuffer scratch = builder.getDirectBuffer();
+        write(builder, 4, 1);
+
+        NativeBuffer buffer = builder.pop();
+
+        // The mesh only holds on to as much memory as it needs, and the scratch buffer is kept for the next section
+        assertEquals(4 * FORMAT.getStride(), buffer.getLength());
+        assertTrue(buffer.getBlockSize() < CAPACITY);
+        assertSame(scratch, builder.getDirectBuffer());
+
+        assertContents(buffer, 1);
+
+        buffer.free();
+        builder.destroy();
+    }
+
+    @Test
+    void largeMeshesAreHandedOver() {
+        VertexBufferBuilder builder = new VertexBufferBuilder(FORMAT, CAPACITY);
+        builder.start();
+
+        int vertexCount = (CAPACITY / 2) / FORMAT.getStride();
+        write(builder, vertexCount, 2);
+
+        NativeBuffer buffer = builder.pop();
+
+        assertEquals(vertexCount * FORMAT.getStride(), buffer.getLength());
+        assertEquals(CAPACITY, buffer.getBlockSize());
+        assertNull(builder.getDirectBuffer());
+
+        assertContents(buffer, 2);
+
+        buffer.free();
+
+        // The builder allocates a new scratch buffer once it is started again
+        builder.start();
+        assertNotNull(builder.getDirectBuffer());
+
+        builder.destroy();
+    }
+
+    @Test
+    void emptyBuilderReturnsNothing() {
+        VertexBufferBuilder builder = new VertexBufferBuilder(FORMAT, CAPACITY);
+        builder.start();
+
+        assertNull(builder.pop());
+
+        builder.destroy();
+    }
+
+    private static void write(VertexBufferBuilder builder, int vertexCount, int value) {
+        int bytes = vertexCount * FORMAT.getStride();
+
+        builder.ensureBufferCapacity(bytes);
+
+        ByteBuffer buffer = builder.getDirectBuffer();
+
+        for (int i = 0; i < bytes; i++) {
+            buffer.put(builder.getWriterPosition() + i, (byte) value);
+        }
+
+        builder.flush(vertexCount, FORMAT);
+    }
+
+    private static void assertContents(NativeBuffer buffer, int value) {
+        ByteBuffer data = buffer.getDirectBuffer();
+
+        for (int i = 0; i < data.limit(); i++) {
+            assertEquals((byte) value, data.get(i), "byte at offset " + i);
+        }
+    }
+}
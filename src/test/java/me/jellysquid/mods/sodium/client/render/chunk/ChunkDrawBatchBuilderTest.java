@@ -0,0 +1,267 @@
+package me.jellysquid.mods.sodium.client.render.chunk;
+
+import me.jellysquid.mods.sodium.client.SodiumClientMod;
+import me.jellysquid.mods.sodium.client.gl.arena.GlBufferSegment;
+import me.jellysquid.mods.sodium.client.gl.util.ElementRange;
+import me.jellysquid.mods.sodium.client.gl.util.MultiDrawBatch;
+import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadFacing;
+import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkMeshData;
+import me.jellysquid.mods.sodium.client.render.chunk.data.ChunkRenderBounds;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the draws produced for sections whose facings are laid out the same way as
+ * {@link me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkBuildBuffers#createMesh}, comparing them against
+ * one draw per visible facing, which is what was issued before draws were merged.
+ */
+class ChunkDrawBatchBuilderTest {
+    private static final ChunkRenderBounds BOUNDS = new ChunkRenderBounds(0.0f, 0.0f, 0.0f, 16.0f, 16.0f, 16.0f);
+
+    // Positions below, inside and above the bounds on each axis
+    private static final double[] CAMERA_POSITIONS = { -8.0, 8.0, 24.0 };
+
+    private MultiDrawBatch batch;
+
+    @BeforeAll
+    static void setupOptions() {
+        SodiumClientMod.useDefaultOptions();
+    }
+
+    @BeforeEach
+    void setup() {
+        this.batch = MultiDrawBatch.create(ModelQuadFacing.COUNT * 4);
+    }
+
+    @AfterEach
+    void cleanup() {
+        this.batch.delete();
+    }
+
+    @Test
+    void visibleSectionIsDrawnOnce() {
+        ChunkDrawBatchBuilder builder = new ChunkDrawBatchBuilder(this.batch, true);
+        ChunkGraphicsState state = createSection(4, 8, 12, 16, 20, 24, 28);
+
+        builder.begin();
+        builder.addSection(state, BOUNDS, 0, new ChunkCameraContext(8.0, 8.0, 8.0));
+
+        assertTrue(builder.end());
+        assertEquals(ModelQuadFacing.COUNT, countVisibleParts(state, new ChunkCameraContext(8.0, 8.0, 8.0)));
+        assertDraws(List.of(new Draw(0, 112)));
+        assertEquals(112, builder.getMaxBatchVertexCount());
+    }
+
+    @Test
+    void sectionIsDrawnOnceWithoutFaceCulling() {
+        ChunkDrawBatchBuilder builder = new ChunkDrawBatchBuilder(this.batch, false);
+        ChunkGraphicsState state = createSection(4, 0, 12, 16, 0, 24, 28);
+
+        builder.begin();
+        builder.addSection(state, BOUNDS, 0, new ChunkCameraContext(-8.0, -8.0, -8.0));
+
+        assertTrue(builder.end());
+        assertDraws(List.of(new Draw(0, 84)));
+    }
+
+    @Test
+    void visibleFacingsAreMergedInMeshOrder() {
+        ChunkDrawBatchBuilder builder = new ChunkDrawBatchBuilder(this.batch, true);
+        ChunkGraphicsState state = createSection(4, 8, 12, 16, 20, 24, 28);
+
+        for (double x : CAMERA_POSITIONS) {
+            for (double y : CAMERA_POSITIONS) {
+                for (double z : CAMERA_POSITIONS) {
+                    ChunkCameraContext camera = new ChunkCameraContext(x, y, z);
+
+                    builder.begin();
+                    builder.addSection(state, BOUNDS, 0, camera);
+                    builder.end();
+
+                    List<Draw> expected = getExpectedDraws(state, 0, camera);
+
+                    assertDraws(expected);
+                    assertTrue(expected.size() <= countVisibleParts(state, camera));
+                }
+            }
+        }
+    }
+
+    @Test
+    void adjacentSectionsAreMerged() {
+        ChunkDrawBatchBuilder builder = new ChunkDrawBatchBuilder(this.batch, true);
+        ChunkCameraContext camera = new ChunkCameraContext(8.0, 8.0, 8.0);
+
+        builder.begin();
+        builder.addSection(createSection(4, 8, 12, 16, 20, 24, 28), BOUNDS, 0, camera);
+        builder.addSection(createSection(4, 8, 12, 16, 20, 24, 28), BOUNDS, 112, camera);
+
+        // Leaves a gap after the previous section, so this one can't be merged into the draw
+        builder.addSection(createSection(4, 8, 12, 16, 20, 24, 28), BOUNDS, 240, camera);
+        builder.end();
+
+        assertDraws(List.of(new Draw(0, 224), new Draw(240, 112)));
+        assertEquals(224, builder.getMaxBatchVertexCount());
+    }
+
+    @Test
+    void mergedDrawsAreLimitedInSize() {
+        ChunkDrawBatchBuilder builder = new ChunkDrawBatchBuilder(this.batch, false);
+        ChunkCameraContext camera = new ChunkCameraContext(8.0, 8.0, 8.0);
+
+        int half = ChunkDrawBatchBuilder.MAX_MERGED_VERTEX_COUNT / 2;
+
+        builder.begin();
+        builder.addSection(createSection(0, 0, 0, 0, 0, 0, half), BOUNDS, 0, camera);
+        builder.addSection(createSection(0, 0, 0, 0, 0, 0, half), BOUNDS, half, camera);
+        builder.end();
+
+        assertDraws(List.of(new Draw(0, ChunkDrawBatchBuilder.MAX_MERGED_VERTEX_COUNT)));
+
+        builder.begin();
+        builder.addSection(createSection(0, 0, 0, 0, 0, 0, half), BOUNDS, 0, camera);
+        builder.addSection(createSection(0, 0, 0, 0, 0, 0, half + 4), BOUNDS, half, camera);
+        builder.end();
+
+        assertDraws(List.of(new Draw(0, half), new Draw(half, half + 4)));
+
+        builder.begin();
+        builder.addSection(createSection(0, 0, 0, 0, 0, 0, 40000), BOUNDS, 0, camera);
+        builder.addSection(createSection(0, 0, 0, 0, 0, 0, 40000), BOUNDS, 40000, camera);
+        builder.end();
+
+        assertDraws(List.of(new Draw(0, 40000), new Draw(40000, 40000)));
+        assertEquals(40000, builder.getMaxBatchVertexCount());
+    }
+
+    @Test
+    void emptyBatchIsReported() {
+        ChunkDrawBatchBuilder builder = new ChunkDrawBatchBuilder(this.batch, true);
+
+        builder.begin();
+        builder.addSection(createSection(0, 0, 0, 0, 0, 0, 0), BOUNDS, 0, new ChunkCameraContext(8.0, 8.0, 8.0));
+
+        assertFalse(builder.end());
+    }
+
+    private void assertDraws(List<Draw> expected) {
+        IntBuffer counts = this.batch.getCountBuffer();
+        IntBuffer baseVertices = this.batch.getBaseVertexBuffer();
+
+        List<Draw> actual = new ArrayList<>();
+
+        for (int i = 0; i < counts.limit(); i++) {
+            actual.add(new Draw(baseVertices.get(i), counts.get(i)));
+        }
+
+        List<Draw> expectedElements = new ArrayList<>();
+
+        for (Draw draw : expected) {
+            expectedElements.add(new Draw(draw.baseVertex(), SharedQuadIndexBuffer.getElementCount(draw.count())));
+        }
+
+        assertEquals(expectedElements, actual);
+    }
+
+    /**
+     * Merges the visible facings of a section in the order that they are laid out in its vertex data, independently of
+     * the order in which the builder adds them.
+     */
+    private static List<Draw> getExpectedDraws(ChunkGraphicsState state, int baseVertex, ChunkCameraContext camera) {
+        List<Draw> draws = new ArrayList<>();
+
+        int start = -1;
+        int end = -1;
+
+        for (ModelQuadFacing facing : ModelQuadFacing.VALUES) {
+            ElementRange part = state.getModelPart(facing);
+
+            if (part == null || !isVisible(facing, camera)) {
+                continue;
+            }
+
+            int partStart = baseVertex + part.vertexStart();
+
+            if (start >= 0 && end == partStart) {
+                end += part.vertexCount();
+                continue;
+            }
+
+            if (start >= 0) {
+                draws.add(new Draw(start, end - start));
+            }
+
+            start = partStart;
+            end = partStart + part.vertexCount();
+        }
+
+        if (start >= 0) {
+            draws.add(new Draw(start, end - start));
+        }
+
+        return draws;
+    }
+
+    private static int countVisibleParts(ChunkGraphicsState state, ChunkCameraContext camera) {
+        int count = 0;
+
+        for (ModelQuadFacing facing : ModelQuadFacing.VALUES) {
+            if (state.getModelPart(facing) != null && isVisible(facing, camera)) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    private static boolean isVisible(ModelQuadFacing facing, ChunkCameraContext camera) {
+        return switch (facing) {
+            case UP -> camera.posY > BOUNDS.y1;
+            case DOWN -> camera.posY < BOUNDS.y2;
+            case EAST -> camera.posX > BOUNDS.x1;
+            case WEST -> camera.posX < BOUNDS.x2;
+            case SOUTH -> camera.posZ > BOUNDS.z1;
+            case NORTH -> camera.posZ < BOUNDS.z2;
+            case UNASSIGNED -> true;
+        };
+    }
+
+    /**
+     * Lays out the facings of a section back-to-back in {@link ModelQuadFacing#VALUES} order, skipping empty facings,
+     * in the same way as the meshes created by chunk builds.
+     *
+     * @param vertexCounts The number of vertices of each facing, by ordinal
+     */
+    private static ChunkGraphicsState createSection(int... vertexCounts) {
+        Map<ModelQuadFacing, ElementRange> ranges = new EnumMap<>(ModelQuadFacing.class);
+
+        int vertexPointer = 0;
+
+        for (ModelQuadFacing facing : ModelQuadFacing.VALUES) {
+            int vertexCount = vertexCounts[facing.ordinal()];
+
+            if (vertexCount == 0) {
+                continue;
+            }
+
+            ranges.put(facing, new ElementRange(vertexPointer, vertexCount));
+            vertexPointer += vertexCount;
+        }
+
+        return new ChunkGraphicsState(new GlBufferSegment(null, 0, vertexPointer), new ChunkMeshData(null, ranges));
+    }
+
+    private record Draw(int baseVertex, int count) {
+
+    }
+}
@@ -0,0 +1,181 @@
+package me.jellysquid.mods.sodium.client.render.chunk.format.compact;
+
+import me.jellysquid.mods.sodium.client.SodiumClientMod;
+import me.jellysquid.mods.sodium.client.model.vertex.buffer.VertexBufferBuilder;
+import me.jellysquid.mods.sodium.client.render.chunk.format.ModelVertexSink;
+import me.jellysquid.mods.sodium.client.render.chunk.region.RenderRegion;
+import me.jellysquid.mods.sodium.client.util.NativeBuffer;
+import me.jellysquid.mods.sodium.client.util.color.ColorABGR;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactModelVertexTypeTest {
+    private static final CompactModelVertexType VERTEX_TYPE = new CompactModelVertexType();
+
+    @BeforeAll
+    static void setupOptions() {
+        SodiumClientMod.useDefaultOptions();
+    }
+
+    @Test
+    void positionsOnModelGridAreExact() {
+        // Positions may extend up to half a chunk past either side of the chunk, which is the margin the format leaves
+        // around each region
+        for (int chunk = 0; chunk < RenderRegion.REGION_WIDTH; chunk++) {
+            for (int step = -8 * 16; step <= 24 * 16; step++) {
+                float v = step / 16.0f;
+
+                assertEquals((chunk * 16) + v, decode(CompactModelVertexType.encodePosition(v, chunk)),
+                        "chunk " + chunk + ", position " + v);
+            }
+        }
+    }
+
+    @Test
+    void positionsOffGridAreRounded() {
+        // Rounding to the nearest step leaves at most half a step of error, plus the error of the float arithmetic
+        float tolerance = (VERTEX_TYPE.getPositionScale() * 0.5f) + Math.ulp(256.0f);
+
+        for (int chunk = 0; chunk < RenderRegion.REGION_WIDTH; chunk++) {
+            for (float v = -8.0f; v <= 24.0f; v += 0.0137f) {
+                assertEquals((chunk * 16) + v, decode(CompactModelVertexType.encodePosition(v, chunk)), tolerance,
+                        "chunk " + chunk + ", position " + v);
+            }
+        }
+    }
+
+    @Test
+    void lightLevelsSampleLightMapTexelCenters() {
+        for (int block = 0; block < 16; block++) {
+            for (int sky = 0; sky < 16; sky++) {
+                short value = CompactModelVertexType.encodeLightMapTexCoord(packLight(block << 4, sky << 4));
+
+                // Each light level selects one texel of the 16x16 light map, which must be sampled at its center
+                assertEquals((block + 0.5f) / 16.0f, decodeLight(getBlockLight(value)), "block light " + block);
+                assertEquals((sky + 0.5f) / 16.0f, decodeLight(getSkyLight(value)), "sky light " + sky);
+            }
+        }
+    }
+
+    @Test
+    void interpolatedLightIsKept() {
+        // Smooth lighting blends the light of neighboring blocks, which produces values between the light levels
+        for (int light = 0; light <= 240; light++) {
+            short value = CompactModelVertexType.encodeLightMapTexCoord(packLight(light, 240 - light));
+
+            assertEquals((light + 8.0f) / 256.0f, decodeLight(getBlockLight(value)), "block light " + light);
+            assertEquals((248.0f - light) / 256.0f, decodeLight(getSkyLight(value)), "sky light " + (240 - light));
+        }
+    }
+
+    @Test
+    void textureCoordinatesOnAtlasGridAreExact() {
+        // Sprites are placed on a grid of whole texels, and the atlas is never larger than the encoded range
+        for (int texel = 0; texel < 4096; texel++) {
+            float v = texel / 4096.0f;
+
+            assertEquals(v, decodeTexture(CompactModelVertexType.encodeBlockTexture(v)), "coordinate " + v);
+        }
+    }
+
+    @Test
+    void textureCoordinatesAtFarEdgeAreClamped() {
+        float edge = decodeTexture(CompactModelVertexType.encodeBlockTexture(1.0f));
+
+        // The far edge of the atlas must not wrap around to the near edge
+        assertEquals(1.0f, edge, VERTEX_TYPE.getTextureScale());
+        assertTrue(edge > decodeTexture(CompactModelVertexType.encodeBlockTexture(4095.0f / 4096.0f)));
+    }
+
+    @Test
+    void writersProduceSameLayout() {
+        ByteBuffer nio = writeVertex(CompactModelVertexBufferWriterNio::new);
+        ByteBuffer unsafe = writeVertex(CompactModelVertexBufferWriterUnsafe::new);
+
+        assertEquals(16, nio.limit());
+        assertEquals(nio, unsafe);
+
+        // Positions are relative to the region, so they include the offset of the chunk within it
+        assertEquals(32.0f + 0.5f, decode(nio.getShort(0)));
+        assertEquals(4.0f, decode(nio.getShort(2)));
+        assertEquals(16.0f + 15.0f, decode(nio.getShort(4)));
+
+        // The light-map coordinates are stored as one unsigned byte each, with the block light first
+        assertEquals(7 << 4, Byte.toUnsignedInt(nio.get(6)));
+        assertEquals(12 << 4, Byte.toUnsignedInt(nio.get(7)));
+
+        // The color is stored in the order it is read by the shader
+        assertEquals(0x11, Byte.toUnsignedInt(nio.get(8)));
+        assertEquals(0x22, Byte.toUnsignedInt(nio.get(9)));
+        assertEquals(0x33, Byte.toUnsignedInt(nio.get(10)));
+        assertEquals(0x44, Byte.toUnsignedInt(nio.get(11)));
+
+        assertEquals(0.25f, decodeTexture(nio.getShort(12)));
+        assertEquals(0.75f, decodeTexture(nio.getShort(14)));
+    }
+
+    private static ByteBuffer writeVertex(Function<VertexBufferBuilder, ModelVertexSink> factory) {
+        VertexBufferBuilder builder = new VertexBufferBuilder(VERTEX_TYPE.getBufferVertexFormat(), 1024);
+        builder.start();
+
+        ModelVertexSink sink = factory.apply(builder);
+        sink.ensureCapacity(1);
+        sink.writeVertex(0.5f, 4.0f, 15.0f, ColorABGR.pack(0x11, 0x22, 0x33, 0x44), 0.25f, 0.75f,
+                packLight(7 << 4, 12 << 4), RenderRegion.getChunkIndex(2, 0, 1));
+        sink.flush();
+
+        NativeBuffer buffer = builder.pop();
+
+        ByteBuffer copy = ByteBuffer.allocate(buffer.getLength())
+                .order(buffer.getDirectBuffer().order());
+        copy.put(buffer.getDirectBuffer().duplicate());
+        copy.flip();
+
+        buffer.free();
+        builder.destroy();
+
+        return copy;
+    }
+
+    /**
+     * Packs block and sky light in the same way as {@link net.minecraft.client.render.LightmapTextureManager#pack}, but
+     * without requiring either value to be a whole light level.
+     */
+    private static int packLight(int block, int sky) {
+        return block | (sky << 16);
+    }
+
+    private static int getBlockLight(short value) {
+        return value & 0xFF;
+    }
+
+    private static int getSkyLight(short value) {
+        return (value >> 8) & 0xFF;
+    }
+
+    /**
+     * Decodes a position in the same way as the vertex shader.
+     */
+    private static float decode(short value) {
+        return (Short.toUnsignedInt(value) * VERTEX_TYPE.getPositionScale()) + VERTEX_TYPE.getPositionOffset();
+    }
+
+    /**
+     * Decodes a light-map coordinate in the same way as the vertex shader.
+     */
+    private static float decodeLight(int value) {
+        return (value + 8.0f) / 256.0f;
+    }
+
+    /**
+     * Decodes a texture coordinate in the same way as the vertex shader.
+     */
+    private static float decodeTexture(short value) {
+        return Short.toUnsignedInt(value) * VERTEX_TYPE.getTextureScale();
+    }
+}
@@ -0,0 +1,96 @@
+package me.jellysquid.mods.sodium.client.render.chunk.graph;
+
+import it.unimi.dsi.fastutil.longs.Long2ReferenceMap;
+import it.unimi.dsi.fastutil.longs.Long2ReferenceOpenHashMap;
+import me.jellysquid.mods.sodium.client.render.chunk.RenderSection;
+import me.jellysquid.mods.sodium.client.render.chunk.region.RenderRegion;
+import me.jellysquid.mods.sodium.client.util.frustum.Frustum;
+import me.jellysquid.mods.sodium.client.util.frustum.JomlFrustum;
+import me.jellysquid.mods.sodium.common.util.DirectionUtil;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.Direction;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+
+/**
+ * A synthetic visibility graph of real regions and sections, which are fully loaded to the given render distance around
+ * the origin, along with a camera in the section at the origin which looks along the horizon. Every section is empty,
+ * so occlusion culling never rejects anything and the whole frustum is reachable.
+ */
+public class ChunkGraphFixture {
+    public static final int WORLD_HEIGHT_SECTIONS = 16;
+
+    public static final int CAMERA_SECTION_Y = 4;
+
+    private final Long2ReferenceMap<RenderRegion> regions = new Long2ReferenceOpenHashMap<>();
+    private final Long2ReferenceMap<RenderSection> sections = new Long2ReferenceOpenHashMap<>();
+
+    private final int renderDistance;
+    private final Frustum frustum;
+
+    public ChunkGraphFixture(int renderDistance) {
+        this.renderDistance = renderDistance;
+
+        for (int x = -renderDistance; x <= renderDistance; x++) {
+            for (int y = 0; y < WORLD_HEIGHT_SECTIONS; y++) {
+                for (int z = -renderDistance; z <= renderDistance; z++) {
+                    RenderRegion region = this.getOrCreateRegion(x, y, z);
+                    RenderSection section = new RenderSection(null, x, y, z, region);
+
+                    region.addChunk(section);
+                    this.sections.put(ChunkSectionPos.asLong(x, y, z), section);
+                }
+            }
+        }
+
+        Vector3f camera = new Vector3f(8.0f, (CAMERA_SECTION_Y << 4) + 8.0f, 8.0f);
+
+        Matrix4f matrix = new Matrix4f()
+                .perspective((float) Math.toRadians(70.0), 16.0f / 9.0f, 0.05f, (renderDistance + 1) * 16.0f * 4.0f)
+                .rotateY((float) Math.toRadians(30.0));
+
+        this.frustum = new JomlFrustum(matrix, camera);
+
+        for (RenderRegion region : this.regions.values()) {
+            region.updateVisibility(this.frustum);
+        }
+    }
+
+    private RenderRegion getOrCreateRegion(int x, int y, int z) {
+        long key = RenderRegion.getRegionKeyForChunk(x, y, z);
+        RenderRegion region = this.regions.get(key);
+
+        if (region == null) {
+            this.regions.put(key, region = RenderRegion.createRegionForChunk(null, x, y, z));
+
+            ChunkSectionPos pos = ChunkSectionPos.from(key);
+
+            for (Direction dir : DirectionUtil.ALL_DIRECTIONS) {
+                RenderRegion adj = this.regions.get(ChunkSectionPos.asLong(pos.getX() + dir.getOffsetX(),
+                        pos.getY() + dir.getOffsetY(), pos.getZ() + dir.getOffsetZ()));
+
+                if (adj != null) {
+                    adj.setAdjacentRegion(DirectionUtil.getOpposite(dir), region);
+                    region.setAdjacentRegion(dir, adj);
+                }
+            }
+        }
+
+        return region;
+    }
+
+    public int getRenderDistance() {
+        return this.renderDistance;
+    }
+
+    public Frustum getFrustum() {
+        return this.frustum;
+    }
+
+    /**
+     * @return The section containing the camera
+     */
+    public RenderSection getRoot() {
+        return this.sections.get(ChunkSectionPos.asLong(0, CAMERA_SECTION_Y, 0));
+    }
+}
@@ -0,0 +1,103 @@
+package me.jellysquid.mods.sodium.client.render.chunk.graph;
+
+import me.jellysquid.mods.sodium.client.render.chunk.ChunkRenderList;
+import me.jellysquid.mods.sodium.client.render.chunk.RenderSection;
+import me.jellysquid.mods.sodium.client.render.chunk.region.RenderRegion;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkGraphTraversalTest {
+    // Large enough that the outer distance shells are searched in parallel
+    private static final int RENDER_DISTANCE = 24;
+
+    private static ChunkGraphFixture fixture;
+
+    private int stamp;
+
+    @BeforeAll
+    static void setupGraph() {
+        fixture = new ChunkGraphFixture(RENDER_DISTANCE);
+    }
+
+    @Test
+    void parallelSearchProducesSameRenderList() {
+        Result serial = this.search(false, true);
+        Result parallel = this.search(true, true);
+
+        assertTrue(serial.queue.size() > ChunkGraphTraversal.PARALLEL_THRESHOLD, "graph is too small to search in parallel");
+
+        assertEquals(serial.queue, parallel.queue);
+        assertEquals(serial.iterated, parallel.iterated);
+
+        assertEquals(serial.regions, parallel.regions);
+        assertEquals(serial.renderList, parallel.renderList);
+
+        // Every section which was found to be visible is also drawn, as none of them are culled by fog
+        assertEquals(serial.queue, serial.iterated);
+        assertEquals(serial.queue.size(), serial.renderList.stream().mapToInt(List::size).sum());
+    }
+
+    @Test
+    void parallelSearchFindsSameReachableSections() {
+        Result serial = this.search(false, false);
+        Result parallel = this.search(true, false);
+
+        assertEquals(serial.queue, parallel.queue);
+
+        // Only the queue is filled when every reachable section is collected
+        assertTrue(serial.iterated.isEmpty());
+        assertTrue(serial.renderList.isEmpty());
+
+        // Without a frustum, every section within the render distance can be reached
+        assertEquals((RENDER_DISTANCE * 2 + 1) * (RENDER_DISTANCE * 2 + 1) * ChunkGraphFixture.WORLD_HEIGHT_SECTIONS,
+                serial.queue.size());
+    }
+
+    private Result search(boolean parallel, boolean useFrustum) {
+        ChunkRenderList renderList = new ChunkRenderList();
+        List<RenderSection> iterated = new ArrayList<>();
+
+        ChunkGraphTraversal traversal = new ChunkGraphTraversal(fixture.getRenderDistance(), new ChunkGraphTraversal.Visitor() {
+            @Override
+            public void onSectionVisible(RenderSection section) {
+                renderList.add(section);
+            }
+
+            @Override
+            public void onSectionIterated(RenderSection section) {
+                iterated.add(section);
+            }
+        });
+
+        traversal.begin(useFrustum ? fixture.getFrustum() : null, ++this.stamp, true, 0, 0);
+        traversal.addRoot(fixture.getRoot());
+        traversal.iterate(parallel);
+
+        ChunkGraphIterationQueue queue = traversal.getQueue();
+        List<RenderSection> visited = new ArrayList<>();
+
+        for (int i = 0; i < queue.size(); i++) {
+            visited.add(queue.getRender(i));
+        }
+
+        List<RenderRegion> regions = new ArrayList<>();
+        List<List<RenderSection>> sections = new ArrayList<>();
+
+        for (Map.Entry<RenderRegion, List<RenderSection>> entry : renderList.sorted(false)) {
+            regions.add(entry.getKey());
+            sections.add(new ArrayList<>(entry.getValue()));
+        }
+
+        return new Result(visited, iterated, regions, sections);
+    }
+
+    private record Result(List<RenderSection> queue, List<RenderSection> iterated, List<RenderRegion> regions,
+                          List<List<RenderSection>> renderList) {
+    }
+}
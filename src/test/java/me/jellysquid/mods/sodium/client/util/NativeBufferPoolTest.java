@@ -0,0 +1,79 @@
+package me.jellysquid.mods.sodium.client.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.lwjgl.system.MemoryUtil;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NativeBufferPoolTest {
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    // More than fits into the cache of a single thread, so some blocks also end up in the shared pool
+    private static final int BLOCK_COUNT = 8;
+
+    @BeforeEach
+    @AfterEach
+    void clearPool() {
+        NativeBufferPool.clear();
+    }
+
+    @Test
+    void releaseThreadCacheMovesBlocksToSharedPool() {
+        long pooledBefore = NativeBufferPool.getPooledBytes();
+
+        // The thread cache is only visible to the thread which filled it, so the blocks are released and moved on the
+        // thread which runs with the timeout
+        long freed = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (int i = 0; i < BLOCK_COUNT; i++) {
+                assertTrue(NativeBufferPool.release(MemoryUtil.nmemAlloc(BLOCK_SIZE), BLOCK_SIZE));
+            }
+
+            return NativeBufferPool.releaseThreadCache();
+        });
+
+        assertEquals(0, freed);
+        assertEquals(pooledBefore + (long) BLOCK_COUNT * BLOCK_SIZE, NativeBufferPool.getPooledBytes());
+
+        // Every block can now be taken by another thread, which starts out with an empty cache
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (int i = 0; i < BLOCK_COUNT; i++) {
+                long address = NativeBufferPool.take(BLOCK_SIZE);
+
+                assertNotEquals(MemoryUtil.NULL, address);
+                MemoryUtil.nmemFree(address);
+            }
+
+            assertEquals(MemoryUtil.NULL, NativeBufferPool.take(BLOCK_SIZE));
+        });
+    }
+
+    @Test
+    void releaseThreadCacheReturnsWithEmptyCache() {
+        long freed = assertTimeoutPreemptively(Duration.ofSeconds(10), NativeBufferPool::releaseThreadCache);
+
+        assertEquals(0, freed);
+    }
+
+    @Test
+    void releaseThreadCacheFreesBlocksWhenSharedPoolIsFull() {
+        // The largest size class only holds a few blocks in the shared pool
+        int blockSize = NativeBufferPool.getBlockSize(4 * 1024 * 1024);
+        int count = 8;
+
+        long freed = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (int i = 0; i < count; i++) {
+                // The first blocks fill the thread cache, and the rest exactly fill the shared pool
+                assertTrue(NativeBufferPool.release(MemoryUtil.nmemAlloc(blockSize), blockSize));
+            }
+
+            return NativeBufferPool.releaseThreadCache();
+        });
+
+        // The shared pool is already full, so every block from the thread cache is freed
+        assertEquals((long) (count - 4) * blockSize, freed);
+    }
+}
@@ -0,0 +1,121 @@
+package me.jellysquid.mods.sodium.common.util.collections;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkStealingPriorityQueueTest {
+    private static final Comparator<Task> URGENCY = Comparator.comparingInt(Task::urgency);
+    private static final Comparator<Task> ORDER = URGENCY.thenComparingInt(Task::priority);
+
+    @Test
+    void takesLocalElementsBeforeStealingEquallyUrgentOnes() {
+        WorkStealingPriorityQueue<Task> queue = new WorkStealingPriorityQueue<>(2, ORDER, URGENCY);
+
+        Task local = new Task(1, 10);
+        Task remote = new Task(1, 0);
+
+        queue.add(0, local);
+        queue.add(1, remote);
+
+        assertSame(local, queue.poll(0));
+        assertSame(remote, queue.poll(0));
+        assertNull(queue.poll(0));
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void stealsMoreUrgentElementsBeforeTakingLocalOnes() {
+        WorkStealingPriorityQueue<Task> queue = new WorkStealingPriorityQueue<>(3, ORDER, URGENCY);
+
+        Task local = new Task(1, 0);
+        Task urgent = new Task(0, 20);
+        Task mostUrgent = new Task(0, 10);
+
+        queue.add(0, local);
+        queue.add(1, urgent);
+        queue.add(2, mostUrgent);
+
+        assertSame(mostUrgent, queue.poll(0));
+        assertSame(urgent, queue.poll(0));
+        assertSame(local, queue.poll(0));
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void strictOrderIsKeptAcrossLanes() {
+        WorkStealingPriorityQueue<Task> queue = new WorkStealingPriorityQueue<>(4, ORDER);
+
+        for (int i = 0; i < 64; i++) {
+            queue.add(i % 4, new Task(0, (i * 37) % 64));
+        }
+
+        for (int i = 0; i < 64; i++) {
+            assertEquals(i, queue.poll(i % 4).priority());
+        }
+
+        assertNull(queue.poll(0));
+    }
+
+    @Test
+    void concurrentConsumersTakeEveryElementOnce() throws InterruptedException {
+        int laneCount = 4;
+        int elementsPerLane = 10000;
+
+        WorkStealingPriorityQueue<Task> queue = new WorkStealingPriorityQueue<>(laneCount, ORDER, URGENCY);
+
+        for (int i = 0; i < laneCount * elementsPerLane; i++) {
+            queue.add(i % laneCount, new Task(i % 3, i));
+        }
+
+        boolean[] taken = new boolean[laneCount * elementsPerLane];
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+
+        for (int lane = 0; lane < laneCount; lane++) {
+            int consumerLane = lane;
+
+            Thread thread = new Thread(() -> {
+                Task task;
+
+                while ((task = queue.poll(consumerLane)) != null) {
+                    synchronized (taken) {
+                        if (taken[task.priority()]) {
+                            throw new IllegalStateException("Element taken twice: " + task);
+                        }
+
+                        taken[task.priority()] = true;
+                    }
+                }
+            });
+
+            thread.setUncaughtExceptionHandler((t, e) -> {
+                synchronized (failures) {
+                    failures.add(e);
+                }
+            });
+
+            threads.add(thread);
+            thread.start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(failures.isEmpty(), () -> "Consumer failed: " + failures);
+        assertTrue(queue.isEmpty());
+
+        for (int i = 0; i < taken.length; i++) {
+            assertTrue(taken[i], "element " + i + " was never taken");
+        }
+    }
+
+    private record Task(int urgency, int priority) {
+
+    }
+}